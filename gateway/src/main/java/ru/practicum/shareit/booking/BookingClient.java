@@ -10,9 +10,12 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.List;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
@@ -31,23 +34,39 @@ public class BookingClient extends BaseClient {
     }
 
 
-    public ResponseEntity<Object> getBookings(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookings(Long userId, BookingState state, Integer from, Integer size,
+                                              String after) {
         String path = "?state=" + state.name() + "&from=" + from;
         if (size != null) {
             path += "&size=" + size;
         }
+        if (after != null) {
+            path += "&after=" + after;
+        }
         return get(path, userId, null);
     }
 
-    public ResponseEntity<Object> getBookingsOwner(Long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookingsOwner(Long userId, BookingState state, Integer from, Integer size,
+                                                   String after) {
         String path = "/owner?state=" + state.name() + "&from=" + from;
         if (size != null) {
             path += "&size=" + size;
         }
+        if (after != null) {
+            path += "&after=" + after;
+        }
         return get(path, userId, null);
     }
 
 
+    public ResponseEntity<Object> getSummary(Long userId) {
+        return get("/summary", userId);
+    }
+
+    public ResponseEntity<Object> getOwnerSummary(Long userId) {
+        return get("/owner/summary", userId);
+    }
+
     public ResponseEntity<Object> create(Long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
@@ -60,4 +79,8 @@ public class BookingClient extends BaseClient {
         String path = "/" + bookingId + "?approved=" + approved;
         return patch(path, userId, null, null);
     }
-}
\ No newline at end of file
+
+    public ResponseEntity<Object> updateBatch(Long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+}
@@ -8,10 +8,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,6 +25,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int MAX_BATCH_SIZE = 100;
     private final BookingClient bookingClient;
 
     @GetMapping
@@ -27,11 +33,13 @@ public class BookingController {
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                               Integer from,
-                                              @RequestParam(required = false) Integer size) {
+                                              @RequestParam(required = false) Integer size,
+                                              @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size,
+                after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
@@ -39,12 +47,25 @@ public class BookingController {
                                                    String stateParam,
                                                    @RequestHeader(USER_ID) Long userId,
                                                    @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                   @RequestParam(required = false) Integer size) {
+                                                   @RequestParam(required = false) Integer size,
+                                                   @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Получен GET-запрос к эндпоинту: '/bookings/owner' на получение " +
                 "списка всех бронирований вещей пользователя с ID={} с параметром STATE={}", userId, state);
-        return bookingClient.getBookingsOwner(userId, state, from, size);
+        return bookingClient.getBookingsOwner(userId, state, from, size, after);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getSummary(@RequestHeader(USER_ID) Long userId) {
+        log.info("Получен GET-запрос к эндпоинту: '/bookings/summary' от пользователя с ID={}", userId);
+        return bookingClient.getSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getOwnerSummary(@RequestHeader(USER_ID) Long userId) {
+        log.info("Получен GET-запрос к эндпоинту: '/bookings/owner/summary' от пользователя с ID={}", userId);
+        return bookingClient.getOwnerSummary(userId);
     }
 
     @PostMapping
@@ -69,4 +90,14 @@ public class BookingController {
                 bookingId);
         return bookingClient.update(bookingId, userId, approved);
     }
-}
\ No newline at end of file
+
+    @ResponseBody
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> updateBatch(@RequestHeader(USER_ID) Long userId,
+                                              @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                              List<@Valid BookingDecisionDto> decisions) {
+        log.info("Получен PATCH-запрос к эндпоинту: '/bookings/batch' на обновление статусов {} бронирований " +
+                "пользователем с ID={}", decisions.size(), userId);
+        return bookingClient.updateBatch(userId, decisions);
+    }
+}
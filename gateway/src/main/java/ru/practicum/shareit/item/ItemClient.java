@@ -12,6 +12,9 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
+
+import java.time.LocalDateTime;
 
 @Service
 public class ItemClient extends BaseClient {
@@ -54,14 +57,33 @@ public class ItemClient extends BaseClient {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItemsBySearchQuery(String text, Integer from, Integer size) {
+    public ResponseEntity<Object> getItemsBySearchQuery(String text, Integer from, Integer size, boolean fuzzy,
+                                                        ItemSearchSort sort, LocalDateTime availableFrom,
+                                                        LocalDateTime availableTo) {
         String path = "/search?text=" + text + "&from=" + from;
         if (size != null) {
             path += "&size=" + size;
         }
+        if (fuzzy) {
+            path += "&fuzzy=true";
+        }
+        if (sort != ItemSearchSort.NAME) {
+            path += "&sort=" + sort.name().toLowerCase();
+        }
+        if (availableFrom != null) {
+            path += "&availableFrom=" + availableFrom + "&availableTo=" + availableTo;
+        }
         return get(path);
     }
 
+    public ResponseEntity<Object> getSuggestions(String prefix, Integer limit) {
+        return get("/suggest?prefix=" + prefix + "&limit=" + limit);
+    }
+
+    public ResponseEntity<Object> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return get("/" + itemId + "/availability?from=" + from + "&to=" + to);
+    }
+
     public ResponseEntity<Object> createComment(CommentDto commentDto, Long itemId, Long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
@@ -2,16 +2,22 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
+import java.time.LocalDateTime;
+
 @Controller
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
@@ -19,6 +25,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 @Validated
 public class ItemController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final long SUGGEST_LIMIT_MAX = 10;
     private final ItemClient itemClient;
 
 
@@ -60,8 +67,44 @@ public class ItemController {
     @GetMapping("/search")
     public ResponseEntity<Object> getItemsBySearchQuery(@RequestParam String text,
                                                         @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                        @RequestParam(required = false) Integer size) {
-        return itemClient.getItemsBySearchQuery(text, from, size);
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                        @RequestParam(defaultValue = "name") String sort,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime availableFrom,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime availableTo) {
+        ItemSearchSort order = ItemSearchSort.from(sort)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sort));
+        if ((availableFrom == null) != (availableTo == null)) {
+            throw new IllegalArgumentException("Нужно указать и начало, и окончание периода");
+        }
+        if (availableFrom != null && !availableFrom.isBefore(availableTo)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его окончания");
+        }
+        return itemClient.getItemsBySearchQuery(text, from, size, fuzzy, order, availableFrom, availableTo);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> getSuggestions(@RequestParam String prefix,
+                                                 @Positive @Max(SUGGEST_LIMIT_MAX)
+                                                 @RequestParam(defaultValue = "10") Integer limit) {
+        return itemClient.getSuggestions(prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getItemAvailability(@PathVariable Long itemId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его окончания");
+        }
+        log.info("Запрос доступности вещи {} с {} по {}", itemId, from, to);
+        return itemClient.getItemAvailability(itemId, from, to);
     }
 
     @ResponseBody
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Optional;
+
+public enum ItemSearchSort {
+    // По названию
+    NAME,
+    // По релевантности запросу
+    RELEVANCE;
+
+    public static Optional<ItemSearchSort> from(String stringSort) {
+        for (ItemSearchSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -10,9 +10,11 @@ import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -88,7 +90,7 @@ class BookingClientTest {
                 eq(Object.class)
         )).thenReturn(expected);
 
-        ResponseEntity<Object> response = bookingClient.getBookings(1L, BookingState.ALL, 0, 10);
+        ResponseEntity<Object> response = bookingClient.getBookings(1L, BookingState.ALL, 0, 10, null);
 
         assertThat(response).isEqualTo(expected);
     }
@@ -104,7 +106,23 @@ class BookingClientTest {
                 eq(Object.class)
         )).thenReturn(expected);
 
-        ResponseEntity<Object> response = bookingClient.getBookingsOwner(1L, BookingState.ALL, 0, 10);
+        ResponseEntity<Object> response = bookingClient.getBookingsOwner(1L, BookingState.ALL, 0, 10, null);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldPassCursorToServer() {
+        ResponseEntity<Object> expected = ResponseEntity.ok("page");
+
+        when(restTemplate.exchange(
+                contains("?state=ALL&from=0&size=10&after=abc"),
+                eq(HttpMethod.GET),
+                any(),
+                eq(Object.class)
+        )).thenReturn(expected);
+
+        ResponseEntity<Object> response = bookingClient.getBookings(1L, BookingState.ALL, 0, 10, "abc");
 
         assertThat(response).isEqualTo(expected);
     }
@@ -124,4 +142,21 @@ class BookingClientTest {
 
         assertThat(response).isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldUpdateBookingStatusesInBatch() {
+        ResponseEntity<Object> expected = ResponseEntity.ok("batch");
+
+        when(restTemplate.exchange(
+                contains("/batch"),
+                eq(HttpMethod.PATCH),
+                any(),
+                eq(Object.class)
+        )).thenReturn(expected);
+
+        ResponseEntity<Object> response = bookingClient.updateBatch(1L,
+                List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false)));
+
+        assertThat(response).isEqualTo(expected);
+    }
+}
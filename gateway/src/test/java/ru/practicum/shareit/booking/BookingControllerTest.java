@@ -24,7 +24,7 @@ class BookingControllerTest {
 
     @Test
     void getBookings_ShouldReturnOk() throws Exception {
-        when(bookingClient.getBookings(anyLong(), any(), anyInt(), any()))
+        when(bookingClient.getBookings(anyLong(), any(), anyInt(), any(), any()))
                 .thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings")
@@ -36,7 +36,7 @@ class BookingControllerTest {
 
     @Test
     void getBookingsOwner_ShouldReturnOk() throws Exception {
-        when(bookingClient.getBookingsOwner(anyLong(), any(), anyInt(), any()))
+        when(bookingClient.getBookingsOwner(anyLong(), any(), anyInt(), any(), any()))
                 .thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings/owner")
@@ -81,4 +81,35 @@ class BookingControllerTest {
                         .param("approved", "true"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void updateBatch_ShouldReturnOk() throws Exception {
+        when(bookingClient.updateBatch(anyLong(), anyList())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(HEADER, 1)
+                        .contentType("application/json")
+                        .content("[{\"bookingId\": 1, \"approved\": true}, {\"bookingId\": 2, \"approved\": false}]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateBatch_ShouldReturnBadRequest_WhenDecisionIsIncomplete() throws Exception {
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(HEADER, 1)
+                        .contentType("application/json")
+                        .content("[{\"bookingId\": 1}]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).updateBatch(anyLong(), anyList());
+    }
+
+    @Test
+    void updateBatch_ShouldReturnBadRequest_WhenEmpty() throws Exception {
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(HEADER, 1)
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
 }
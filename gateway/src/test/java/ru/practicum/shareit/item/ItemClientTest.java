@@ -12,8 +12,11 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
@@ -174,12 +177,71 @@ class ItemClientTest {
                 .andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
 
-        ResponseEntity<Object> response = itemClient.getItemsBySearchQuery(text, from, size);
+        ResponseEntity<Object> response = itemClient.getItemsBySearchQuery(text, from, size, false,
+                ItemSearchSort.NAME, null, null);
 
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         server.verify();
     }
 
+    @Test
+    void shouldGetItemsBySearchQueryWithTypos() {
+        String path = "http://localhost:9090/items/search?text=dril&from=0&fuzzy=true";
+
+        server.expect(requestTo(path))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = itemClient.getItemsBySearchQuery("dril", 0, null, true,
+                ItemSearchSort.NAME, null, null);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void shouldGetItemsBySearchQueryByRelevance() {
+        String path = "http://localhost:9090/items/search?text=drill&from=0&size=5&sort=relevance";
+
+        server.expect(requestTo(path))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = itemClient.getItemsBySearchQuery("drill", 0, 5, false,
+                ItemSearchSort.RELEVANCE, null, null);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void shouldGetItemsBySearchQueryAvailableInWindow() {
+        String path = "http://localhost:9090/items/search?text=drill&from=0"
+                + "&availableFrom=2030-05-03T10:00&availableTo=2030-05-05T18:00";
+
+        server.expect(requestTo(path))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = itemClient.getItemsBySearchQuery("drill", 0, null, false,
+                ItemSearchSort.NAME, LocalDateTime.of(2030, 5, 3, 10, 0), LocalDateTime.of(2030, 5, 5, 18, 0));
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void shouldGetSuggestions() {
+        server.expect(requestTo("http://localhost:9090/items/suggest?prefix=dri&limit=5"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[\"drill\"]", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = itemClient.getSuggestions("dri", 5);
+
+        assertThat(response.getBody()).isEqualTo(List.of("drill"));
+        server.verify();
+    }
+
     @Test
     void shouldCreateComment() {
         Long userId = 1L;
@@ -201,4 +263,19 @@ class ItemClientTest {
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         server.verify();
     }
+
+    @Test
+    void shouldGetItemAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(1);
+
+        server.expect(requestTo("http://localhost:9090/items/1/availability?from=2030-01-01T12:00&to=2030-01-02T12:00"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"itemId\": 1, \"available\": true}", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = itemClient.getItemAvailability(1L, from, to);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        server.verify();
+    }
 }
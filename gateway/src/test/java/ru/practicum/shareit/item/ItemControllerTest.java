@@ -12,6 +12,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
 
 import java.time.LocalDateTime;
 import java.nio.charset.StandardCharsets;
@@ -136,7 +137,7 @@ class ItemControllerTest {
 
     @Test
     void shouldSearchItems() throws Exception {
-        when(itemClient.getItemsBySearchQuery("дрель", 0, 10))
+        when(itemClient.getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.NAME, null, null))
                 .thenReturn(ResponseEntity.ok(List.of(itemDto)));
 
         mvc.perform(get("/items/search")
@@ -145,7 +146,100 @@ class ItemControllerTest {
                         .param("size", "10"))
                 .andExpect(status().isOk());
 
-        verify(itemClient).getItemsBySearchQuery("дрель", 0, 10);
+        verify(itemClient).getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.NAME, null, null);
+    }
+
+    @Test
+    void shouldSearchItemsWithTypos() throws Exception {
+        when(itemClient.getItemsBySearchQuery("дрелъ", 0, 10, true, ItemSearchSort.NAME, null, null))
+                .thenReturn(ResponseEntity.ok(List.of(itemDto)));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "дрелъ")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemsBySearchQuery("дрелъ", 0, 10, true, ItemSearchSort.NAME, null, null);
+    }
+
+    @Test
+    void shouldSearchItemsByRelevance() throws Exception {
+        when(itemClient.getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.RELEVANCE, null, null))
+                .thenReturn(ResponseEntity.ok(List.of(itemDto)));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("size", "10")
+                        .param("sort", "relevance"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.RELEVANCE, null, null);
+    }
+
+    @Test
+    void shouldRejectUnknownSearchSort() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("sort", "price"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void shouldSearchItemsAvailableInWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 5, 3, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 5, 5, 18, 0);
+        when(itemClient.getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.NAME, from, to))
+                .thenReturn(ResponseEntity.ok(List.of(itemDto)));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("size", "10")
+                        .param("availableFrom", "2030-05-03T10:00:00")
+                        .param("availableTo", "2030-05-05T18:00:00"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemsBySearchQuery("дрель", 0, 10, false, ItemSearchSort.NAME, from, to);
+    }
+
+    @Test
+    void shouldRejectIncompleteOrInvertedSearchWindow() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("availableFrom", "2030-05-03T10:00:00"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("availableFrom", "2030-05-05T10:00:00")
+                        .param("availableTo", "2030-05-03T10:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void shouldGetSuggestions() throws Exception {
+        when(itemClient.getSuggestions("дре", 5)).thenReturn(ResponseEntity.ok(List.of("дрель")));
+
+        mvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("limit", "5"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getSuggestions("дре", 5);
+    }
+
+    @Test
+    void shouldRejectSuggestionsWithTooLargeLimit() throws Exception {
+        mvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("limit", "100"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
     }
 
     @Test
@@ -161,4 +255,28 @@ class ItemControllerTest {
 
         verify(itemClient).createComment(any(CommentDto.class), eq(1L), eq(1L));
     }
+
+    @Test
+    void shouldGetItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemClient.getItemAvailability(1L, from, to)).thenReturn(ResponseEntity.ok().build());
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-02T12:00:00"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemAvailability(1L, from, to);
+    }
+
+    @Test
+    void shouldRejectAvailabilityRequest_WhenPeriodIsInvalid() throws Exception {
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-02T12:00:00")
+                        .param("to", "2030-01-01T12:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
 }
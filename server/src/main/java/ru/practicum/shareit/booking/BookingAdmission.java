@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Приём команд создания бронирований. Команды раскладываются по полосам (stripes) по id вещи;
+ * у каждой полосы один поток-исполнитель и ограниченная очередь, поэтому команды для одной вещи
+ * выполняются строго по очереди — проверка расписания, запись и фиксация транзакции одной команды
+ * заканчиваются до начала следующей, — а команды для вещей из разных полос идут параллельно
+ * без блокировок строк в базе.
+ * <p>
+ * Вызывающий поток ждёт результата не дольше timeout-ms. Если очередь полосы заполнена или команда
+ * не успела начаться за это время, бросается ServiceUnavailableException, и команда уже не выполнится;
+ * если команда начата, вызывающий дожидается её исхода и возвращает его.
+ * <p>
+ * Полосы обслуживаются выделенными платформенными потоками: их немного и число их постоянно, каждый
+ * живёт всё время работы приложения и держит транзакцию с блокирующими вызовами JDBC, а однопоточный
+ * ThreadPoolExecutor с ArrayBlockingQueue сразу даёт ограниченную очередь и отказ при её переполнении.
+ * Виртуальные потоки выигрывают на множестве коротких задач, здесь же поток полосы один и занят постоянно.
+ */
+@Slf4j
+@Component
+public class BookingAdmission {
+    private final ThreadPoolExecutor[] stripes;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMillis;
+
+    @Autowired
+    public BookingAdmission(PlatformTransactionManager transactionManager,
+                            @Value("${shareit.booking.admission.stripes:8}") int stripes,
+                            @Value("${shareit.booking.admission.queue-capacity:1024}") int queueCapacity,
+                            @Value("${shareit.booking.admission.timeout-ms:10000}") long timeoutMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeoutMillis = timeoutMillis;
+        this.stripes = new ThreadPoolExecutor[stripes];
+        for (int i = 0; i < stripes; i++) {
+            String name = "booking-admission-" + i;
+            this.stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    /**
+     * Выполняет команду в отдельной транзакции на потоке полосы, которой принадлежит вещь itemId,
+     * и возвращает её результат. Исключение команды пробрасывается вызывающему как есть.
+     * <p>
+     * По истечении timeout-ms команда, ещё стоящая в очереди, снимается, и вызывающий получает отказ.
+     * Начатая команда может успеть зафиксировать бронирование, поэтому её исход дожидается: иначе клиент
+     * получил бы 503 за созданное бронирование, а повторный запрос упёрся бы в это же бронирование.
+     * Кто первым захватил команду — поток полосы или истёкший вызывающий, — решает один compareAndSet.
+     */
+    public <T> T submit(Long itemId, Supplier<T> command) {
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = stripes[stripe(itemId)].submit(() -> claimed.compareAndSet(false, true)
+                    ? transactionTemplate.execute(status -> command.get())
+                    : null);
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь приёма бронирований для вещи с id={} заполнена", itemId);
+            throw new ServiceUnavailableException("Слишком много одновременных запросов на бронирование вещи" +
+                    " с id=" + itemId + ", повторите позже");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                throw new ServiceUnavailableException("Запрос на бронирование вещи с id=" + itemId +
+                        " не обработан вовремя, повторите позже");
+            }
+            log.warn("Команда бронирования вещи с id={} выполняется дольше {} мс, ожидается её завершение",
+                    itemId, timeoutMillis);
+            try {
+                return future.get();
+            } catch (ExecutionException executionException) {
+                throw unwrap(executionException);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Ожидание приёма бронирования прервано");
+            }
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Ожидание приёма бронирования прервано");
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    int stripe(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+}
@@ -0,0 +1,207 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый перенос давно завершившихся бронирований из оперативной таблицы bookings в архив
+ * bookings_archive. Переносятся бронирования, закончившиеся раньше чем after-days дней назад,
+ * пачками по batch-size строк; вставка в архив и удаление из bookings выполняются в одной транзакции.
+ * <p>
+ * На PostgreSQL архив секционирован по end_date помесячно. Секции за текущий и следующий месяц
+ * создаются заранее — при старте и при каждом запуске, — а перед переносом пачки создаются недостающие
+ * секции за месяцы её строк; строки вне созданных секций попадают в секцию по умолчанию. Если в секции
+ * по умолчанию уже лежат строки за месяц новой секции, PostgreSQL её не создаст: тогда секция по
+ * умолчанию отсоединяется, создаётся новая секция, строки переносятся в неё, и секция по умолчанию
+ * присоединяется обратно — всё в одной транзакции. Месяц запоминается только после того, как секция
+ * создана; иначе попытка повторяется при следующем запуске.
+ * На H2 архив — обычная таблица с индексом по end_date.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private static final String POSTGRESQL = "postgresql";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String SELECT_CANDIDATES = "SELECT id, end_date FROM bookings " +
+            "WHERE end_date < :cutoff ORDER BY end_date LIMIT :limit";
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, archived) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, :archived FROM bookings WHERE id IN (:ids)";
+    private static final String DELETE_ARCHIVED = "DELETE FROM bookings WHERE id IN (:ids)";
+    private static final String DEFAULT_HAS_ROWS = "SELECT EXISTS (SELECT 1 FROM bookings_archive_default " +
+            "WHERE end_date >= ? AND end_date < ?)";
+    private static final String DETACH_DEFAULT = "ALTER TABLE bookings_archive DETACH PARTITION bookings_archive_default";
+    private static final String ATTACH_DEFAULT = "ALTER TABLE bookings_archive " +
+            "ATTACH PARTITION bookings_archive_default DEFAULT";
+    private static final String MOVE_FROM_DEFAULT = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, archived) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, archived FROM bookings_archive_default " +
+            "WHERE end_date >= ? AND end_date < ?";
+    private static final String DELETE_FROM_DEFAULT = "DELETE FROM bookings_archive_default " +
+            "WHERE end_date >= ? AND end_date < ?";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean partitioned;
+    private final long afterDays;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public BookingArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${spring.sql.init.platform:all}") String platform,
+                           @Value("${shareit.booking.archive.after-days:30}") long afterDays,
+                           @Value("${shareit.booking.archive.batch-size:500}") int batchSize,
+                           @Value("${shareit.booking.archive.interval-ms:600000}") long intervalMillis) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitioned = POSTGRESQL.equals(platform);
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        preparePartitions(LocalDateTime.now());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Переносит в архив все бронирования, закончившиеся раньше now минус after-days.
+     * Возвращает число перенесённых бронирований.
+     */
+    public int archive(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusDays(afterDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            total += moved;
+        } while (moved == batchSize && !Thread.currentThread().isInterrupted());
+        if (total > 0) {
+            log.info("В архив перенесено {} бронирований, завершившихся до {}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * Создаёт секции архива за месяц now и следующий, если архив секционирован.
+     */
+    void preparePartitions(LocalDateTime now) {
+        if (partitioned) {
+            YearMonth month = YearMonth.from(now);
+            ensurePartition(month);
+            ensurePartition(month.plusMonths(1));
+        }
+    }
+
+    private void run() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            preparePartitions(now);
+            archive(now);
+        } catch (RuntimeException e) {
+            log.error("Ошибка при переносе бронирований в архив: {}", e.getMessage(), e);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = new ArrayList<>();
+        Set<YearMonth> months = new TreeSet<>();
+        jdbcTemplate.query(SELECT_CANDIDATES, new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", batchSize), rs -> {
+            ids.add(rs.getLong("id"));
+            months.add(YearMonth.from(rs.getTimestamp("end_date").toLocalDateTime()));
+        });
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (partitioned) {
+            months.forEach(this::ensurePartition);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archived", LocalDateTime.now());
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(COPY_TO_ARCHIVE, params);
+            return jdbcTemplate.update(DELETE_ARCHIVED, params);
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (partitions.contains(month)) {
+            return;
+        }
+        String create = "CREATE TABLE IF NOT EXISTS bookings_archive_" + month.format(PARTITION_SUFFIX) +
+                " PARTITION OF bookings_archive FOR VALUES FROM ('" + month.atDay(1).atStartOfDay() +
+                "') TO ('" + month.plusMonths(1).atDay(1).atStartOfDay() + "')";
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        try {
+            jdbc.execute(create);
+        } catch (DataAccessException e) {
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            try {
+                if (!Boolean.TRUE.equals(jdbc.queryForObject(DEFAULT_HAS_ROWS, Boolean.class, from, to))) {
+                    log.warn("Не удалось создать секцию архива за {}, бронирования попадут в секцию по умолчанию: {}",
+                            month, e.getMessage());
+                    return;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbc.execute(DETACH_DEFAULT);
+                    jdbc.execute(create);
+                    jdbc.update(MOVE_FROM_DEFAULT, from, to);
+                    jdbc.update(DELETE_FROM_DEFAULT, from, to);
+                    jdbc.execute(ATTACH_DEFAULT);
+                });
+                log.info("Секция архива за {} создана, строки за этот месяц перенесены в неё из секции по умолчанию",
+                        month);
+            } catch (DataAccessException moveFailure) {
+                log.warn("Не удалось перенести строки за {} из секции архива по умолчанию, попытка будет повторена: {}",
+                        month, moveFailure.getMessage());
+                return;
+            }
+        }
+        partitions.add(month);
+    }
+}
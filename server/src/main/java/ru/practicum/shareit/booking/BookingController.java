@@ -3,10 +3,14 @@ package ru.practicum.shareit.booking;
 import jakarta.validation.constraints.Positive;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 
 import java.util.List;
 
@@ -16,6 +20,7 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
     private final BookingService service;
 
     @Autowired
@@ -39,6 +44,24 @@ public class BookingController {
         return service.update(bookingId, userId, approved);
     }
 
+    @ResponseBody
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> updateBatch(@RequestHeader(USER_ID) @Positive Long userId,
+                                                      @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Пакетное обновление статусов {} бронирований пользователем с id={}", decisions.size(), userId);
+        return service.updateBatch(userId, decisions);
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummary(@RequestHeader(USER_ID) @Positive Long userId) {
+        return service.getSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader(USER_ID) @Positive Long userId) {
+        return service.getOwnerSummary(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@PathVariable @Positive Long bookingId,
                                      @RequestHeader(USER_ID) @Positive Long userId) {
@@ -46,18 +69,37 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookings(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                        @RequestHeader(USER_ID) @Positive Long userId,
-                                        @RequestParam(defaultValue = "0") Integer from,
-                                        @RequestParam(required = false) Integer size) {
-        return service.getBookings(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getBookings(@RequestParam(name = "state", defaultValue = "ALL")
+                                                        String state,
+                                                        @RequestHeader(USER_ID) @Positive Long userId,
+                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String after) {
+        if (after == null) {
+            return ResponseEntity.ok(service.getBookings(state, userId, from, size));
+        }
+        return withNextCursor(service.getBookingsAfter(state, userId, after, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsOwner(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                             @RequestHeader(USER_ID) @Positive Long userId,
-                                             @RequestParam(defaultValue = "0") Integer from,
-                                             @RequestParam(required = false) Integer size) {
-        return service.getBookingsOwner(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsOwner(@RequestParam(name = "state", defaultValue = "ALL")
+                                                             String state,
+                                                             @RequestHeader(USER_ID) @Positive Long userId,
+                                                             @RequestParam(defaultValue = "0") Integer from,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(required = false) String after) {
+        if (after == null) {
+            return ResponseEntity.ok(service.getBookingsOwner(state, userId, from, size));
+        }
+        return withNextCursor(service.getBookingsOwnerAfter(state, userId, after, size), size);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if ((size != null) && (bookings.size() == size)) {
+            BookingDto last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR, BookingCursor.encode(last.getStart(), last.getId()));
+        }
+        return response.body(bookings);
     }
 }
\ No newline at end of file
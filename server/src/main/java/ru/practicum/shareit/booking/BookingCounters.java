@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Счётчики бронирований по пользователям (read model в таблице booking_counters): для каждого
+ * пользователя отдельно как бронирующего и как владельца хранится число бронирований всего,
+ * по каждому статусу и по положению во времени (FUTURE, CURRENT, PAST).
+ * <p>
+ * Статусные счётчики меняются в транзакции создания или изменения бронирования. Переходы во времени
+ * приходят от BookingLifecycleClock; чтобы повторное событие не сдвинуло счётчики дважды, текущее
+ * положение каждого бронирования хранится в bookings.phase и меняется условным UPDATE.
+ * При старте счётчики пересчитываются целиком по bookings и bookings_archive.
+ */
+@Slf4j
+@Component
+public class BookingCounters {
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private static final String ALL = "all_count";
+    private static final String SELECT = "SELECT all_count, current_count, past_count, future_count, " +
+            "waiting_count, approved_count, rejected_count, canceled_count, expired_count " +
+            "FROM booking_counters WHERE user_id = ? AND role = ?";
+    private static final String POSTGRESQL = "postgresql";
+    private static final String INSERT_EMPTY_POSTGRESQL = "INSERT INTO booking_counters (user_id, role) " +
+            "VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_EMPTY_H2 = "MERGE INTO booking_counters (user_id, role) KEY (user_id, role) " +
+            "VALUES (?, ?)";
+    private static final String SET_PHASE = "UPDATE bookings SET phase = ? WHERE id = ?";
+    private static final String SHIFT_PHASE = "UPDATE bookings SET phase = ? WHERE id = ? AND phase = ?";
+    private static final String SYNC_PHASES = "UPDATE bookings SET phase = CASE " +
+            "WHEN end_date <= ? THEN 'PAST' WHEN start_date <= ? THEN 'CURRENT' ELSE 'FUTURE' END";
+    private static final String DELETE_ALL = "DELETE FROM booking_counters";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String insertEmpty;
+
+    @Autowired
+    public BookingCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${spring.sql.init.platform:all}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.insertEmpty = POSTGRESQL.equals(platform) ? INSERT_EMPTY_POSTGRESQL : INSERT_EMPTY_H2;
+    }
+
+    public BookingSummaryDto get(Long userId, Role role) {
+        List<BookingSummaryDto> rows = jdbcTemplate.query(SELECT, (rs, rowNum) -> new BookingSummaryDto(
+                rs.getLong("all_count"), rs.getLong("current_count"), rs.getLong("past_count"),
+                rs.getLong("future_count"), rs.getLong("waiting_count"), rs.getLong("approved_count"),
+                rs.getLong("rejected_count"), rs.getLong("canceled_count"), rs.getLong("expired_count")),
+                userId, role.name());
+        return rows.isEmpty() ? new BookingSummaryDto() : rows.get(0);
+    }
+
+    /**
+     * Учитывает новое бронирование. Вызывается в транзакции, создавшей бронирование.
+     */
+    public void onCreated(Booking booking) {
+        BookingPhase phase = BookingPhase.at(booking.getStart(), booking.getEnd(), LocalDateTime.now());
+        jdbcTemplate.update(SET_PHASE, phase.name(), booking.getId());
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(ALL, 1);
+        deltas.put(column(phase), 1);
+        deltas.put(column(booking.getStatus()), 1);
+        apply(booking.getBooker().getId(), booking.getItem().getOwner().getId(), deltas);
+    }
+
+    /**
+     * Переносит бронирование из счётчика статуса from в счётчик статуса to.
+     * Вызывается в транзакции, изменившей статус.
+     */
+    public void onStatusChanged(Long bookerId, Long ownerId, Status from, Status to) {
+        if (from == to) {
+            return;
+        }
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(column(from), -1);
+        deltas.put(column(to), 1);
+        apply(bookerId, ownerId, deltas);
+    }
+
+    @EventListener
+    public void onBookingLifecycle(BookingLifecycleEvent event) {
+        switch (event.getType()) {
+            case STARTED:
+                transactionTemplate.executeWithoutResult(status ->
+                        shift(event, BookingPhase.FUTURE, BookingPhase.CURRENT));
+                break;
+            case ENDED:
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!shift(event, BookingPhase.CURRENT, BookingPhase.PAST)) {
+                        shift(event, BookingPhase.FUTURE, BookingPhase.PAST);
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Приводит bookings.phase к моменту now и пересчитывает все счётчики заново.
+     */
+    public void rebuild(LocalDateTime now) {
+        Integer users = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(SYNC_PHASES, now, now);
+            jdbcTemplate.update(DELETE_ALL);
+            return jdbcTemplate.update(rebuildSql());
+        });
+        log.info("Счётчики бронирований пересчитаны: {} строк", users);
+    }
+
+    private boolean shift(BookingLifecycleEvent event, BookingPhase from, BookingPhase to) {
+        if (jdbcTemplate.update(SHIFT_PHASE, to.name(), event.getBookingId(), from.name()) == 0) {
+            return false;
+        }
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(column(from), -1);
+        deltas.put(column(to), 1);
+        apply(event.getBookerId(), event.getOwnerId(), deltas);
+        return true;
+    }
+
+    private void apply(Long bookerId, Long ownerId, Map<String, Integer> deltas) {
+        List<Key> keys = new ArrayList<>(List.of(new Key(bookerId, Role.BOOKER), new Key(ownerId, Role.OWNER)));
+        // Единый порядок блокировки строк исключает взаимоблокировку встречных транзакций.
+        keys.sort(Comparator.comparingLong(Key::userId).thenComparing(Key::role));
+        String sql = "UPDATE booking_counters SET " + deltas.keySet().stream()
+                .map(column -> column + " = " + column + " + ?")
+                .collect(joining(", ")) + " WHERE user_id = ? AND role = ?";
+        for (Key key : keys) {
+            List<Object> args = new ArrayList<>(deltas.values());
+            args.add(key.userId());
+            args.add(key.role().name());
+            if (jdbcTemplate.update(sql, args.toArray()) == 0) {
+                // Вставка без ошибки при конфликте: строку мог только что создать параллельный запрос,
+                // а ошибка дубликата на PostgreSQL оборвала бы всю транзакцию.
+                jdbcTemplate.update(insertEmpty, key.userId(), key.role().name());
+                jdbcTemplate.update(sql, args.toArray());
+            }
+        }
+    }
+
+    private static String rebuildSql() {
+        String sums = Arrays.stream(BookingPhase.values())
+                .map(phase -> "SUM(CASE WHEN phase = '" + phase.name() + "' THEN 1 ELSE 0 END)")
+                .collect(joining(", "));
+        String statusSums = Arrays.stream(Status.values())
+                .map(status -> "SUM(CASE WHEN status = '" + status.name() + "' THEN 1 ELSE 0 END)")
+                .collect(joining(", "));
+        String columns = Arrays.stream(BookingPhase.values()).map(BookingCounters::column).collect(joining(", ")) +
+                ", " + Arrays.stream(Status.values()).map(BookingCounters::column).collect(joining(", "));
+        return "INSERT INTO booking_counters (user_id, role, all_count, " + columns + ") " +
+                "SELECT user_id, role, COUNT(*), " + sums + ", " + statusSums + " FROM (" +
+                "SELECT b.booker_id AS user_id, 'BOOKER' AS role, b.phase AS phase, b.status AS status " +
+                "FROM bookings b " +
+                "UNION ALL SELECT i.owner_id, 'OWNER', b.phase, b.status " +
+                "FROM bookings b JOIN items i ON i.id = b.item_id " +
+                "UNION ALL SELECT a.booker_id, 'BOOKER', 'PAST', a.status FROM bookings_archive a " +
+                "UNION ALL SELECT i.owner_id, 'OWNER', 'PAST', a.status " +
+                "FROM bookings_archive a JOIN items i ON i.id = a.item_id" +
+                ") t GROUP BY user_id, role";
+    }
+
+    private static String column(Enum<?> value) {
+        return value.name().toLowerCase() + "_count";
+    }
+
+    private record Key(Long userId, Role role) {
+    }
+}
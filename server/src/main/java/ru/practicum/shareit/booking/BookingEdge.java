@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция результата оконного запроса последнего и ближайшего бронирований вещи.
+ */
+public interface BookingEdge {
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    String getKind();
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запросы по всей истории бронирований, включая перенесённые в архив.
+ * Состояния ALL, PAST и REJECTED читаются отсюда; CURRENT, FUTURE и WAITING касаются только
+ * незавершённых бронирований и обслуживаются BookingRepository без обращения к архиву.
+ */
+@org.springframework.stereotype.Repository
+public interface BookingHistoryRepository extends Repository<BookingRecord, Long> {
+    String DETAILS = "BookingRecord.details";
+
+    @EntityGraph(DETAILS)
+    Optional<BookingRecord> findById(Long id);
+
+    boolean existsById(Long id);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByBookerId(Long bookerId, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByBookerIdAndStatus(Long bookerId, Status status, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByItemOwnerId(Long ownerId, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByItemOwnerIdAndEndIsBefore(Long ownerId, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    Page<BookingRecord> findByItemOwnerIdAndStatus(Long ownerId, Status status, Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    BookingRecord findFirstByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime end);
+
+    @EntityGraph(DETAILS)
+    BookingRecord findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(Long itemId, Long userId,
+                                                                      LocalDateTime end, Status status);
+
+    @EntityGraph(DETAILS)
+    @Query("select b from BookingRecord b " +
+            "where b.booker.id = :bookerId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore " +
+            "and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingRecord> findByBookerIdAfter(@Param("bookerId") Long bookerId,
+                                            @Param("statuses") Collection<Status> statuses,
+                                            @Param("startAfter") LocalDateTime startAfter,
+                                            @Param("startBefore") LocalDateTime startBefore,
+                                            @Param("endAfter") LocalDateTime endAfter,
+                                            @Param("endBefore") LocalDateTime endBefore,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    @Query("select b from BookingRecord b " +
+            "where b.item.owner.id = :ownerId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore " +
+            "and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingRecord> findByItemOwnerIdAfter(@Param("ownerId") Long ownerId,
+                                               @Param("statuses") Collection<Status> statuses,
+                                               @Param("startAfter") LocalDateTime startAfter,
+                                               @Param("startBefore") LocalDateTime startBefore,
+                                               @Param("endAfter") LocalDateTime endAfter,
+                                               @Param("endBefore") LocalDateTime endBefore,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
+}
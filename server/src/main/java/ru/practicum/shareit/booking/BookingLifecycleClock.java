@@ -0,0 +1,232 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.util.AfterTransaction;
+import ru.practicum.shareit.util.TimingWheel;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Планировщик событий начала и окончания бронирований на иерархическом колесе таймеров.
+ * Отслеживает все незавершённые бронирования независимо от статуса, публикует BookingLifecycleEvent
+ * и пакетно переводит неподтверждённые бронирования в EXPIRED, когда подтверждать их уже поздно.
+ * Отменённые таймеры не удаляются из колеса: при срабатывании таймер сверяется с текущим
+ * состоянием бронирования и устаревшие пропускаются.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleClock {
+    private static final long TICK_MILLIS = 1_000;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final BookingRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final Outbox outbox;
+    private final BookingCounters counters;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean expireWaitingOnStart;
+    private final Map<Long, Tracked> tracked = new ConcurrentHashMap<>();
+    private final TimingWheel<Timer> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_LEVELS, System.currentTimeMillis());
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public BookingLifecycleClock(BookingRepository bookingRepository, ApplicationEventPublisher publisher,
+                                 Outbox outbox, BookingCounters bookingCounters,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.booking.expire-waiting-on-start:false}")
+                                 boolean expireWaitingOnStart) {
+        this.repository = bookingRepository;
+        this.publisher = publisher;
+        this.outbox = outbox;
+        this.counters = bookingCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.expireWaitingOnStart = expireWaitingOnStart;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer expired = transactionTemplate.execute(status -> expireWaitingOnStart
+                ? repository.expireWaitingStartedBefore(now)
+                : repository.expireWaitingEndedBefore(now));
+        counters.rebuild(now);
+        List<Booking> active = repository.findAllByEndIsAfter(now);
+        active.forEach(this::register);
+        log.info("Планировщик бронирований запущен: отслеживается {}, истекло при старте {}", active.size(),
+                expired);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-lifecycle-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Начинает (или обновляет) отслеживание бронирования после фиксации текущей транзакции.
+     */
+    public void track(Booking booking) {
+        track(booking, booking.getStatus());
+    }
+
+    public void track(Booking booking, Status status) {
+        Tracked snapshot = Tracked.of(booking, status);
+        AfterTransaction.commit(() -> register(snapshot));
+    }
+
+    int trackedCount() {
+        return tracked.size();
+    }
+
+    void advance(LocalDateTime now) {
+        List<Timer> fired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advanceTo(toMillis(now), fired::add);
+        }
+        fire(fired);
+    }
+
+    private void tick() {
+        try {
+            advance(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Ошибка при обработке событий бронирований: {}", e.getMessage(), e);
+        }
+    }
+
+    private void register(Booking booking) {
+        register(Tracked.of(booking, booking.getStatus()));
+    }
+
+    private void register(Tracked booking) {
+        Tracked previous = tracked.put(booking.bookingId(), booking);
+        if (previous != null && previous.start().equals(booking.start()) && previous.end().equals(booking.end())) {
+            return;
+        }
+        List<Timer> due = new ArrayList<>();
+        synchronized (wheel) {
+            Timer started = new Timer(booking.bookingId(), BookingLifecycleEvent.Type.STARTED, booking.start());
+            if (!wheel.schedule(toMillis(started.at()), started)) {
+                due.add(started);
+            }
+            Timer ended = new Timer(booking.bookingId(), BookingLifecycleEvent.Type.ENDED, booking.end());
+            if (!wheel.schedule(toMillis(ended.at()), ended)) {
+                due.add(ended);
+            }
+        }
+        fire(due);
+    }
+
+    private void fire(List<Timer> timers) {
+        List<Tracked> expiring = new ArrayList<>();
+        for (Timer timer : timers) {
+            Tracked booking = tracked.get(timer.bookingId());
+            if (booking == null || !timer.at().equals(timer.type() == BookingLifecycleEvent.Type.STARTED
+                    ? booking.start() : booking.end())) {
+                continue;
+            }
+            boolean waiting = booking.status() == Status.WAITING;
+            if (timer.type() == BookingLifecycleEvent.Type.STARTED) {
+                if (waiting && expireWaitingOnStart) {
+                    expiring.add(booking);
+                }
+                publish(BookingLifecycleEvent.Type.STARTED, booking);
+            } else if (tracked.remove(booking.bookingId(), booking)) {
+                if (waiting) {
+                    expiring.add(booking);
+                }
+                publish(BookingLifecycleEvent.Type.ENDED, booking);
+            }
+        }
+        if (!expiring.isEmpty()) {
+            expire(expiring);
+        }
+    }
+
+    private void expire(List<Tracked> bookings) {
+        List<Long> ids = bookings.stream().map(Tracked::bookingId).collect(toList());
+        int[] updated = transactionTemplate.execute(status -> {
+            int[] rows = repository.transitionStatuses(ids, Collections.nCopies(ids.size(), Status.EXPIRED),
+                    Status.WAITING);
+            for (int i = 0; i < bookings.size(); i++) {
+                if (rows[i] != 0) {
+                    Tracked booking = bookings.get(i);
+                    counters.onStatusChanged(booking.bookerId(), booking.ownerId(), Status.WAITING, Status.EXPIRED);
+                    outbox.append(Outbox.BOOKING, booking.bookingId(), Outbox.STATUS_CHANGED, Outbox.payload(
+                            "itemId", booking.itemId(),
+                            "bookerId", booking.bookerId(),
+                            "ownerId", booking.ownerId(),
+                            "start", booking.start(),
+                            "end", booking.end(),
+                            "status", Status.EXPIRED));
+                }
+            }
+            return rows;
+        });
+        int count = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            Tracked booking = bookings.get(i);
+            if (updated != null && updated[i] != 0) {
+                tracked.replace(booking.bookingId(), booking, booking.withStatus(Status.EXPIRED));
+                count++;
+                publish(BookingLifecycleEvent.Type.EXPIRED, booking);
+            }
+        }
+        log.info("Истекло неподтверждённых бронирований: {} из {}", count, bookings.size());
+    }
+
+    private void publish(BookingLifecycleEvent.Type type, Tracked booking) {
+        publisher.publishEvent(new BookingLifecycleEvent(type, booking.bookingId(), booking.itemId(),
+                booking.bookerId(), booking.ownerId(),
+                type == BookingLifecycleEvent.Type.STARTED ? booking.start() : booking.end()));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Timer(Long bookingId, BookingLifecycleEvent.Type type, LocalDateTime at) {
+    }
+
+    private record Tracked(Long bookingId, Long itemId, Long bookerId, Long ownerId,
+                           LocalDateTime start, LocalDateTime end, Status status) {
+        static Tracked of(Booking booking, Status status) {
+            return new Tracked(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                    booking.getItem().getOwner().getId(), booking.getStart(), booking.getEnd(), status);
+        }
+
+        Tracked withStatus(Status status) {
+            return new Tracked(bookingId, itemId, bookerId, ownerId, start, end, status);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие жизненного цикла бронирования, публикуемое планировщиком BookingLifecycleClock
+ * в момент начала и окончания бронирования или при истечении неподтверждённого бронирования.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingLifecycleEvent {
+    private final Type type;
+    private final Long bookingId;
+    private final Long itemId;
+    private final Long bookerId;
+    private final Long ownerId;
+    private final LocalDateTime at;
+
+    public enum Type {
+        STARTED,
+        ENDED,
+        EXPIRED
+    }
+}
@@ -1,29 +1,36 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.ItemMapper;
-import ru.practicum.shareit.item.ItemServiceImpl;
 import ru.practicum.shareit.user.UserMapper;
-import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.CheckConsistencyService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 @Component
 public class BookingMapper {
-    private UserServiceImpl userService;
-    private ItemServiceImpl itemService;
     private UserMapper userMapper;
     private ItemMapper itemMapper;
+    private CheckConsistencyService checker;
 
     @Autowired
-    public BookingMapper(UserServiceImpl userService, ItemServiceImpl itemService,
-                         UserMapper userMapper, ItemMapper itemMapper) {
-        this.userService = userService;
-        this.itemService = itemService;
+    @Lazy
+    public BookingMapper(UserMapper userMapper, ItemMapper itemMapper,
+                         CheckConsistencyService checkConsistencyService) {
         this.userMapper = userMapper;
         this.itemMapper = itemMapper;
+        this.checker = checkConsistencyService;
     }
 
     public BookingDto toBookingDto(Booking booking) {
@@ -41,6 +48,27 @@ public class BookingMapper {
         }
     }
 
+    /**
+     * Собирает DTO для списка бронирований, загружая отзывы всех вещей одним запросом.
+     * Вещи, владельцы и арендаторы должны быть уже загружены вместе с бронированиями.
+     */
+    public List<BookingDto> toBookingDtoList(List<Booking> bookings) {
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(toSet());
+        Map<Long, List<CommentDto>> comments = checker.getCommentsByItemIds(itemIds);
+        return bookings.stream()
+                .map(booking -> new BookingDto(
+                        booking.getId(),
+                        booking.getStart(),
+                        booking.getEnd(),
+                        itemMapper.toItemDto(booking.getItem(),
+                                comments.getOrDefault(booking.getItem().getId(), List.of())),
+                        userMapper.toUserDto(booking.getBooker()),
+                        booking.getStatus()))
+                .collect(toList());
+    }
+
     public BookingShortDto toBookingShortDto(Booking booking) {
         if (booking != null) {
             return new BookingShortDto(
@@ -54,13 +82,22 @@ public class BookingMapper {
         }
     }
 
+    public BookingShortDto toShortDto(BookingEdge edge) {
+        return new BookingShortDto(
+                edge.getId(),
+                edge.getBookerId(),
+                edge.getStartDate(),
+                edge.getEndDate()
+        );
+    }
+
     public Booking toBooking(BookingInputDto bookingInputDto, Long bookerId) {
         return new Booking(
                 null,
                 bookingInputDto.getStart(),
                 bookingInputDto.getEnd(),
-                itemService.findItemById(bookingInputDto.getItemId()),
-                userService.findUserById(bookerId),
+                checker.findItemById(bookingInputDto.getItemId()),
+                checker.findUserById(bookerId),
                 Status.WAITING
         );
     }
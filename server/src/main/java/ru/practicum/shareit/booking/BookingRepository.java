@@ -2,39 +2,123 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBookerId(Long bookerId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String DETAILS = "Booking.details";
 
+    @EntityGraph(DETAILS)
     Page<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfter(Long bookerId, LocalDateTime start,
                                                               LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Pageable pageable);
-
+    @EntityGraph(DETAILS)
     Page<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(DETAILS)
     Page<Booking> findByBookerIdAndStatus(Long bookerId, Status status, Pageable pageable);
 
-    Page<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
-
+    @EntityGraph(DETAILS)
     Page<Booking> findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(Long ownerId, LocalDateTime start,
                                                                  LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findByItemOwnerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Pageable pageable);
-
+    @EntityGraph(DETAILS)
     Page<Booking> findByItemOwnerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(DETAILS)
     Page<Booking> findByItemOwnerIdAndStatus(Long bookerId, Status status, Pageable pageable);
 
-    Booking findFirstByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime end);
-
     Booking findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime end);
 
-    Booking findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(Long itemId, Long userId,
-                                                                LocalDateTime end, Status status);
+    /**
+     * Последнее завершившееся и ближайшее предстоящее бронирование для каждой вещи из набора
+     * одним запросом: ROW_NUMBER() выбирает первую строку в каждой партиции по item_id.
+     * Последнее бронирование может уже лежать в архиве, поэтому оно ищется в booking_history.
+     */
+    @Query(value = "select e.kind as kind, e.id as id, e.item_id as itemId, e.booker_id as bookerId, " +
+            "e.start_date as startDate, e.end_date as endDate " +
+            "from (" +
+            "select 'LAST' as kind, b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "row_number() over (partition by b.item_id order by b.end_date desc, b.id desc) as rn " +
+            "from booking_history b where b.item_id in (:itemIds) and b.end_date < :now " +
+            "union all " +
+            "select 'NEXT' as kind, b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "row_number() over (partition by b.item_id order by b.start_date asc, b.id asc) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.start_date > :now" +
+            ") e where e.rn = 1", nativeQuery = true)
+    List<BookingEdge> findLastAndNextByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                               @Param("now") LocalDateTime now);
+
+    /**
+     * Атомарно переводит бронирование из статуса expected в target.
+     * Возвращает 0, если статус уже изменил другой запрос.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Booking b set b.status = :target, b.version = b.version + 1 " +
+            "where b.id = :id and b.status = :expected")
+    int transitionStatus(@Param("id") Long id, @Param("expected") Status expected, @Param("target") Status target);
+
+    @EntityGraph(DETAILS)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Booking b set b.status = ru.practicum.shareit.booking.Status.EXPIRED, " +
+            "b.version = b.version + 1 " +
+            "where b.status = ru.practicum.shareit.booking.Status.WAITING and b.end < :deadline")
+    int expireWaitingEndedBefore(@Param("deadline") LocalDateTime deadline);
+
+    @Modifying
+    @Query("update Booking b set b.status = ru.practicum.shareit.booking.Status.EXPIRED, " +
+            "b.version = b.version + 1 " +
+            "where b.status = ru.practicum.shareit.booking.Status.WAITING and b.start < :deadline")
+    int expireWaitingStartedBefore(@Param("deadline") LocalDateTime deadline);
+
+    @EntityGraph(DETAILS)
+    List<Booking> findAllByStatusInAndEndIsAfter(Collection<Status> statuses, LocalDateTime end);
+
+    @EntityGraph(DETAILS)
+    List<Booking> findAllByEndIsAfter(LocalDateTime end);
+
+    @EntityGraph(DETAILS)
+    @Query("select b from Booking b " +
+            "where b.booker.id = :bookerId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore " +
+            "and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByBookerIdAfter(@Param("bookerId") Long bookerId,
+                                      @Param("statuses") Collection<Status> statuses,
+                                      @Param("startAfter") LocalDateTime startAfter,
+                                      @Param("startBefore") LocalDateTime startBefore,
+                                      @Param("endAfter") LocalDateTime endAfter,
+                                      @Param("endBefore") LocalDateTime endBefore,
+                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    @EntityGraph(DETAILS)
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = :ownerId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore " +
+            "and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findByItemOwnerIdAfter(@Param("ownerId") Long ownerId,
+                                         @Param("statuses") Collection<Status> statuses,
+                                         @Param("startAfter") LocalDateTime startAfter,
+                                         @Param("startBefore") LocalDateTime startBefore,
+                                         @Param("endAfter") LocalDateTime endAfter,
+                                         @Param("endBefore") LocalDateTime endBefore,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    /**
+     * Пакетно переводит бронирования ids.get(i) из статуса expected в targets.get(i).
+     * Для каждого бронирования возвращает число изменённых строк: 0 означает, что статус уже изменён.
+     */
+    int[] transitionStatuses(List<Long> ids, List<Status> targets, Status expected);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final String TRANSITION_STATUS = "UPDATE bookings SET status = ?, version = version + 1 " +
+            "WHERE id = ? AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BookingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] transitionStatuses(List<Long> ids, List<Status> targets, Status expected) {
+        return jdbcTemplate.batchUpdate(TRANSITION_STATUS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, targets.get(i).name());
+                ps.setLong(2, ids.get(i));
+                ps.setString(3, expected.name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.AfterTransaction;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Расписание занятости вещей: для каждой вещи хранит интервалы [start, end) бронирований
+ * в статусах WAITING и APPROVED, упорядоченные по началу. Пересечения не допускаются,
+ * поэтому проверка занятости и поиск ближайшего свободного окна выполняются за O(log n).
+ */
+@Slf4j
+@Component
+public class BookingSchedule {
+    private static final Set<Status> OCCUPYING = EnumSet.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository repository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingSchedule(BookingRepository bookingRepository) {
+        this.repository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int loaded = 0;
+        for (Booking booking : repository.findAllByStatusInAndEndIsAfter(OCCUPYING, LocalDateTime.now())) {
+            if (timeline(booking.getItem().getId()).add(Slot.of(booking))) {
+                loaded++;
+            } else {
+                log.warn("Бронирование с id={} пересекается с уже загруженным и не учтено в расписании",
+                        booking.getId());
+            }
+        }
+        log.info("Расписание бронирований загружено: {} интервалов для {} вещей", loaded, timelines.size());
+    }
+
+    public boolean tryReserve(Booking booking) {
+        if (!OCCUPYING.contains(booking.getStatus())) {
+            return true;
+        }
+        Slot slot = Slot.of(booking);
+        ItemTimeline timeline = timeline(booking.getItem().getId());
+        if (!timeline.add(slot)) {
+            return false;
+        }
+        AfterTransaction.rollback(() -> timeline.remove(slot));
+        return true;
+    }
+
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    /**
+     * Освобождает интервал бронирования после фиксации текущей транзакции (или сразу, если её нет).
+     * До фиксации интервал остаётся занятым: при откате бронирование в базе сохраняет прежний статус,
+     * а пересекающаяся заявка не успеет пройти приём, пока отказ или отмена не записаны.
+     */
+    public void releaseAfterCommit(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        AfterTransaction.commit(() -> release(itemId, bookingId, start, end));
+    }
+
+    public void release(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            timeline.remove(new Slot(start, end, bookingId));
+        }
+    }
+
+    /**
+     * Убирает из расписания завершившееся бронирование, чтобы интервалы прошлого не копились в памяти.
+     */
+    @EventListener
+    public void onBookingLifecycle(BookingLifecycleEvent event) {
+        if (event.getType() == BookingLifecycleEvent.Type.STARTED) {
+            return;
+        }
+        ItemTimeline timeline = timelines.get(event.getItemId());
+        if (timeline != null) {
+            timeline.removeById(event.getBookingId());
+        }
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null || timeline.isFree(from, to);
+    }
+
+    public LocalDateTime nextFreeStart(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? from : timeline.nextFreeStart(from, to);
+    }
+
+    private ItemTimeline timeline(Long itemId) {
+        return timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+    }
+
+    private static final class ItemTimeline {
+        private final TreeSet<Slot> slots = new TreeSet<>(Comparator
+                .comparing(Slot::start)
+                .thenComparingLong(Slot::bookingId));
+
+        synchronized boolean add(Slot slot) {
+            if (!isFree(slot.start(), slot.end())) {
+                return false;
+            }
+            slots.add(slot);
+            return true;
+        }
+
+        synchronized void remove(Slot slot) {
+            slots.remove(slot);
+        }
+
+        synchronized void removeById(long bookingId) {
+            slots.removeIf(slot -> slot.bookingId() == bookingId);
+        }
+
+        synchronized boolean isFree(LocalDateTime from, LocalDateTime to) {
+            Slot last = slots.lower(Slot.probe(to));
+            return last == null || !last.end().isAfter(from);
+        }
+
+        synchronized LocalDateTime nextFreeStart(LocalDateTime from, LocalDateTime to) {
+            Duration duration = Duration.between(from, to);
+            LocalDateTime start = from;
+            Slot current = slots.lower(Slot.probe(start));
+            if (current != null && current.end().isAfter(start)) {
+                start = current.end();
+            }
+            for (Slot next : slots.tailSet(Slot.probe(start), true)) {
+                if (!next.start().isBefore(start.plus(duration))) {
+                    break;
+                }
+                start = next.end();
+            }
+            return start;
+        }
+    }
+
+    private record Slot(LocalDateTime start, LocalDateTime end, long bookingId) {
+        static Slot of(Booking booking) {
+            return new Slot(booking.getStart(), booking.getEnd(), booking.getId());
+        }
+
+        static Slot probe(LocalDateTime time) {
+            return new Slot(time, time, Long.MIN_VALUE);
+        }
+    }
+}
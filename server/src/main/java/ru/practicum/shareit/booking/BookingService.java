@@ -1,26 +1,44 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingDto create(BookingInputDto bookingDto, Long bookerId);
 
     BookingDto update(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingDecisionResultDto> updateBatch(Long userId, List<BookingDecisionDto> decisions);
+
     BookingDto getBookingById(Long bookingId, Long userId);
 
     List<BookingDto> getBookings(String state, Long userId, Integer from, Integer size);
 
     List<BookingDto> getBookingsOwner(String state, Long userId, Integer from, Integer size);
 
+    List<BookingDto> getBookingsAfter(String state, Long userId, String after, Integer size);
+
+    List<BookingDto> getBookingsOwnerAfter(String state, Long userId, String after, Integer size);
+
+    BookingSummaryDto getSummary(Long userId);
+
+    BookingSummaryDto getOwnerSummary(Long userId);
+
     BookingShortDto getLastBooking(Long itemId);
 
     BookingShortDto getNextBooking(Long itemId);
 
+    Map<Long, ItemBookingsDto> getLastAndNextBookings(Collection<Long> itemIds);
+
     Booking getBookingWithUserBookedItem(Long itemId, Long userId);
 
 }
\ No newline at end of file
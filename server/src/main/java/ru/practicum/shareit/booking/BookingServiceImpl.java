@@ -9,39 +9,86 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.CheckConsistencyService;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.util.LookupContext;
 import ru.practicum.shareit.util.Pagination;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 
 @Slf4j
 @Service
 public class BookingServiceImpl implements BookingService {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59);
     private final BookingRepository repository;
+    private final BookingHistoryRepository history;
     private final BookingMapper mapper;
     private final CheckConsistencyService checker;
+    private final BookingSchedule schedule;
+    private final BookingLifecycleClock clock;
+    private final BookingCounters counters;
+    private final BookingAdmission admission;
+    private final LookupContext lookups;
+    private final Outbox outbox;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
 
     @Autowired
     @Lazy
-    public BookingServiceImpl(BookingRepository bookingRepository, BookingMapper bookingMapper,
-                              CheckConsistencyService checkConsistencyService) {
+    public BookingServiceImpl(BookingRepository bookingRepository, BookingHistoryRepository bookingHistoryRepository,
+                              BookingMapper bookingMapper,
+                              CheckConsistencyService checkConsistencyService, BookingSchedule bookingSchedule,
+                              BookingLifecycleClock bookingLifecycleClock, BookingCounters bookingCounters,
+                              BookingAdmission bookingAdmission, LookupContext lookupContext,
+                              Outbox outbox, ItemRepository itemRepository, UserRepository userRepository) {
         this.repository = bookingRepository;
+        this.history = bookingHistoryRepository;
         this.mapper = bookingMapper;
         this.checker = checkConsistencyService;
+        this.schedule = bookingSchedule;
+        this.clock = bookingLifecycleClock;
+        this.counters = bookingCounters;
+        this.admission = bookingAdmission;
+        this.lookups = lookupContext;
+        this.outbox = outbox;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
     }
 
+    /**
+     * Создание проходит через BookingAdmission: команды для одной вещи выполняются по очереди
+     * на потоке её полосы, каждая в своей транзакции, поэтому пересечение с уже принятыми
+     * бронированиями проверяется по расписанию без блокировок в базе. Команда выполняется в области
+     * LookupContext запроса, поэтому пользователь и вещь, загруженные проверками, повторно не загружаются;
+     * в транзакции приёма на них ставятся ссылки через getReferenceById (см. admit).
+     */
     @Override
-    @Transactional
     public BookingDto create(BookingInputDto bookingInputDto, Long bookerId) {
 
         checker.isUserExistsForStrictCheck(bookerId);
@@ -50,28 +97,54 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Вещь с id=" + bookingInputDto.getItemId() +
                     " недоступна для бронирования");
         }
+        return admission.submit(bookingInputDto.getItemId(),
+                lookups.bind(() -> admit(bookingInputDto, bookerId)));
+    }
+
+    private BookingDto admit(BookingInputDto bookingInputDto, Long bookerId) {
+        if (!schedule.isFree(bookingInputDto.getItemId(), bookingInputDto.getStart(), bookingInputDto.getEnd())) {
+            throw new ValidationException("Вещь с id=" + bookingInputDto.getItemId() +
+                    " уже забронирована на указанный период");
+        }
         Booking booking = mapper.toBooking(bookingInputDto, bookerId);
         if (bookerId.equals(booking.getItem().getOwner().getId())) {
             throw new ValidationException("Вещь с id=" + bookingInputDto.getItemId() +
                     " недоступна для бронирования самим владельцем");
         }
-        return mapper.toBookingDto(repository.save(booking));
+        // Вещь и арендатор взяты из области запроса: они загружены до этой транзакции и в ней отсоединены.
+        // Поэтому записывается бронирование со ссылками из текущего контекста сохранения, а загруженные
+        // копии только читаются — при проверках, подсчёте и сборке ответа.
+        Booking saved = repository.save(new Booking(null, booking.getStart(), booking.getEnd(),
+                itemRepository.getReferenceById(booking.getItem().getId()),
+                userRepository.getReferenceById(booking.getBooker().getId()), booking.getStatus()));
+        booking.setId(saved.getId());
+        booking.setVersion(saved.getVersion());
+        if (!schedule.tryReserve(booking)) {
+            throw new ValidationException("Вещь с id=" + bookingInputDto.getItemId() +
+                    " уже забронирована на указанный период");
+        }
+        counters.onCreated(booking);
+        clock.track(booking);
+        appendEvent(booking, Outbox.CREATED, booking.getStatus());
+        return mapper.toBookingDto(booking);
     }
 
     @Override
     @Transactional
     public BookingDto update(Long bookingId, Long userId, Boolean approved) {
         checker.isUserExistsForValidation(userId);
-        Booking booking = repository.findById(bookingId)
-                .orElseThrow(() -> new DataNotFoundException("Бронирование с id=" + bookingId + " не найдено"));
+        Booking booking = repository.findById(bookingId).orElseThrow(() -> history.existsById(bookingId)
+                ? new ValidationException("Бронирование с id=" + bookingId + " завершено и перенесено в архив," +
+                " его статус изменить нельзя")
+                : new DataNotFoundException("Бронирование с id=" + bookingId + " не найдено"));
         if (booking.getEnd().isBefore(LocalDateTime.now())) {
             throw new ValidationException("Время бронирования истекло");
         }
 
+        Status target;
         if (booking.getBooker().getId().equals(userId)) {
             if (!approved) {
-                booking.setStatus(Status.CANCELED);
-                log.info("Пользователь с id={} отменил бронирование id={}", userId, bookingId);
+                target = Status.CANCELED;
             } else {
                 throw new ValidationException("Подтвердить бронирование может только владелец вещи");
             }
@@ -80,13 +153,7 @@ public class BookingServiceImpl implements BookingService {
             if (!booking.getStatus().equals(Status.WAITING)) {
                 throw new ValidationException("Решение по бронированию уже принято");
             }
-            if (approved) {
-                booking.setStatus(Status.APPROVED);
-                log.info("Пользователь с id={} подтвердил бронирование с id={}", userId, bookingId);
-            } else {
-                booking.setStatus(Status.REJECTED);
-                log.info("Пользователь с id={} отклонил бронирование с id={}", userId, bookingId);
-            }
+            target = approved ? Status.APPROVED : Status.REJECTED;
         } else {
             if (booking.getStatus().equals(Status.CANCELED)) {
                 throw new ValidationException("Бронирование было отменено");
@@ -95,13 +162,93 @@ public class BookingServiceImpl implements BookingService {
             }
         }
 
-        return mapper.toBookingDto(repository.save(booking));
+        if (repository.transitionStatus(bookingId, booking.getStatus(), target) == 0) {
+            throw new ConflictException("Статус бронирования с id=" + bookingId +
+                    " уже изменён другим запросом");
+        }
+        log.info("Пользователь с id={} перевёл бронирование с id={} из статуса {} в {}", userId, bookingId,
+                booking.getStatus(), target);
+        counters.onStatusChanged(booking.getBooker().getId(), booking.getItem().getOwner().getId(),
+                booking.getStatus(), target);
+        booking.setStatus(target);
+        if (target.equals(Status.REJECTED) || target.equals(Status.CANCELED)) {
+            schedule.releaseAfterCommit(booking);
+        }
+        clock.track(booking);
+        appendEvent(booking, Outbox.STATUS_CHANGED, target);
+        return mapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> updateBatch(Long userId, List<BookingDecisionDto> decisions) {
+        checker.isUserExistsForValidation(userId);
+        Map<Long, Booking> bookings = repository.findAllByIdIn(decisions.stream()
+                        .map(BookingDecisionDto::getBookingId)
+                        .collect(toList())).stream()
+                .collect(toMap(Booking::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> decided = new HashSet<>();
+        BookingDecisionResultDto[] results = new BookingDecisionResultDto[decisions.size()];
+        List<Integer> positions = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        List<Status> targets = new ArrayList<>();
+
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+            Booking booking = bookings.get(decision.getBookingId());
+            String error = null;
+            if (booking == null) {
+                error = "Бронирование с id=" + decision.getBookingId() + " не найдено";
+            } else if (!decided.add(booking.getId())) {
+                error = "Решение по бронированию уже передано в этом запросе";
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                error = "Подтвердить бронирование может только владелец вещи";
+            } else if (booking.getEnd().isBefore(now)) {
+                error = "Время бронирования истекло";
+            } else if (!booking.getStatus().equals(Status.WAITING)) {
+                error = "Решение по бронированию уже принято";
+            }
+            if (error != null) {
+                results[i] = new BookingDecisionResultDto(decision.getBookingId(), false,
+                        booking != null ? booking.getStatus() : null, error);
+                continue;
+            }
+            positions.add(i);
+            ids.add(booking.getId());
+            targets.add(Boolean.TRUE.equals(decision.getApproved()) ? Status.APPROVED : Status.REJECTED);
+        }
+
+        if (!ids.isEmpty()) {
+            int[] updated = repository.transitionStatuses(ids, targets, Status.WAITING);
+            for (int i = 0; i < ids.size(); i++) {
+                Booking booking = bookings.get(ids.get(i));
+                if (updated[i] == 0) {
+                    results[positions.get(i)] = new BookingDecisionResultDto(booking.getId(), false,
+                            booking.getStatus(), "Статус бронирования с id=" + booking.getId() +
+                            " уже изменён другим запросом");
+                    continue;
+                }
+                if (targets.get(i).equals(Status.REJECTED)) {
+                    schedule.releaseAfterCommit(booking);
+                }
+                counters.onStatusChanged(booking.getBooker().getId(), userId, Status.WAITING, targets.get(i));
+                clock.track(booking, targets.get(i));
+                appendEvent(booking, Outbox.STATUS_CHANGED, targets.get(i));
+                results[positions.get(i)] = new BookingDecisionResultDto(booking.getId(), true,
+                        targets.get(i), null);
+            }
+        }
+        log.info("Пользователь с id={} передал {} решений по бронированиям, к записи отправлено {}", userId,
+                decisions.size(), ids.size());
+        return List.of(results);
     }
 
     @Override
     public BookingDto getBookingById(Long bookingId, Long userId) {
         checker.isUserExistsForStrictCheck(userId);
         Booking booking = repository.findById(bookingId)
+                .or(() -> history.findById(bookingId).map(BookingRecord::toBooking))
                 .orElseThrow(() -> new DataNotFoundException("Бронирование с id=" + bookingId + " не найдено"));
         if (booking.getBooker().getId().equals(userId) || checker.isItemOwner(booking.getItem().getId(), userId)) {
             return mapper.toBookingDto(booking);
@@ -114,7 +261,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getBookings(String state, Long userId, Integer from, Integer size) {
         checker.isUserExistsForStrictCheck(userId);
-        List<BookingDto> listBookingDto = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
         Pageable pageable;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Page<Booking> page;
@@ -125,7 +272,7 @@ public class BookingServiceImpl implements BookingService {
                     PageRequest.of(pager.getIndex(), pager.getPageSize(), sort);
             do {
                 page = getPageBookings(state, userId, pageable);
-                listBookingDto.addAll(page.stream().map(mapper::toBookingDto).collect(toList()));
+                bookings.addAll(page.getContent());
                 pageable = pageable.next();
             } while (page.hasNext());
 
@@ -134,28 +281,29 @@ public class BookingServiceImpl implements BookingService {
                 pageable =
                         PageRequest.of(i, pager.getPageSize(), sort);
                 page = getPageBookings(state, userId, pageable);
-                listBookingDto.addAll(page.stream().map(mapper::toBookingDto).collect(toList()));
+                bookings.addAll(page.getContent());
                 if (!page.hasNext()) {
                     break;
                 }
             }
-            listBookingDto = listBookingDto.stream().limit(size).collect(toList());
+            bookings = bookings.stream().limit(size).collect(toList());
         }
-        return listBookingDto;
+        return mapper.toBookingDtoList(bookings);
     }
 
     private Page<Booking> getPageBookings(String state, Long userId, Pageable pageable) {
         Page<Booking> page;
         switch (state) {
             case "ALL":
-                page = repository.findByBookerId(userId, pageable);
+                page = history.findByBookerId(userId, pageable).map(BookingRecord::toBooking);
                 break;
             case "CURRENT":
                 page = repository.findByBookerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(),
                         LocalDateTime.now(), pageable);
                 break;
             case "PAST":
-                page = repository.findByBookerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable);
+                page = history.findByBookerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable)
+                        .map(BookingRecord::toBooking);
                 break;
             case "FUTURE":
                 page = repository.findByBookerIdAndStartIsAfter(userId, LocalDateTime.now(), pageable);
@@ -164,7 +312,8 @@ public class BookingServiceImpl implements BookingService {
                 page = repository.findByBookerIdAndStatus(userId, Status.WAITING, pageable);
                 break;
             case "REJECTED":
-                page = repository.findByBookerIdAndStatus(userId, Status.REJECTED, pageable);
+                page = history.findByBookerIdAndStatus(userId, Status.REJECTED, pageable)
+                        .map(BookingRecord::toBooking);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
@@ -175,7 +324,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getBookingsOwner(String state, Long userId, Integer from, Integer size) {
         checker.isUserExistsForStrictCheck(userId);
-        List<BookingDto> listBookingDto = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
         Pageable pageable;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Page<Booking> page;
@@ -186,7 +335,7 @@ public class BookingServiceImpl implements BookingService {
                     PageRequest.of(pager.getIndex(), pager.getPageSize(), sort);
             do {
                 page = getPageBookingsOwner(state, userId, pageable);
-                listBookingDto.addAll(page.stream().map(mapper::toBookingDto).collect(toList()));
+                bookings.addAll(page.getContent());
                 pageable = pageable.next();
             } while (page.hasNext());
 
@@ -195,28 +344,29 @@ public class BookingServiceImpl implements BookingService {
                 pageable =
                         PageRequest.of(i, pager.getPageSize(), sort);
                 page = getPageBookingsOwner(state, userId, pageable);
-                listBookingDto.addAll(page.stream().map(mapper::toBookingDto).collect(toList()));
+                bookings.addAll(page.getContent());
                 if (!page.hasNext()) {
                     break;
                 }
             }
-            listBookingDto = listBookingDto.stream().limit(size).collect(toList());
+            bookings = bookings.stream().limit(size).collect(toList());
         }
-        return listBookingDto;
+        return mapper.toBookingDtoList(bookings);
     }
 
     private Page<Booking> getPageBookingsOwner(String state, Long userId, Pageable pageable) {
         Page<Booking> page;
         switch (state) {
             case "ALL":
-                page = repository.findByItemOwnerId(userId, pageable);
+                page = history.findByItemOwnerId(userId, pageable).map(BookingRecord::toBooking);
                 break;
             case "CURRENT":
                 page = repository.findByItemOwnerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(),
                         LocalDateTime.now(), pageable);
                 break;
             case "PAST":
-                page = repository.findByItemOwnerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable);
+                page = history.findByItemOwnerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable)
+                        .map(BookingRecord::toBooking);
                 break;
             case "FUTURE":
                 page = repository.findByItemOwnerIdAndStartIsAfter(userId, LocalDateTime.now(),
@@ -226,7 +376,8 @@ public class BookingServiceImpl implements BookingService {
                 page = repository.findByItemOwnerIdAndStatus(userId, Status.WAITING, pageable);
                 break;
             case "REJECTED":
-                page = repository.findByItemOwnerIdAndStatus(userId, Status.REJECTED, pageable);
+                page = history.findByItemOwnerIdAndStatus(userId, Status.REJECTED, pageable)
+                        .map(BookingRecord::toBooking);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
@@ -234,11 +385,90 @@ public class BookingServiceImpl implements BookingService {
         return page;
     }
 
+    @Override
+    public List<BookingDto> getBookingsAfter(String state, Long userId, String after, Integer size) {
+        checker.isUserExistsForStrictCheck(userId);
+        return getPageBookingsAfter(state, userId, after, size, false);
+    }
+
+    @Override
+    public List<BookingDto> getBookingsOwnerAfter(String state, Long userId, String after, Integer size) {
+        checker.isUserExistsForStrictCheck(userId);
+        return getPageBookingsAfter(state, userId, after, size, true);
+    }
+
+    private List<BookingDto> getPageBookingsAfter(String state, Long userId, String after, Integer size,
+                                                  boolean owner) {
+        if ((size != null) && (size <= 0)) {
+            throw new ValidationException("Значение должно быть больше нуля!");
+        }
+        BookingCursor cursor = BookingCursor.decode(after);
+        Pageable pageable = size == null ? Pageable.unpaged() : PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
+        Collection<Status> statuses = EnumSet.allOf(Status.class);
+        LocalDateTime startAfter = EARLIEST;
+        LocalDateTime startBefore = LATEST;
+        LocalDateTime endAfter = EARLIEST;
+        LocalDateTime endBefore = LATEST;
+        boolean archived = false;
+        switch (state) {
+            case "ALL":
+                archived = true;
+                break;
+            case "CURRENT":
+                startBefore = now;
+                endAfter = now;
+                break;
+            case "PAST":
+                endBefore = now;
+                archived = true;
+                break;
+            case "FUTURE":
+                startAfter = now;
+                break;
+            case "WAITING":
+                statuses = EnumSet.of(Status.WAITING);
+                break;
+            case "REJECTED":
+                statuses = EnumSet.of(Status.REJECTED);
+                archived = true;
+                break;
+            default:
+                throw new ValidationException("Unknown state: " + state);
+        }
+        if (archived) {
+            List<BookingRecord> records = owner
+                    ? history.findByItemOwnerIdAfter(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                    cursor.getStart(), cursor.getId(), pageable)
+                    : history.findByBookerIdAfter(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                    cursor.getStart(), cursor.getId(), pageable);
+            return mapper.toBookingDtoList(records.stream().map(BookingRecord::toBooking).collect(toList()));
+        }
+        List<Booking> bookings = owner
+                ? repository.findByItemOwnerIdAfter(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                cursor.getStart(), cursor.getId(), pageable)
+                : repository.findByBookerIdAfter(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                cursor.getStart(), cursor.getId(), pageable);
+        return mapper.toBookingDtoList(bookings);
+    }
+
+    @Override
+    public BookingSummaryDto getSummary(Long userId) {
+        checker.isUserExistsForStrictCheck(userId);
+        return counters.get(userId, BookingCounters.Role.BOOKER);
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(Long userId) {
+        checker.isUserExistsForStrictCheck(userId);
+        return counters.get(userId, BookingCounters.Role.OWNER);
+    }
+
     @Override
     public BookingShortDto getLastBooking(Long itemId) {
         BookingShortDto bookingShortDto =
-                mapper.toBookingShortDto(repository.findFirstByItemIdAndEndBeforeOrderByEndDesc(itemId,
-                        LocalDateTime.now()));
+                mapper.toBookingShortDto(toBooking(history.findFirstByItemIdAndEndBeforeOrderByEndDesc(itemId,
+                        LocalDateTime.now())));
         return bookingShortDto;
     }
 
@@ -250,9 +480,40 @@ public class BookingServiceImpl implements BookingService {
         return bookingShortDto;
     }
 
+    @Override
+    public Map<Long, ItemBookingsDto> getLastAndNextBookings(Collection<Long> itemIds) {
+        Map<Long, ItemBookingsDto> bookings = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return bookings;
+        }
+        for (BookingEdge edge : repository.findLastAndNextByItemIds(itemIds, LocalDateTime.now())) {
+            ItemBookingsDto itemBookings = bookings.computeIfAbsent(edge.getItemId(), id -> new ItemBookingsDto());
+            if (BookingEdge.LAST.equals(edge.getKind())) {
+                itemBookings.setLastBooking(mapper.toShortDto(edge));
+            } else {
+                itemBookings.setNextBooking(mapper.toShortDto(edge));
+            }
+        }
+        return bookings;
+    }
+
     @Override
     public Booking getBookingWithUserBookedItem(Long itemId, Long userId) {
-        return repository.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(itemId,
-                userId, LocalDateTime.now(), Status.APPROVED);
+        return toBooking(history.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(itemId,
+                userId, LocalDateTime.now(), Status.APPROVED));
+    }
+
+    private static Booking toBooking(BookingRecord record) {
+        return record == null ? null : record.toBooking();
+    }
+
+    private void appendEvent(Booking booking, String eventType, Status status) {
+        outbox.append(Outbox.BOOKING, booking.getId(), eventType, Outbox.payload(
+                "itemId", booking.getItem().getId(),
+                "bookerId", booking.getBooker().getId(),
+                "ownerId", booking.getItem().getOwner().getId(),
+                "start", booking.getStart(),
+                "end", booking.getEnd(),
+                "status", status));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.Status;
+
+@Data
+@AllArgsConstructor
+public class BookingDecisionResultDto {
+    private Long bookingId;
+    private boolean updated;
+    private Status status;
+    private String error;
+}
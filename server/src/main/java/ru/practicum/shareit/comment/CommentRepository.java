@@ -1,10 +1,15 @@
 package ru.practicum.shareit.comment;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository  extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "author"})
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds, Sort sort);
 }
\ No newline at end of file
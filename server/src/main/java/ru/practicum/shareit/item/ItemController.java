@@ -3,11 +3,14 @@ package ru.practicum.shareit.item;
 import jakarta.validation.constraints.Positive;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -59,8 +62,31 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> getItemsBySearchQuery(@RequestParam String text,
                                                @RequestParam(defaultValue = "0") Integer from,
-                                               @RequestParam(required = false) Integer size) {
-        return itemService.getItemsBySearchQuery(text, from, size);
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(defaultValue = "false") boolean fuzzy,
+                                               @RequestParam(defaultValue = "name") String sort,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime availableFrom,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime availableTo) {
+        return itemService.getItemsBySearchQuery(text, from, size, fuzzy, sort, availableFrom, availableTo);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> getSuggestions(@RequestParam String prefix,
+                                       @RequestParam(defaultValue = "10") Integer limit) {
+        return itemService.getSuggestions(prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@PathVariable @Positive Long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        return itemService.getItemAvailability(itemId, from, to);
     }
 
     @ResponseBody
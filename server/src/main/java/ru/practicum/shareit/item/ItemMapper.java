@@ -3,11 +3,14 @@ package ru.practicum.shareit.item;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.CheckConsistencyService;
 
+import java.util.List;
+
 @Component
 public class ItemMapper {
 
@@ -20,6 +23,10 @@ public class ItemMapper {
     }
 
     public ItemDto toItemDto(Item item) {
+        return toItemDto(item, checker.getCommentsByItemId(item.getId()));
+    }
+
+    public ItemDto toItemDto(Item item, List<CommentDto> comments) {
         return new ItemDto(
                 item.getId(),
                 item.getName(),
@@ -29,7 +36,7 @@ public class ItemMapper {
                 item.getRequestId() != null ? item.getRequestId() : null,
                 null,
                 null,
-                checker.getCommentsByItemId(item.getId()));
+                comments);
     }
 
     public ItemDto toItemExtDto(Item item) {
@@ -45,6 +52,19 @@ public class ItemMapper {
                 checker.getCommentsByItemId(item.getId()));
     }
 
+    public ItemDto toItemExtDto(Item item, ItemBookingsDto bookings, List<CommentDto> comments) {
+        return new ItemDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getOwner(),
+                item.getRequestId(),
+                bookings != null ? bookings.getLastBooking() : null,
+                bookings != null ? bookings.getNextBooking() : null,
+                comments);
+    }
+
     public Item toItem(ItemDto itemDto, Long ownerId) {
         return new Item(
                 itemDto.getId(),
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.OutboxSubscriber;
+import ru.practicum.shareit.util.LongLongMap;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс владельцев вещей itemId → ownerId для проверки «пользователь — владелец вещи» без запросов
+ * к базе: хеш-таблица на примитивах (LongLongMap), загружаемая при старте постранично по ключу и
+ * обновляемая подписчиком outbox по событиям создания и удаления вещей (при удалении пользователя
+ * UserServiceImpl пишет такие события для каждой его вещи). Владелец вещи не меняется, поэтому найденная
+ * запись всегда верна. Если вещи в индексе нет (создана, но событие ещё не доставлено, или загрузка не закончена),
+ * выполняется запрос существования, и положительный ответ запоминается.
+ */
+@Slf4j
+@Component
+public class ItemOwnership implements OutboxSubscriber {
+    private static final String SELECT_PAGE = "SELECT id, owner_id FROM items WHERE id > ? ORDER BY id LIMIT ?";
+    private static final int WARM_UP_BATCH = 1000;
+    private static final long NO_OWNER = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository repository;
+    private final ObjectMapper objectMapper;
+    private final LongLongMap owners = new LongLongMap(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ItemOwnership(JdbcTemplate jdbcTemplate, ItemRepository itemRepository, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = itemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long[] last = {0};
+        int read;
+        do {
+            long[] page = new long[WARM_UP_BATCH * 2];
+            int[] count = {0};
+            jdbcTemplate.query(SELECT_PAGE, rs -> {
+                page[count[0]++] = rs.getLong("id");
+                page[count[0]++] = rs.getLong("owner_id");
+            }, last[0], WARM_UP_BATCH);
+            read = count[0] / 2;
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < count[0]; i += 2) {
+                    owners.put(page[i], page[i + 1]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (read > 0) {
+                last[0] = page[count[0] - 2];
+            }
+        } while (read == WARM_UP_BATCH);
+        log.info("Индекс владельцев вещей загружен: {} вещей", size());
+    }
+
+    public boolean isOwner(long itemId, long userId) {
+        long owner;
+        lock.readLock().lock();
+        try {
+            owner = owners.get(itemId, NO_OWNER);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (owner != NO_OWNER) {
+            return owner == userId;
+        }
+        if (!repository.existsByIdAndOwnerId(itemId, userId)) {
+            return false;
+        }
+        put(itemId, userId);
+        return true;
+    }
+
+    /**
+     * Применяет события ITEM из outbox: для созданной вещи запоминает владельца из содержимого события,
+     * удалённую забывает. Повторная доставка безопасна — владелец вещи не меняется.
+     */
+    @Override
+    public void handle(List<OutboxMessage> events) {
+        for (OutboxMessage event : events) {
+            if (!Outbox.ITEM.equals(event.aggregateType())) {
+                continue;
+            }
+            if (Outbox.CREATED.equals(event.eventType())) {
+                long ownerId = ownerId(event);
+                if (ownerId != NO_OWNER) {
+                    put(event.aggregateId(), ownerId);
+                }
+            } else if (Outbox.DELETED.equals(event.eventType())) {
+                lock.writeLock().lock();
+                try {
+                    owners.remove(event.aggregateId());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return owners.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long itemId, long ownerId) {
+        lock.writeLock().lock();
+        try {
+            owners.put(itemId, ownerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long ownerId(OutboxMessage event) {
+        try {
+            return objectMapper.readTree(event.payload()).path("ownerId").asLong(NO_OWNER);
+        } catch (JsonProcessingException e) {
+            log.warn("Событие outbox id={} с нечитаемым содержимым пропущено: {}", event.id(), e.getMessage());
+            return NO_OWNER;
+        }
+    }
+}
@@ -12,9 +12,14 @@ import java.util.List;
 public interface ItemRepository extends JpaRepository<Item, Long> {
     Page<Item> findByOwnerId(Long ownerId, Pageable pageable);
 
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
     @Query(" select i from Item i " +
-            "where lower(i.name) like lower(concat('%', :search, '%')) " +
-            " or lower(i.description) like lower(concat('%', :search, '%')) " +
+            "where (lower(i.name) like lower(concat('%', :search, '%')) " +
+            " or lower(i.description) like lower(concat('%', :search, '%'))) " +
             " and i.available = true")
     Page<Item> getItemsBySearchQuery(@Param("search") String text, Pageable pageable);
 
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
     ItemDto getItemById(Long id, Long userId);
@@ -16,7 +20,10 @@ public interface ItemService {
 
     void delete(Long itemId, Long ownerId);
 
-    List<ItemDto> getItemsBySearchQuery(String text, Integer from, Integer size);
+    List<ItemDto> getItemsBySearchQuery(String text, Integer from, Integer size, boolean fuzzy, String sort,
+                                        LocalDateTime availableFrom, LocalDateTime availableTo);
+
+    List<String> getSuggestions(String prefix, Integer limit);
 
     ItemDto update(ItemDto itemDto, Long ownerId, Long itemId);
 
@@ -24,5 +31,9 @@ public interface ItemService {
 
     List<CommentDto> getCommentsByItemId(Long itemId);
 
+    Map<Long, List<CommentDto>> getCommentsByItemIds(Collection<Long> itemIds);
+
     List<ItemDto> getItemsByRequestId(Long requestId);
+
+    ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
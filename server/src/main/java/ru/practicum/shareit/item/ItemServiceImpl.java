@@ -9,20 +9,36 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingSchedule;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.ItemTrigramIndex;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.CheckConsistencyService;
 import ru.practicum.shareit.util.Pagination;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 public class ItemServiceImpl implements ItemService {
@@ -30,15 +46,28 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final CheckConsistencyService checker;
     private final ItemMapper mapper;
+    private final BookingSchedule schedule;
+    private final ItemSearchEngine searchEngine;
+    private final ItemTrigramIndex trigramIndex;
+    private final ItemSuggestIndex suggestIndex;
+    private final Outbox outbox;
 
     @Autowired
     @Lazy
     public ItemServiceImpl(ItemRepository repository, CommentRepository commentRepository,
-                           CheckConsistencyService checkConsistencyService, ItemMapper itemMapper) {
+                           CheckConsistencyService checkConsistencyService, ItemMapper itemMapper,
+                           BookingSchedule bookingSchedule, ItemSearchEngine itemSearchEngine,
+                           ItemTrigramIndex itemTrigramIndex, ItemSuggestIndex itemSuggestIndex,
+                           Outbox outbox) {
         this.repository = repository;
         this.commentRepository = commentRepository;
         this.checker = checkConsistencyService;
         this.mapper = itemMapper;
+        this.schedule = bookingSchedule;
+        this.searchEngine = itemSearchEngine;
+        this.trigramIndex = itemTrigramIndex;
+        this.suggestIndex = itemSuggestIndex;
+        this.outbox = outbox;
     }
 
     @Override
@@ -64,13 +93,15 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public ItemDto create(ItemDto itemDto, Long ownerId) {
         checker.isUserExistsForStrictCheck(ownerId);
-        return mapper.toItemDto(repository.save(mapper.toItem(itemDto, ownerId)));
+        Item item = repository.save(mapper.toItem(itemDto, ownerId));
+        appendEvent(item, Outbox.CREATED);
+        return mapper.toItemDto(item);
     }
 
     @Override
     public List<ItemDto> getItemsByOwner(Long ownerId, Integer from, Integer size) {
         checker.isUserExistsForStrictCheck(ownerId);
-        List<ItemDto> listItemExtDto = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
         Pageable pageable;
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         Page<Item> page;
@@ -81,7 +112,7 @@ public class ItemServiceImpl implements ItemService {
                     PageRequest.of(pager.getIndex(), pager.getPageSize(), sort);
             do {
                 page = repository.findByOwnerId(ownerId, pageable);
-                listItemExtDto.addAll(page.stream().map(mapper::toItemExtDto).collect(toList()));
+                items.addAll(page.getContent());
                 pageable = pageable.next();
             } while (page.hasNext());
 
@@ -90,14 +121,24 @@ public class ItemServiceImpl implements ItemService {
                 pageable =
                         PageRequest.of(i, pager.getPageSize(), sort);
                 page = repository.findByOwnerId(ownerId, pageable);
-                listItemExtDto.addAll(page.stream().map(mapper::toItemExtDto).collect(toList()));
+                items.addAll(page.getContent());
                 if (!page.hasNext()) {
                     break;
                 }
             }
-            listItemExtDto = listItemExtDto.stream().limit(size).collect(toList());
+            items = items.stream().limit(size).collect(toList());
         }
-        return listItemExtDto;
+        return toItemExtDtoList(items);
+    }
+
+    private List<ItemDto> toItemExtDtoList(List<Item> items) {
+        List<Long> itemIds = items.stream().map(Item::getId).collect(toList());
+        Map<Long, ItemBookingsDto> bookings = checker.getLastAndNextBookings(itemIds);
+        Map<Long, List<CommentDto>> comments = getCommentsByItemIds(itemIds);
+        return items.stream()
+                .map(item -> mapper.toItemExtDto(item, bookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), List.of())))
+                .collect(toList());
     }
 
     @Override
@@ -109,41 +150,54 @@ public class ItemServiceImpl implements ItemService {
             throw new DataNotFoundException("У пользователя нет такой вещи");
         }
         repository.deleteById(itemId);
+        appendEvent(item, Outbox.DELETED);
     }
 
     @Override
-    public List<ItemDto> getItemsBySearchQuery(String text, Integer from, Integer size) {
-        List<ItemDto> listItemDto = new ArrayList<>();
-        if ((text != null) && (!text.isEmpty()) && (!text.isBlank())) {
-            text = text.toLowerCase();
-            Pageable pageable;
-            Sort sort = Sort.by(Sort.Direction.ASC, "name");
-            Page<Item> page;
-            Pagination pager = new Pagination(from, size);
-
-            if (size == null) {
-                pageable =
-                        PageRequest.of(pager.getIndex(), pager.getPageSize(), sort);
-                do {
-                    page = repository.getItemsBySearchQuery(text, pageable);
-                    listItemDto.addAll(page.stream().map(mapper::toItemDto).collect(toList()));
-                    pageable = pageable.next();
-                } while (page.hasNext());
-
-            } else {
-                for (int i = pager.getIndex(); i < pager.getTotalPages(); i++) {
-                    pageable =
-                            PageRequest.of(i, pager.getPageSize(), sort);
-                    page = repository.getItemsBySearchQuery(text, pageable);
-                    listItemDto.addAll(page.stream().map(mapper::toItemDto).collect(toList()));
-                    if (!page.hasNext()) {
-                        break;
-                    }
-                }
-                listItemDto = listItemDto.stream().limit(size).collect(toList());
+    public List<ItemDto> getItemsBySearchQuery(String text, Integer from, Integer size, boolean fuzzy,
+                                               String sort, LocalDateTime availableFrom,
+                                               LocalDateTime availableTo) {
+        if ((text == null) || (text.isBlank())) {
+            return new ArrayList<>();
+        }
+        // Проверка from и size с теми же сообщениями об ошибках, что и у остальных списков.
+        new Pagination(from, size);
+        ItemSearchSort order = ItemSearchSort.from(sort)
+                .orElseThrow(() -> new ValidationException("Unknown sort: " + sort));
+        List<Long> ids;
+        if (availableFrom == null && availableTo == null) {
+            ids = fuzzy ? trigramIndex.search(text, from, size) : searchEngine.search(text, from, size, order);
+        } else {
+            if (availableFrom == null || availableTo == null) {
+                throw new ValidationException("Нужно указать и начало, и окончание периода");
             }
+            if (!availableFrom.isBefore(availableTo)) {
+                throw new ValidationException("Начало периода должно быть раньше его окончания");
+            }
+            // Свободна ли вещь, проверяется по расписанию в памяти во время прохода по найденным вещам.
+            LongPredicate free = itemId -> schedule.isFree(itemId, availableFrom, availableTo);
+            ids = fuzzy ? trigramIndex.search(text, from, size, free)
+                    : searchEngine.search(text, from, size, order, free);
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> items = repository.findAllById(ids).stream()
+                .collect(toMap(Item::getId, Function.identity()));
+        Map<Long, List<CommentDto>> comments = getCommentsByItemIds(ids);
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(item -> mapper.toItemDto(item, comments.getOrDefault(item.getId(), List.of())))
+                .collect(toList());
+    }
+
+    @Override
+    public List<String> getSuggestions(String prefix, Integer limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Значение должно быть больше нуля!");
         }
-        return listItemDto;
+        return suggestIndex.suggest(prefix, limit);
     }
 
     @Override
@@ -164,7 +218,9 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return mapper.toItemDto(repository.save(item));
+        item = repository.save(item);
+        appendEvent(item, Outbox.UPDATED);
+        return mapper.toItemDto(item);
     }
 
     @Override
@@ -176,12 +232,17 @@ public class ItemServiceImpl implements ItemService {
         if (booking != null) {
             comment.setCreated(LocalDateTime.now());
             comment.setItem(booking.getItem());
-            comment.setAuthor(booking.getBooker());
+            comment.setAuthor(checker.findUserById(userId));
             comment.setText(commentDto.getText());
         } else {
             throw new ValidationException("Данный пользователь вещь не бронировал");
         }
-        return mapper.toCommentDto(commentRepository.save(comment));
+        comment = commentRepository.save(comment);
+        outbox.append(Outbox.COMMENT, comment.getId(), Outbox.CREATED, Outbox.payload(
+                "itemId", itemId,
+                "authorId", userId,
+                "created", comment.getCreated()));
+        return mapper.toCommentDto(comment);
     }
 
     @Override
@@ -192,6 +253,17 @@ public class ItemServiceImpl implements ItemService {
                 .collect(toList());
     }
 
+    @Override
+    public Map<Long, List<CommentDto>> getCommentsByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findAllByItemIdIn(itemIds,
+                        Sort.by(Sort.Direction.DESC, "created")).stream()
+                .collect(groupingBy(comment -> comment.getItem().getId(),
+                        mapping(mapper::toCommentDto, toList())));
+    }
+
     @Override
     public List<ItemDto> getItemsByRequestId(Long requestId) {
         return repository.findAllByRequestId(requestId,
@@ -199,4 +271,27 @@ public class ItemServiceImpl implements ItemService {
                 .map(mapper::toItemDto)
                 .collect(toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        Item item = findItemById(itemId);
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return new ItemAvailabilityDto(itemId, from, to, false, null);
+        }
+        boolean free = schedule.isFree(itemId, from, to);
+        return new ItemAvailabilityDto(itemId, from, to, free,
+                free ? from : schedule.nextFreeStart(itemId, from, to));
+    }
+
+    private void appendEvent(Item item, String eventType) {
+        outbox.append(Outbox.ITEM, item.getId(), eventType, Outbox.payload(
+                "ownerId", item.getOwner().getId(),
+                "name", item.getName(),
+                "description", item.getDescription(),
+                "available", item.getAvailable(),
+                "requestId", item.getRequestId()));
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * S-стеммер Хармана для английского: сводит множественное число к единственному
+ * (batteries → battery, boxes → boxe, drills → drill) и не трогает остальные окончания.
+ * Работает только с латинскими термами в нижнем регистре.
+ */
+final class EnglishLightStemmer implements TokenFilter {
+
+    @Override
+    public boolean apply(TermBuffer term) {
+        int length = term.length();
+        if (length < 4 || term.charAt(length - 1) != 's' || !isLatin(term.charAt(length - 2))) {
+            return true;
+        }
+        if (length > 4 && term.endsWith("ies") && !term.endsWith("eies") && !term.endsWith("aies")) {
+            term.truncate(length - 2);
+            term.setCharAt(length - 3, 'y');
+        } else if (term.endsWith("es") && !term.endsWith("aes") && !term.endsWith("ees") && !term.endsWith("oes")) {
+            term.truncate(length - 1);
+        } else if (!term.endsWith("us") && !term.endsWith("ss") && !term.endsWith("es")) {
+            term.truncate(length - 1);
+        }
+        return true;
+    }
+
+    private static boolean isLatin(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+}
@@ -0,0 +1,229 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Изменяемый сегмент индекса в памяти: вещи, изменённые после записи последнего файлового сегмента,
+ * и отметки об удалении вещей, которые могут оставаться в файловых сегментах.
+ * Не потокобезопасен, доступ синхронизирует ItemSearchIndex.
+ */
+final class HeapSegment implements IndexSegment {
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Postings deleted = new Postings();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+
+    void put(Document document) {
+        remove(document.id());
+        deleted.remove(document.id());
+        documents.put(document.id(), document);
+        totalNameLength += document.nameLength();
+        totalDescriptionLength += document.descriptionLength();
+        for (String term : document.terms()) {
+            terms.computeIfAbsent(term, key -> new Postings()).add(document.id());
+        }
+    }
+
+    void delete(long itemId) {
+        remove(itemId);
+        deleted.add(itemId);
+    }
+
+    /**
+     * Переносит в этот сегмент изменения более нового: его версии вещей и отметки об удалении.
+     */
+    void absorb(HeapSegment newer) {
+        for (Document document : newer.documents.values()) {
+            put(document);
+        }
+        for (long id : newer.deleted.toArray()) {
+            delete(id);
+        }
+    }
+
+    /**
+     * Число изменений в сегменте: версий вещей и отметок об удалении.
+     */
+    int changes() {
+        return documents.size() + deleted.size();
+    }
+
+    boolean isEmpty() {
+        return changes() == 0;
+    }
+
+    int termCount() {
+        return terms.size();
+    }
+
+    void writeTo(SegmentBuilder builder) {
+        for (Document document : documents.values()) {
+            builder.addDocument(document.toSegmentDocument());
+        }
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            for (long id : entry.getValue().toArray()) {
+                Document document = documents.get(id);
+                int position = Arrays.binarySearch(document.terms(), entry.getKey());
+                builder.addPosting(entry.getKey(), id, document.nameFrequencies()[position],
+                        document.descriptionFrequencies()[position], document.nameLength(),
+                        document.descriptionLength());
+            }
+        }
+        for (long id : deleted.toArray()) {
+            builder.addTombstone(id);
+        }
+    }
+
+    @Override
+    public int documentCount() {
+        return documents.size();
+    }
+
+    @Override
+    public long totalNameLength() {
+        return totalNameLength;
+    }
+
+    @Override
+    public long totalDescriptionLength() {
+        return totalDescriptionLength;
+    }
+
+    @Override
+    public List<String> terms(String prefix) {
+        return new ArrayList<>(prefixMap(prefix).keySet());
+    }
+
+    @Override
+    public int documentFrequency(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? 0 : postings.size();
+    }
+
+    @Override
+    public TermPostings postings(String term) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            return TermPostings.EMPTY;
+        }
+        long[] ids = postings.toArray();
+        int[] nameFrequencies = new int[ids.length];
+        int[] descriptionFrequencies = new int[ids.length];
+        int[] nameLengths = new int[ids.length];
+        int[] descriptionLengths = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Document document = documents.get(ids[i]);
+            int position = Arrays.binarySearch(document.terms(), term);
+            nameFrequencies[i] = document.nameFrequencies()[position];
+            descriptionFrequencies[i] = document.descriptionFrequencies()[position];
+            nameLengths[i] = document.nameLength();
+            descriptionLengths[i] = document.descriptionLength();
+        }
+        return new TermPostings(ids, nameFrequencies, descriptionFrequencies, nameLengths, descriptionLengths);
+    }
+
+    @Override
+    public long[] prefixIds(String prefix) {
+        long[] ids = new long[0];
+        for (Postings postings : prefixMap(prefix).values()) {
+            ids = ids.length == 0 ? postings.toArray() : Postings.union(ids, postings.toArray());
+        }
+        return ids;
+    }
+
+    @Override
+    public SegmentDocument document(long id) {
+        Document document = documents.get(id);
+        return document == null ? null : document.toSegmentDocument();
+    }
+
+    @Override
+    public boolean masks(long id) {
+        return documents.containsKey(id) || deleted.contains(id);
+    }
+
+    void compact() {
+        for (Postings postings : terms.values()) {
+            postings.compact();
+        }
+        deleted.compact();
+    }
+
+    private NavigableMap<String, Postings> prefixMap(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void remove(long itemId) {
+        Document previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        totalNameLength -= previous.nameLength();
+        totalDescriptionLength -= previous.descriptionLength();
+        for (String term : previous.terms()) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(itemId) && postings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Термы вещи по возрастанию с частотами в названии и описании в параллельных массивах и длины полей в термах.
+     */
+    record Document(long id, String name, String[] terms, int[] nameFrequencies, int[] descriptionFrequencies,
+                    int nameLength, int descriptionLength, boolean available, long fingerprint) {
+        static Document of(Item item, ItemAnalyzer analyzer) {
+            Map<String, Integer> name = analyzer.frequencies(item.getName());
+            Map<String, Integer> description = analyzer.frequencies(item.getDescription());
+            Set<String> sorted = new TreeSet<>(name.keySet());
+            sorted.addAll(description.keySet());
+            String[] terms = sorted.toArray(new String[0]);
+            int[] nameFrequencies = new int[terms.length];
+            int[] descriptionFrequencies = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                nameFrequencies[i] = name.getOrDefault(terms[i], 0);
+                descriptionFrequencies[i] = description.getOrDefault(terms[i], 0);
+            }
+            return new Document(item.getId(), item.getName() == null ? "" : item.getName(), terms,
+                    nameFrequencies, descriptionFrequencies, sum(name), sum(description),
+                    Boolean.TRUE.equals(item.getAvailable()), fingerprint(item));
+        }
+
+        SegmentDocument toSegmentDocument() {
+            return new SegmentDocument(id, name, nameLength, descriptionLength, available, fingerprint);
+        }
+
+        /**
+         * 64-битный FNV-1a от названия, описания и доступности.
+         */
+        static long fingerprint(Item item) {
+            long hash = 0xcbf29ce484222325L;
+            String text = item.getName() + '\u0000' + item.getDescription() + '\u0000' + item.getAvailable();
+            for (int i = 0; i < text.length(); i++) {
+                hash ^= text.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static int sum(Map<String, Integer> frequencies) {
+            int sum = 0;
+            for (int frequency : frequencies.values()) {
+                sum += frequency;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+/**
+ * Сегмент поискового индекса вещей: неизменяемый файл на диске (MappedSegment) или изменяемая
+ * дельта в памяти (HeapSegment). Сегменты упорядочены от старых к новым; версия вещи в более новом
+ * сегменте, как и отметка об удалении, скрывает её версии в более старых.
+ */
+interface IndexSegment {
+
+    int documentCount();
+
+    long totalNameLength();
+
+    long totalDescriptionLength();
+
+    /**
+     * Термы, начинающиеся с prefix, по возрастанию.
+     */
+    List<String> terms(String prefix);
+
+    int documentFrequency(String term);
+
+    TermPostings postings(String term);
+
+    /**
+     * Возрастающие id вещей, содержащих хотя бы один терм с префиксом prefix.
+     */
+    long[] prefixIds(String prefix);
+
+    /**
+     * Вещь, если её версия есть в сегменте, иначе null.
+     */
+    SegmentDocument document(long id);
+
+    /**
+     * Есть ли в сегменте версия вещи или отметка о её удалении.
+     */
+    boolean masks(long id);
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Разбивает текст на термы для индексов поиска: слова — последовательности букв и цифр (диакритика внутри
+ * слова, например знак ударения, отбрасывается), каждое слово проходит цепочку фильтров. Токенизатор
+ * не режет текст на подстроки: символы слова копируются в переиспользуемый буфер, фильтры меняют
+ * его на месте, строка создаётся только для терма, прошедшего всю цепочку.
+ * <ul>
+ *     <li>simple — нижний регистр; подсказки и полнотекстовый поиск PostgreSQL с конфигурацией simple;</li>
+ *     <li>normalizing — нижний регистр и «ё» → «е»; поиск с опечатками;</li>
+ *     <li>russian-english — то же, служебные слова отбрасываются, русские и английские слова
+ *     приводятся к основе лёгкими стеммерами; основной индекс, одинаково для вещей и запросов.</li>
+ * </ul>
+ */
+public final class ItemAnalyzer {
+    public static final ItemAnalyzer SIMPLE = new ItemAnalyzer("simple", new LowerCaseFilter());
+    public static final ItemAnalyzer NORMALIZING = new ItemAnalyzer("normalizing",
+            new LowerCaseFilter(), new YoFoldingFilter());
+    public static final ItemAnalyzer RUSSIAN_ENGLISH = new ItemAnalyzer("russian-english",
+            new LowerCaseFilter(), new YoFoldingFilter(),
+            new StopWordFilter(StopWordFilter.RUSSIAN, StopWordFilter.ENGLISH),
+            new RussianLightStemmer(), new EnglishLightStemmer());
+    private static final List<ItemAnalyzer> KNOWN = List.of(SIMPLE, NORMALIZING, RUSSIAN_ENGLISH);
+
+    private final String name;
+    private final TokenFilter[] filters;
+
+    ItemAnalyzer(String name, TokenFilter... filters) {
+        this.name = name;
+        this.filters = filters.clone();
+    }
+
+    public static ItemAnalyzer forName(String name) {
+        for (ItemAnalyzer analyzer : KNOWN) {
+            if (analyzer.name.equalsIgnoreCase(name)) {
+                return analyzer;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный анализатор текста: " + name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Термы текста без повторов, в порядке первого появления.
+     */
+    public Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        analyze(text, tokens::add);
+        return tokens;
+    }
+
+    /**
+     * Термы текста с числом их вхождений, в порядке первого появления.
+     */
+    public Map<String, Integer> frequencies(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        analyze(text, token -> frequencies.merge(token, 1, Integer::sum));
+        return frequencies;
+    }
+
+    private void analyze(String text, Consumer<String> consumer) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        // Разложенные буквы (и + кратка) собираются в одну, чтобы не потерять их вместе с диакритикой.
+        if (!Normalizer.isNormalized(text, Normalizer.Form.NFC)) {
+            text = Normalizer.normalize(text, Normalizer.Form.NFC);
+        }
+        TermBuffer term = new TermBuffer();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (term.length() > 0 && Character.getType(c) != Character.NON_SPACING_MARK) {
+                emit(term, consumer);
+                term.clear();
+            }
+        }
+    }
+
+    private void emit(TermBuffer term, Consumer<String> consumer) {
+        for (TokenFilter filter : filters) {
+            if (!filter.apply(term)) {
+                return;
+            }
+        }
+        if (term.length() > 0) {
+            consumer.accept(term.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.Item;
+
+/**
+ * Индекс вещей в памяти процесса, который ItemIndexUpdater держит в согласии с таблицей items.
+ * Методы вызываются из потока обновления индексов уже после фиксации транзакций.
+ */
+public interface ItemIndex {
+
+    /**
+     * Отражает созданную или изменённую вещь. Недоступная вещь остаётся в индексе, но не находится.
+     */
+    void index(Item item);
+
+    /**
+     * Отражает удаление вещи.
+     */
+    void remove(Long itemId);
+
+    /**
+     * Отражает ли индекс вещь в её текущем состоянии. Нужен для выборочной сверки индекса с базой.
+     */
+    boolean isCurrent(Item item);
+
+    /**
+     * Уплотняет внутренние структуры: списки вхождений, сегменты. Вызывается периодически в фоне.
+     */
+    default void compact() {
+    }
+}
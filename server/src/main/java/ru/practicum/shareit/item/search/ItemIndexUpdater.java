@@ -0,0 +1,230 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.OutboxSubscriber;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Доводит изменения вещей до всех индексов в памяти (ItemIndex: поисковый движок, индекс триграмм,
+ * подсказки), не задерживая транзакции ItemServiceImpl. Изменения приходят подписчику outbox
+ * пачками событий ITEM; по каждой затронутой вещи текущее состояние перечитывается из базы одним
+ * запросом на пачку, существующие вещи индексируются заново, отсутствующие удаляются из индексов.
+ * Поэтому повторная доставка и порядок событий внутри пачки на результат не влияют, а ограниченную
+ * очередь и ожидание медленного подписчика обеспечивает OutboxRelay.
+ * <p>
+ * Если базу прочитать не удалось, исключение уходит в OutboxRelay, и пачка повторяется. Ошибка
+ * отдельного индекса на отдельной вещи не задерживает остальные: вещь запоминается как требующая
+ * сверки и перечитывается при следующей сверке.
+ * <p>
+ * В фоне раз в compaction-interval-ms индексы уплотняются (ItemIndex.compact), а раз в verify-interval-ms
+ * случайная страница из sample-size вещей сверяется с каждым индексом. Расхождения считаются в метриках
+ * и исправляются перечитыванием из базы; в них попадают и изменения, ещё не доставленные через outbox.
+ * Метрики: shareit.item.index.lag (от записи события до применения к индексам),
+ * shareit.item.index.drift (доля расхождений в последней выборке) и shareit.item.index.stale
+ * (найденные расхождения) с тегом index.
+ */
+@Slf4j
+@Component
+public class ItemIndexUpdater implements OutboxSubscriber {
+    private static final int BATCH = 256;
+
+    private final List<ItemIndex> indexes;
+    private final ItemRepository repository;
+    private final MeterRegistry registry;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> drift = new ConcurrentHashMap<>();
+    private final Object applyLock = new Object();
+    private final int sampleSize;
+    private final long compactionIntervalMillis;
+    private final long verifyIntervalMillis;
+    private final Timer lag;
+    private final Random random = new Random();
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public ItemIndexUpdater(List<ItemIndex> indexes, ItemRepository itemRepository, MeterRegistry registry,
+                            @Value("${shareit.item.index.sample-size:100}") int sampleSize,
+                            @Value("${shareit.item.index.compaction-interval-ms:600000}") long compactionIntervalMillis,
+                            @Value("${shareit.item.index.verify-interval-ms:60000}") long verifyIntervalMillis) {
+        this.indexes = List.copyOf(indexes);
+        this.repository = itemRepository;
+        this.registry = registry;
+        this.sampleSize = sampleSize;
+        this.compactionIntervalMillis = compactionIntervalMillis;
+        this.verifyIntervalMillis = verifyIntervalMillis;
+        this.lag = Timer.builder("shareit.item.index.lag").register(registry);
+        for (ItemIndex index : this.indexes) {
+            AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+            drift.put(name(index), bits);
+            Gauge.builder("shareit.item.index.drift", bits, value -> Double.longBitsToDouble(value.get()))
+                    .tag("index", name(index))
+                    .register(registry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-index-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> runSafely(this::compact, "уплотнения"),
+                compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> runSafely(this::verify, "сверки"),
+                verifyIntervalMillis, verifyIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void handle(List<OutboxMessage> events) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OutboxMessage event : events) {
+            if (Outbox.ITEM.equals(event.aggregateType())) {
+                ids.add(event.aggregateId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        reload(ids);
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage event : events) {
+            if (Outbox.ITEM.equals(event.aggregateType())) {
+                lag.record(Duration.between(event.created(), now));
+            }
+        }
+    }
+
+    /**
+     * Уплотняет все индексы.
+     */
+    public void compact() {
+        for (ItemIndex index : indexes) {
+            index.compact();
+        }
+    }
+
+    /**
+     * Сверяет с индексами случайную страницу вещей из базы, обновляет метрики расхождений
+     * и перечитывает разошедшиеся вещи.
+     */
+    public void verify() {
+        long count = repository.count();
+        if (count > 0) {
+            int pages = (int) Math.min(Integer.MAX_VALUE, (count + sampleSize - 1) / sampleSize);
+            List<Item> sample = repository.findAll(PageRequest.of(random.nextInt(pages), sampleSize,
+                    Sort.by("id"))).getContent();
+            for (ItemIndex index : indexes) {
+                int checked = 0;
+                int stale = 0;
+                for (Item item : sample) {
+                    if (dirty.contains(item.getId())) {
+                        continue;
+                    }
+                    checked++;
+                    if (!index.isCurrent(item)) {
+                        stale++;
+                        dirty.add(item.getId());
+                    }
+                }
+                drift.get(name(index)).set(Double.doubleToLongBits(checked == 0 ? 0 : (double) stale / checked));
+                registry.counter("shareit.item.index.stale", "index", name(index)).increment(stale);
+                if (stale > 0) {
+                    log.warn("Индекс {} расходится с базой: {} из {} проверенных вещей, они будут перечитаны",
+                            name(index), stale, checked);
+                }
+            }
+        }
+        if (!dirty.isEmpty()) {
+            List<Long> ids = new ArrayList<>(dirty);
+            dirty.removeAll(ids);
+            reload(ids);
+        }
+    }
+
+    /**
+     * Перечитывает вещи из базы: существующие индексируются заново, остальные удаляются.
+     * Чтение и применение идут под одной блокировкой, чтобы более старое состояние вещи,
+     * прочитанное другим потоком, не легло поверх более нового.
+     */
+    private void reload(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        synchronized (applyLock) {
+            for (int from = 0; from < all.size(); from += BATCH) {
+                List<Long> chunk = all.subList(from, Math.min(all.size(), from + BATCH));
+                Map<Long, Item> found = new HashMap<>();
+                for (Item item : repository.findAllById(chunk)) {
+                    found.put(item.getId(), item);
+                }
+                for (Long id : chunk) {
+                    apply(id, found.get(id));
+                }
+            }
+        }
+    }
+
+    private void apply(Long id, Item item) {
+        for (ItemIndex index : indexes) {
+            try {
+                if (item == null) {
+                    index.remove(id);
+                } else {
+                    index.index(item);
+                }
+            } catch (RuntimeException e) {
+                log.error("Не удалось обновить индекс {} для вещи id={}, она будет перечитана при сверке",
+                        name(index), id, e);
+                dirty.add(id);
+            }
+        }
+    }
+
+    private static String name(ItemIndex index) {
+        return index.getClass().getSimpleName();
+    }
+
+    private static void runSafely(Runnable task, String what) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Ошибка {} индексов вещей: {}", what, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Поиск по подстроке с той же семантикой, что у ItemRepository.getItemsBySearchQuery (доступные вещи,
+ * в названии или описании которых без учёта регистра встречается текст запроса), но без обращения к базе:
+ * тексты доступных вещей хранятся в столбце вне кучи (TextColumn), который просматривается целиком.
+ * Столбец делится на диапазоны строк примерно по partition-bytes байт, диапазоны просматриваются параллельно
+ * в пуле fork-join из parallelism потоков. Выдача упорядочена по названию; сортировка по релевантности
+ * для поиска по подстроке не определена, поэтому sort не учитывается.
+ * <p>
+ * Когда удалённые и устаревшие строки занимают больше половины столбца, он переписывается без них.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ItemSearchEngine.PROPERTY, havingValue = "scan")
+public class ItemScanSearch implements ItemSearchEngine {
+    private static final int WARM_UP_BATCH = 1000;
+    private static final int COMPACT_MIN_BYTES = 1 << 16;
+    private static final byte SEPARATOR = 0;
+    private static final Comparator<Hit> BY_NAME = Comparator
+            .comparing(Hit::name)
+            .thenComparingLong(Hit::id);
+
+    private final ItemRepository repository;
+    private final int partitionBytes;
+    private final ForkJoinPool pool;
+    private final Map<Long, Integer> rows = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TextColumn column = new TextColumn(1 << 16);
+
+    @Autowired
+    public ItemScanSearch(ItemRepository itemRepository,
+                          @Value("${shareit.item.search.scan.parallelism:0}") int parallelism,
+                          @Value("${shareit.item.search.scan.partition-bytes:1048576}") int partitionBytes) {
+        this.repository = itemRepository;
+        this.partitionBytes = partitionBytes;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Pageable pageable = PageRequest.of(0, WARM_UP_BATCH, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = repository.findAll(pageable);
+            lock.writeLock().lock();
+            try {
+                for (Item item : page) {
+                    if (!rows.containsKey(item.getId())) {
+                        put(Row.of(item));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pageable = pageable.next();
+        } while (page.hasNext());
+        log.info("Столбец текстов вещей загружен: {} вещей, {} байт вне кучи", rows.size(), column.bytes());
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+    }
+
+    @Override
+    public void index(Item item) {
+        Row row = Row.of(item);
+        lock.writeLock().lock();
+        try {
+            put(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isCurrent(Item item) {
+        Row expected = Row.of(item);
+        lock.readLock().lock();
+        try {
+            Integer row = rows.get(item.getId());
+            if (row == null || expected.text() == null) {
+                return row == null && expected.text() == null;
+            }
+            return column.name(row).equals(expected.name()) && column.textEquals(row, expected.text());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Переписывает столбец без удалённых и устаревших строк, если они есть.
+     */
+    @Override
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (column.deadBytes() > 0) {
+                rewrite();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, Integer size, ItemSearchSort sort, LongPredicate filter) {
+        byte[] needle = text.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        // Нулевой байт разделяет название и описание, в тексте вещи его нет.
+        for (byte b : needle) {
+            if (b == SEPARATOR) {
+                return List.of();
+            }
+        }
+        Hit[] hits;
+        lock.readLock().lock();
+        try {
+            TextColumn snapshot = column;
+            int[] matched = snapshot.rows() == 0 ? new int[0]
+                    : pool.invoke(new Scan(snapshot, needle, 0, snapshot.rows(), partitionBytes));
+            hits = new Hit[matched.length];
+            for (int i = 0; i < matched.length; i++) {
+                hits[i] = new Hit(snapshot.id(matched[i]), snapshot.name(matched[i]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(hits, BY_NAME);
+        List<Long> page = new ArrayList<>();
+        int skip = from;
+        for (Hit hit : hits) {
+            if (size != null && page.size() == size) {
+                break;
+            }
+            if (!filter.test(hit.id())) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                page.add(hit.id());
+            }
+        }
+        return page;
+    }
+
+    int bytes() {
+        lock.readLock().lock();
+        try {
+            return column.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Row row) {
+        delete(row.id());
+        if (row.text() != null) {
+            rows.put(row.id(), column.append(row.id(), row.name(), row.text()));
+        }
+    }
+
+    private void delete(long itemId) {
+        Integer previous = rows.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        column.kill(previous);
+        if (column.deadBytes() >= COMPACT_MIN_BYTES && column.deadBytes() * 2 > column.bytes()) {
+            rewrite();
+        }
+    }
+
+    private void rewrite() {
+        column = column.compact();
+        rows.clear();
+        for (int i = 0; i < column.rows(); i++) {
+            rows.put(column.id(i), i);
+        }
+        log.debug("Столбец текстов вещей сжат до {} байт", column.bytes());
+    }
+
+    /**
+     * Просмотр диапазона строк [from, to): крупный диапазон делится пополам, половины просматриваются
+     * параллельно, номера строк склеиваются в прежнем порядке.
+     */
+    private static final class Scan extends RecursiveTask<int[]> {
+        private final TextColumn column;
+        private final byte[] needle;
+        private final int from;
+        private final int to;
+        private final int partitionBytes;
+
+        private Scan(TextColumn column, byte[] needle, int from, int to, int partitionBytes) {
+            this.column = column;
+            this.needle = needle;
+            this.from = from;
+            this.to = to;
+            this.partitionBytes = partitionBytes;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from < 2 || column.start(to) - column.start(from) <= partitionBytes) {
+                return column.scan(needle, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = new Scan(column, needle, from, middle, partitionBytes);
+            left.fork();
+            int[] right = new Scan(column, needle, middle, to, partitionBytes).compute();
+            int[] leftRows = left.join();
+            int[] joined = Arrays.copyOf(leftRows, leftRows.length + right.length);
+            System.arraycopy(right, 0, joined, leftRows.length, right.length);
+            return joined;
+        }
+    }
+
+    /**
+     * Строка столбца для вещи: текст null у недоступной вещи, в столбец она не попадает.
+     */
+    private record Row(long id, String name, byte[] text) {
+        static Row of(Item item) {
+            String name = item.getName() == null ? "" : item.getName();
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return new Row(item.getId(), name, null);
+            }
+            String description = item.getDescription() == null ? "" : item.getDescription();
+            String text = name.toLowerCase(Locale.ROOT) + (char) SEPARATOR + description.toLowerCase(Locale.ROOT);
+            return new Row(item.getId(), name, text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private record Hit(long id, String name) {
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.Item;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Поиск вещей по тексту для GET /items/search. Реализация выбирается свойством
+ * shareit.item.search.engine: index (по умолчанию) — ItemSearchIndex в памяти процесса,
+ * postgres — полнотекстовый поиск PostgreSQL (PostgresItemSearch), scan — поиск по подстроке,
+ * как в ItemRepository.getItemsBySearchQuery, просмотром столбца текстов вне кучи (ItemScanSearch).
+ */
+public interface ItemSearchEngine extends ItemIndex {
+    String PROPERTY = "shareit.item.search.engine";
+
+    /**
+     * Возвращает id доступных вещей, подходящих под запрос: from первых пропускаются,
+     * возвращается не больше size (все оставшиеся, если size не задан). Порядок задаёт sort.
+     */
+    default List<Long> search(String text, int from, Integer size, ItemSearchSort sort) {
+        return search(text, from, size, sort, id -> true);
+    }
+
+    /**
+     * То же, но в выдачу попадают только вещи, id которых принимает filter. Фильтр применяется
+     * к кандидатам до отбора страницы, поэтому from и size отсчитываются по уже отфильтрованной выдаче.
+     */
+    List<Long> search(String text, int from, Integer size, ItemSearchSort sort, LongPredicate filter);
+
+    /**
+     * Движкам, читающим из базы, делать ничего не нужно: index, remove и isCurrent по умолчанию пустые.
+     */
+    @Override
+    default void index(Item item) {
+    }
+
+    @Override
+    default void remove(Long itemId) {
+    }
+
+    @Override
+    default boolean isCurrent(Item item) {
+        return true;
+    }
+}
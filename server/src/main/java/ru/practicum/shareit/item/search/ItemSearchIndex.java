@@ -0,0 +1,738 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Инвертированный индекс вещей для поиска по тексту: терм из названия или описания отображается
+ * в возрастающий список id вещей. Каждое слово запроса сопоставляется со всеми термами,
+ * начинающимися с него, по словам запроса списки пересекаются; в выдачу попадают только доступные
+ * вещи, упорядоченные по названию или по релевантности.
+ * <p>
+ * Релевантность считается по BM25F: частоты терма в названии и описании нормируются на длину поля
+ * относительно средней по индексу, частота в названии умножается на name-boost, сумма насыщается
+ * (k1 = 1.2, b = 0.75) и умножается на IDF терма; IDF берётся из длин списков вхождений. Слово запроса
+ * получает оценку лучшего из подошедших под его префикс термов, оценки слов складываются.
+ * Для выдачи страницы from/size отбираются from + size лучших вещей в ограниченной куче, без сортировки
+ * всех найденных.
+ * <p>
+ * Индекс состоит из сегментов (IndexSegment): неизменяемых файлов в каталоге shareit.item.search.segments.dir,
+ * отображённых в память, и дельты в куче, куда после фиксации транзакций попадают созданные, изменённые
+ * и удалённые вещи. Когда в дельте набирается flush-threshold изменений, фоновый поток записывает её
+ * новым файлом, а когда файлов становится больше max-segments, объединяет их в один, отбрасывая
+ * скрытые версии. Список файлов хранится в манифесте, поэтому после перезапуска индекс не строится заново,
+ * а только сверяется с таблицей вещей по отпечаткам содержимого. Сегменты с диска могут описывать уже
+ * пересозданную базу, поэтому до конца этой сверки поиск идёт запросом к базе (по подстроке, порядок
+ * по названию), а открытые сегменты не используются. Без каталога индекс целиком
+ * живёт в куче и строится из базы при каждом старте. Статистика BM25 считается по всем версиям во всех
+ * сегментах, включая скрытые, и уточняется при объединении.
+ * <p>
+ * Вещи и запросы разбираются одним анализатором shareit.item.search.analyzer (см. ItemAnalyzer). Его имя
+ * записывается в манифест: сегменты, построенные другим анализатором, при старте отбрасываются
+ * и индекс строится из базы заново.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ItemSearchEngine.PROPERTY, havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearchEngine {
+    private static final int WARM_UP_BATCH = 1000;
+    private static final String MANIFEST = "segments.manifest";
+    private static final String ANALYZER_HEADER = "analyzer=";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Comparator<Hit> BY_NAME = Comparator
+            .comparing(Hit::name)
+            .thenComparingLong(Hit::id);
+    private static final Comparator<Hit> BY_RELEVANCE = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparing(BY_NAME);
+
+    private final ItemRepository repository;
+    private final ItemAnalyzer analyzer;
+    private final double nameBoost;
+    private final Path directory;
+    private final int flushThreshold;
+    private final int maxSegments;
+    private final ExecutorService maintenanceExecutor;
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean();
+    private final Object maintenance = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<MappedSegment> segments = List.of();
+    private HeapSegment flushing;
+    private HeapSegment delta = new HeapSegment();
+    private int nextGeneration;
+    private volatile boolean reconciled = true;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.item.search.analyzer:russian-english}") String analyzer,
+                           @Value("${shareit.item.search.relevance.name-boost:3.0}") double nameBoost,
+                           @Value("${shareit.item.search.segments.dir:}") String directory,
+                           @Value("${shareit.item.search.segments.flush-threshold:10000}") int flushThreshold,
+                           @Value("${shareit.item.search.segments.max-segments:4}") int maxSegments) {
+        this.repository = itemRepository;
+        this.analyzer = ItemAnalyzer.forName(analyzer);
+        this.nameBoost = nameBoost;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.flushThreshold = flushThreshold;
+        this.maxSegments = maxSegments;
+        if (this.directory == null) {
+            this.maintenanceExecutor = null;
+        } else {
+            this.maintenanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "item-search-segments");
+                thread.setDaemon(true);
+                return thread;
+            });
+            openSegments();
+            // Сегменты с диска описывают базу на момент записи; её могли пересоздать (schema.sql при старте).
+            reconciled = segments.isEmpty();
+        }
+    }
+
+    /**
+     * Сверяет индекс с таблицей вещей: добавляет вещи, которых в сегментах нет или чей отпечаток
+     * изменился, и отмечает удалёнными вещи из сегментов, которых в базе больше нет.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<MappedSegment> persisted = readSegments();
+        Postings seen = persisted.isEmpty() ? null : new Postings();
+        Pageable pageable = PageRequest.of(0, WARM_UP_BATCH, Sort.by("id"));
+        Page<Item> page;
+        int changed = 0;
+        do {
+            page = repository.findAll(pageable);
+            lock.writeLock().lock();
+            try {
+                for (Item item : page) {
+                    if (seen != null) {
+                        seen.add(item.getId());
+                    }
+                    // Изменение, проиндексированное во время загрузки, новее прочитанной строки.
+                    if (heapMasks(item.getId())) {
+                        continue;
+                    }
+                    HeapSegment.Document document = HeapSegment.Document.of(item, analyzer);
+                    SegmentDocument current = persistedVersion(item.getId());
+                    if (current == null || current.fingerprint() != document.fingerprint()) {
+                        delta.put(document);
+                        changed++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            scheduleMaintenance();
+            pageable = pageable.next();
+        } while (page.hasNext());
+        int removed = seen == null ? 0 : removeMissing(persisted, seen);
+        reconciled = true;
+        log.info("Поисковый индекс вещей готов: {} сегментов на диске, при сверке с базой изменено {} вещей, " +
+                "удалено {}, термов {}", persisted.size(), changed, removed, termCount());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (maintenanceExecutor == null) {
+            return;
+        }
+        maintenanceExecutor.shutdown();
+        maintenanceExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @Override
+    public void index(Item item) {
+        HeapSegment.Document document = HeapSegment.Document.of(item, analyzer);
+        lock.writeLock().lock();
+        try {
+            delta.put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleMaintenance();
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delta.delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleMaintenance();
+    }
+
+    /**
+     * Сравнивает отпечаток видимой версии вещи с отпечатком её текущего состояния.
+     */
+    @Override
+    public boolean isCurrent(Item item) {
+        long fingerprint = HeapSegment.Document.fingerprint(item);
+        lock.readLock().lock();
+        try {
+            List<IndexSegment> sources = sources();
+            for (int i = sources.size() - 1; i >= 0; i--) {
+                if (sources.get(i).masks(item.getId())) {
+                    SegmentDocument document = sources.get(i).document(item.getId());
+                    return document != null && document.fingerprint() == fingerprint;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Отдаёт лишнюю ёмкость списков вхождений дельты и объединяет файловые сегменты, если их больше одного:
+     * при объединении из списков вхождений уходят скрытые версии и удалённые вещи.
+     */
+    @Override
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            delta.compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (segmentCount() > 1) {
+            merge();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, Integer size, ItemSearchSort sort, LongPredicate filter) {
+        Set<String> tokens = analyzer.tokens(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        if (!reconciled) {
+            return searchDatabase(text, from, size, filter);
+        }
+        TopHits top = new TopHits(sort == ItemSearchSort.RELEVANCE ? BY_RELEVANCE : BY_NAME, from, size);
+        lock.readLock().lock();
+        try {
+            List<IndexSegment> sources = sources();
+            Statistics statistics = sort == ItemSearchSort.RELEVANCE ? new Statistics(sources) : null;
+            // Версия вещи живёт ровно в одном сегменте, поэтому слова запроса пересекаются внутри сегмента.
+            for (int s = 0; s < sources.size(); s++) {
+                IndexSegment source = sources.get(s);
+                if (statistics != null) {
+                    Scored matched = null;
+                    for (String token : tokens) {
+                        Scored scored = prefixScores(source, token, statistics);
+                        matched = matched == null ? scored : matched.intersect(scored);
+                        if (matched.ids.length == 0) {
+                            break;
+                        }
+                    }
+                    for (int i = 0; i < matched.ids.length; i++) {
+                        offer(top, sources, s, matched.ids[i], matched.scores[i], filter);
+                    }
+                } else {
+                    long[] matched = null;
+                    for (String token : tokens) {
+                        long[] ids = source.prefixIds(token);
+                        matched = matched == null ? ids : Postings.intersect(matched, ids);
+                        if (matched.length == 0) {
+                            break;
+                        }
+                    }
+                    for (long id : matched) {
+                        offer(top, sources, s, id, 0, filter);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.page();
+    }
+
+    /**
+     * Поиск до окончания сверки сегментов с базой: подстрока в названии или описании, как
+     * в ItemRepository.getItemsBySearchQuery, порядок по названию. Фильтр применяется до отбора страницы.
+     */
+    private List<Long> searchDatabase(String text, int from, Integer size, LongPredicate filter) {
+        List<Long> ids = new ArrayList<>();
+        int skipped = 0;
+        Pageable pageable = PageRequest.of(0, WARM_UP_BATCH, Sort.by("name", "id"));
+        Page<Item> page;
+        do {
+            page = repository.getItemsBySearchQuery(text, pageable);
+            for (Item item : page) {
+                if (!filter.test(item.getId())) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                    continue;
+                }
+                ids.add(item.getId());
+                if (size != null && ids.size() == size) {
+                    return ids;
+                }
+            }
+            pageable = pageable.next();
+        } while (page.hasNext());
+        return ids;
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            int count = delta.termCount() + (flushing == null ? 0 : flushing.termCount());
+            for (MappedSegment segment : segments) {
+                count += segment.termCount();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        return readSegments().size();
+    }
+
+    /**
+     * Записывает дельту новым файловым сегментом. Если записать не удалось, изменения остаются в куче.
+     */
+    void flush() {
+        synchronized (maintenance) {
+            HeapSegment frozen;
+            lock.writeLock().lock();
+            try {
+                if (directory == null || delta.isEmpty()) {
+                    return;
+                }
+                frozen = delta;
+                flushing = frozen;
+                delta = new HeapSegment();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            MappedSegment segment = null;
+            try {
+                SegmentBuilder builder = new SegmentBuilder();
+                frozen.writeTo(builder);
+                segment = builder.write(nextSegmentPath());
+            } catch (IOException e) {
+                log.error("Не удалось записать сегмент поискового индекса, изменения остаются в памяти", e);
+            }
+            lock.writeLock().lock();
+            try {
+                if (segment == null) {
+                    frozen.absorb(delta);
+                    delta = frozen;
+                } else {
+                    List<MappedSegment> grown = new ArrayList<>(segments);
+                    grown.add(segment);
+                    segments = List.copyOf(grown);
+                }
+                flushing = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (segment != null) {
+                writeManifest();
+                log.debug("Записан сегмент поискового индекса {}: {} вещей", segment.path().getFileName(),
+                        segment.documentCount());
+            }
+        }
+    }
+
+    /**
+     * Объединяет все файловые сегменты в один, оставляя только видимые версии вещей.
+     */
+    void merge() {
+        synchronized (maintenance) {
+            List<MappedSegment> snapshot = readSegments();
+            if (snapshot.size() < 2) {
+                return;
+            }
+            SegmentBuilder builder = new SegmentBuilder();
+            for (int i = 0; i < snapshot.size(); i++) {
+                int index = i;
+                snapshot.get(i).forEachDocument(document -> {
+                    if (!masked(snapshot, index, document.id())) {
+                        builder.addDocument(document);
+                    }
+                });
+                snapshot.get(i).forEachTerm((term, postings) -> {
+                    for (int j = 0; j < postings.size(); j++) {
+                        if (!masked(snapshot, index, postings.ids()[j])) {
+                            builder.addPosting(term, postings.ids()[j], postings.nameFrequencies()[j],
+                                    postings.descriptionFrequencies()[j], postings.nameLengths()[j],
+                                    postings.descriptionLengths()[j]);
+                        }
+                    }
+                });
+            }
+            MappedSegment merged;
+            try {
+                merged = builder.write(nextSegmentPath());
+            } catch (IOException e) {
+                log.error("Не удалось объединить сегменты поискового индекса", e);
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                // Сегменты меняются только под maintenance, поэтому snapshot — начало текущего списка.
+                List<MappedSegment> rest = new ArrayList<>();
+                rest.add(merged);
+                rest.addAll(segments.subList(snapshot.size(), segments.size()));
+                segments = List.copyOf(rest);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            writeManifest();
+            for (MappedSegment segment : snapshot) {
+                deleteFile(segment.path());
+            }
+            log.info("Сегменты поискового индекса объединены: {} -> 1, {} вещей", snapshot.size(),
+                    merged.documentCount());
+        }
+    }
+
+    private void scheduleMaintenance() {
+        if (maintenanceExecutor == null || !needsFlush() || !maintenanceScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            maintenanceExecutor.execute(() -> {
+                try {
+                    flush();
+                    if (segmentCount() > maxSegments) {
+                        merge();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Ошибка обслуживания сегментов поискового индекса", e);
+                } finally {
+                    maintenanceScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            maintenanceScheduled.set(false);
+        }
+    }
+
+    private boolean needsFlush() {
+        lock.readLock().lock();
+        try {
+            return delta.changes() >= flushThreshold;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int removeMissing(List<MappedSegment> persisted, Postings seen) {
+        Postings missing = new Postings();
+        for (MappedSegment segment : persisted) {
+            segment.forEachDocument(document -> {
+                if (!seen.contains(document.id())) {
+                    missing.add(document.id());
+                }
+            });
+        }
+        // Постраничное чтение могло пропустить строку, сдвинутую параллельным удалением: перепроверяем по id.
+        long[] ids = missing.toArray();
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.length; from += WARM_UP_BATCH) {
+            List<Long> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(ids.length, from + WARM_UP_BATCH); i++) {
+                chunk.add(ids[i]);
+            }
+            for (Item item : repository.findAllById(chunk)) {
+                existing.add(item.getId());
+            }
+        }
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            for (long id : ids) {
+                if (!existing.contains(id) && !heapMasks(id) && persistedVersion(id) != null) {
+                    delta.delete(id);
+                    removed++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleMaintenance();
+        return removed;
+    }
+
+    /**
+     * Сегменты от старых к новым. Вызывается под блокировкой.
+     */
+    private List<IndexSegment> sources() {
+        List<IndexSegment> sources = new ArrayList<>(segments.size() + 2);
+        sources.addAll(segments);
+        if (flushing != null) {
+            sources.add(flushing);
+        }
+        sources.add(delta);
+        return sources;
+    }
+
+    private List<MappedSegment> readSegments() {
+        lock.readLock().lock();
+        try {
+            return segments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean heapMasks(long id) {
+        return delta.masks(id) || (flushing != null && flushing.masks(id));
+    }
+
+    /**
+     * Видимая версия вещи в файловых сегментах или null, если её там нет или она отмечена удалённой.
+     */
+    private SegmentDocument persistedVersion(long id) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i).masks(id)) {
+                return segments.get(i).document(id);
+            }
+        }
+        return null;
+    }
+
+    private static boolean masked(List<? extends IndexSegment> sources, int index, long id) {
+        for (int i = index + 1; i < sources.size(); i++) {
+            if (sources.get(i).masks(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Оценки BM25F вещей сегмента, содержащих хотя бы один терм с данным префиксом; у вещи — оценка лучшего терма.
+     */
+    private Scored prefixScores(IndexSegment source, String prefix, Statistics statistics) {
+        Scored result = Scored.EMPTY;
+        for (String term : source.terms(prefix)) {
+            result = result.unionMax(termScores(source.postings(term), statistics.idf(term), statistics));
+        }
+        return result;
+    }
+
+    private Scored termScores(TermPostings postings, double idf, Statistics statistics) {
+        float[] scores = new float[postings.size()];
+        for (int i = 0; i < scores.length; i++) {
+            double frequency = nameBoost * postings.nameFrequencies()[i]
+                    / (1 - B + B * postings.nameLengths()[i] / statistics.averageNameLength)
+                    + postings.descriptionFrequencies()[i]
+                    / (1 - B + B * postings.descriptionLengths()[i] / statistics.averageDescriptionLength);
+            scores[i] = (float) (idf * frequency / (K1 + frequency));
+        }
+        return new Scored(postings.ids(), scores);
+    }
+
+    private static void offer(TopHits top, List<IndexSegment> sources, int index, long id, float score,
+                              LongPredicate filter) {
+        if (masked(sources, index, id)) {
+            return;
+        }
+        SegmentDocument document = sources.get(index).document(id);
+        if (document.available() && filter.test(id)) {
+            top.offer(new Hit(id, document.name(), score));
+        }
+    }
+
+    private void openSegments() {
+        try {
+            Files.createDirectories(directory);
+            Path manifest = directory.resolve(MANIFEST);
+            List<String> names = Files.exists(manifest)
+                    ? Files.readAllLines(manifest, StandardCharsets.UTF_8) : List.of();
+            if (!names.isEmpty() && !names.get(0).equals(ANALYZER_HEADER + analyzer.name())) {
+                log.info("Сегменты поискового индекса в {} построены другим анализатором ({}), индекс будет " +
+                        "построен из базы", directory, names.get(0));
+                names = List.of();
+            }
+            List<MappedSegment> opened = new ArrayList<>();
+            for (String name : names) {
+                if (!name.isBlank() && !name.startsWith(ANALYZER_HEADER)) {
+                    opened.add(MappedSegment.open(directory.resolve(name)));
+                    nextGeneration = Math.max(nextGeneration, generation(name) + 1);
+                }
+            }
+            segments = List.copyOf(opened);
+            deleteUnreferenced(Set.copyOf(names));
+            log.info("Открыто {} сегментов поискового индекса из {}", segments.size(), directory);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось открыть сегменты поискового индекса в {}, индекс будет построен из базы",
+                    directory, e);
+            segments = List.of();
+        }
+    }
+
+    private void deleteUnreferenced(Set<String> referenced) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!referenced.contains(name)) {
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        nextGeneration = Math.max(nextGeneration, generation(name) + 1);
+                    }
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    private Path nextSegmentPath() {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, nextGeneration++, SEGMENT_SUFFIX));
+    }
+
+    private static int generation(String name) {
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void writeManifest() {
+        List<String> names = new ArrayList<>();
+        names.add(ANALYZER_HEADER + analyzer.name());
+        for (MappedSegment segment : readSegments()) {
+            names.add(segment.path().getFileName().toString());
+        }
+        Path manifest = directory.resolve(MANIFEST);
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try {
+            Files.write(temporary, names, StandardCharsets.UTF_8);
+            Files.move(temporary, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Не удалось записать манифест сегментов поискового индекса", e);
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл {}", file, e);
+        }
+    }
+
+    /**
+     * Число вещей, средние длины полей и кэш IDF термов для одного запроса.
+     */
+    private static final class Statistics {
+        private final List<IndexSegment> sources;
+        private final long documents;
+        private final double averageNameLength;
+        private final double averageDescriptionLength;
+        private final Map<String, Double> idf = new HashMap<>();
+
+        private Statistics(List<IndexSegment> sources) {
+            this.sources = sources;
+            long count = 0;
+            long nameLength = 0;
+            long descriptionLength = 0;
+            for (IndexSegment source : sources) {
+                count += source.documentCount();
+                nameLength += source.totalNameLength();
+                descriptionLength += source.totalDescriptionLength();
+            }
+            this.documents = count;
+            this.averageNameLength = Math.max(1.0, (double) nameLength / Math.max(count, 1));
+            this.averageDescriptionLength = Math.max(1.0, (double) descriptionLength / Math.max(count, 1));
+        }
+
+        double idf(String term) {
+            return idf.computeIfAbsent(term, key -> {
+                int frequency = 0;
+                for (IndexSegment source : sources) {
+                    frequency += source.documentFrequency(key);
+                }
+                return Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+            });
+        }
+    }
+
+    /**
+     * Лучшие from + size вещей в порядке order: куча ограниченного размера, в вершине которой худшая
+     * из отобранных. Без size отбираются все найденные.
+     */
+    private static final class TopHits {
+        private final Comparator<Hit> order;
+        private final int from;
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+
+        private TopHits(Comparator<Hit> order, int from, Integer size) {
+            this.order = order;
+            this.from = from;
+            this.limit = size == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) from + size);
+            this.heap = new PriorityQueue<>(order.reversed());
+        }
+
+        void offer(Hit hit) {
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (order.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<Long> page() {
+            Hit[] sorted = new Hit[heap.size()];
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = heap.poll();
+            }
+            List<Long> page = new ArrayList<>(Math.max(sorted.length - from, 0));
+            for (int i = from; i < sorted.length; i++) {
+                page.add(sorted[i].id());
+            }
+            return page;
+        }
+    }
+
+    private record Hit(long id, String name, float score) {
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Optional;
+
+/**
+ * Порядок выдачи GET /items/search.
+ */
+public enum ItemSearchSort {
+    // По названию, затем по id
+    NAME,
+    // По убыванию релевантности запросу
+    RELEVANCE;
+
+    public static Optional<ItemSearchSort> from(String stringSort) {
+        for (ItemSearchSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,318 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки для строки поиска (GET /items/suggest): сжатое префиксное дерево (radix trie) термов
+ * из названий доступных вещей. Популярность терма — число доступных вещей, в названии которых он встречается.
+ * В каждом узле заранее хранятся top-k самых популярных термов его поддерева, поэтому ответ на запрос —
+ * спуск по префиксу и чтение готового списка, без обращения к базе.
+ * <p>
+ * При изменении популярности терма списки пересчитываются снизу вверх по пути от его узла к корню:
+ * top-k узла всегда содержится в объединении собственного терма узла и top-k его детей.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex implements ItemIndex {
+    private static final int WARM_UP_BATCH = 1000;
+    private static final Comparator<Suggestion> BY_POPULARITY = Comparator
+            .comparingInt(Suggestion::count).reversed()
+            .thenComparing(Suggestion::term);
+
+    private final ItemRepository repository;
+    private final int topK;
+    private final Node root = new Node("");
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            @Value("${shareit.item.suggest.top-k:10}") int topK) {
+        this.repository = itemRepository;
+        this.topK = topK;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Pageable pageable = PageRequest.of(0, WARM_UP_BATCH, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = repository.findAll(pageable);
+            lock.writeLock().lock();
+            try {
+                for (Item item : page) {
+                    if (!documents.containsKey(item.getId())) {
+                        put(item.getId(), terms(item));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pageable = pageable.next();
+        } while (page.hasNext());
+        log.info("Индекс подсказок загружен: {} вещей", documents.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        String[] terms = terms(item);
+        lock.writeLock().lock();
+        try {
+            put(item.getId(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            put(itemId, new String[0]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isCurrent(Item item) {
+        String[] expected = terms(item);
+        lock.readLock().lock();
+        try {
+            String[] actual = documents.get(item.getId());
+            return Arrays.equals(actual == null ? new String[0] : actual, expected);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает не больше limit (и не больше top-k) самых популярных термов, начинающихся с последнего
+     * слова prefix. Если prefix пуст или заканчивается не буквой и не цифрой, подсказок нет.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            return List.of();
+        }
+        String last = null;
+        for (String token : ItemAnalyzer.SIMPLE.tokens(prefix)) {
+            last = token;
+        }
+        List<String> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Node node = find(last);
+            if (node != null) {
+                for (int i = 0; i < Math.min(limit, node.top.length); i++) {
+                    result.add(node.top[i].term());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void put(long itemId, String[] terms) {
+        String[] previous = documents.remove(itemId);
+        if (terms.length > 0) {
+            documents.put(itemId, terms);
+        }
+        if (previous != null) {
+            for (String term : previous) {
+                add(term, -1);
+            }
+        }
+        for (String term : terms) {
+            add(term, 1);
+        }
+    }
+
+    /**
+     * Меняет популярность терма на delta и пересчитывает top-k на пути от его узла к корню.
+     */
+    private void add(String term, int delta) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        String rest = term;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.addChild(child);
+                rest = "";
+            } else {
+                int common = commonPrefix(child.label, rest);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                rest = rest.substring(common);
+            }
+            node = child;
+            path.add(node);
+        }
+        node.term = term;
+        node.count += delta;
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.count <= 0 && current.children.length == 0) {
+                parent.removeChild(current);
+            } else if (current.count <= 0 && current.children.length == 1) {
+                parent.replaceChild(current, merge(current));
+            } else {
+                recompute(current);
+            }
+        }
+        recompute(root);
+    }
+
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        parent.replaceChild(child, middle);
+        child.label = child.label.substring(at);
+        middle.addChild(child);
+        return middle;
+    }
+
+    private Node merge(Node node) {
+        Node child = node.children[0];
+        child.label = node.label + child.label;
+        return child;
+    }
+
+    private void recompute(Node node) {
+        List<Suggestion> candidates = new ArrayList<>();
+        if (node.count > 0) {
+            candidates.add(new Suggestion(node.term, node.count));
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(BY_POPULARITY);
+        node.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray(new Suggestion[0]);
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, rest);
+            if (common == rest.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        int i = 0;
+        while (i < length && left.charAt(i) == right.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String[] terms(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return new String[0];
+        }
+        return ItemAnalyzer.SIMPLE.tokens(item.getName()).toArray(new String[0]);
+    }
+
+    /**
+     * Узел дерева: метка ребра от родителя, терм (если узлом заканчивается терм с count > 0),
+     * дети в порядке первого символа метки и готовый top-k поддерева.
+     */
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+        private String label;
+        private String term;
+        private int count;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int position = position(first);
+            return position >= 0 ? children[position] : null;
+        }
+
+        void addChild(Node child) {
+            int position = -position(child.label.charAt(0)) - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, position);
+            grown[position] = child;
+            System.arraycopy(children, position, grown, position + 1, children.length - position);
+            children = grown;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[position(old.label.charAt(0))] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int position = position(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, position);
+            System.arraycopy(children, position + 1, shrunk, position, children.length - position - 1);
+            children = shrunk;
+        }
+
+        private int position(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char key = children[middle].label.charAt(0);
+                if (key < first) {
+                    low = middle + 1;
+                } else if (key > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+    }
+
+    private record Suggestion(String term, int count) {
+    }
+}
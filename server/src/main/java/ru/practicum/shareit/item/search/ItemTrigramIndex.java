@@ -0,0 +1,350 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Индекс триграмм для поиска с опечатками (GET /items/search?fuzzy=true). Словарь составлен из термов
+ * названий и описаний вещей; для каждой триграммы (терм дополняется двумя пробелами в начале и одним
+ * в конце, как в pg_trgm) хранится список id термов, для каждого терма — список id вещей.
+ * <p>
+ * Для слова запроса кандидаты — термы, разделяющие с ним хотя бы одну триграмму; их сходство
+ * считается как в pg_trgm: общие триграммы / все различные триграммы двух слов. Термы со сходством
+ * не ниже threshold (не больше max-terms лучших) дают вещам оценку, равную сходству. Вещь должна
+ * подойти под каждое слово запроса, оценки слов складываются; выдача — доступные вещи по убыванию оценки.
+ */
+@Slf4j
+@Component
+public class ItemTrigramIndex implements ItemIndex {
+    private static final int WARM_UP_BATCH = 1000;
+
+    private final ItemRepository repository;
+    private final double threshold;
+    private final int maxTerms;
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<>();
+    private Term[] termsById = new Term[1024];
+    private int nextTermId;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Счётчики общих триграмм по id терма; между запросами все нули, поэтому поток берёт их без очистки.
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    @Autowired
+    public ItemTrigramIndex(ItemRepository itemRepository,
+                            @Value("${shareit.item.search.fuzzy.threshold:0.3}") double threshold,
+                            @Value("${shareit.item.search.fuzzy.max-terms:32}") int maxTerms) {
+        this.repository = itemRepository;
+        this.threshold = threshold;
+        this.maxTerms = maxTerms;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Pageable pageable = PageRequest.of(0, WARM_UP_BATCH, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = repository.findAll(pageable);
+            lock.writeLock().lock();
+            try {
+                for (Item item : page) {
+                    if (!documents.containsKey(item.getId())) {
+                        put(Document.of(item));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pageable = pageable.next();
+        } while (page.hasNext());
+        log.info("Индекс триграмм загружен: {} вещей, {} термов, {} триграмм", documents.size(), terms.size(),
+                trigrams.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        Document document = Document.of(item);
+        lock.writeLock().lock();
+        try {
+            put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isCurrent(Item item) {
+        Document expected = Document.of(item);
+        lock.readLock().lock();
+        try {
+            Document actual = documents.get(item.getId());
+            return actual != null && actual.available() == expected.available()
+                    && actual.name().equals(expected.name()) && Arrays.equals(actual.terms(), expected.terms());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Отдаёт лишнюю ёмкость списков вещей термов и списков термов триграмм, оставшуюся после удалений.
+     */
+    @Override
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            for (Term term : terms.values()) {
+                term.items.compact();
+            }
+            for (Postings postings : trigrams.values()) {
+                postings.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает id доступных вещей, похожих на запрос, по убыванию сходства:
+     * from первых пропускаются, возвращается не больше size (все оставшиеся, если size не задан).
+     */
+    public List<Long> search(String text, int from, Integer size) {
+        return search(text, from, size, id -> true);
+    }
+
+    /**
+     * То же, но только среди вещей, id которых принимает filter.
+     */
+    public List<Long> search(String text, int from, Integer size, LongPredicate filter) {
+        Set<String> tokens = ItemAnalyzer.NORMALIZING.tokens(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Scored matched = null;
+            for (String token : tokens) {
+                Scored scored = match(token);
+                matched = matched == null ? scored : matched.intersect(scored);
+                if (matched.ids.length == 0) {
+                    return List.of();
+                }
+            }
+            for (int i = 0; i < matched.ids.length; i++) {
+                Document document = documents.get(matched.ids[i]);
+                if (document.available() && filter.test(document.id())) {
+                    hits.add(new Hit(document.id(), document.name(), matched.scores[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(Hit::name)
+                .thenComparingLong(Hit::id));
+        int to = size == null ? hits.size() : (int) Math.min(hits.size(), (long) from + size);
+        List<Long> page = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            page.add(hits.get(i).id());
+        }
+        return page;
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Scored match(String token) {
+        long[] queryGrams = trigrams(token);
+        Scratch counters = scratch.get();
+        if (counters.shared.length < nextTermId) {
+            counters.shared = new int[Math.max(nextTermId, counters.shared.length * 2)];
+        }
+        int[] shared = counters.shared;
+        int touchedCount = 0;
+        List<Candidate> candidates = new ArrayList<>();
+        try {
+            for (long gram : queryGrams) {
+                Postings postings = trigrams.get(gram);
+                if (postings == null) {
+                    continue;
+                }
+                for (int i = 0; i < postings.size(); i++) {
+                    int termId = (int) postings.get(i);
+                    if (shared[termId]++ == 0) {
+                        if (touchedCount == counters.touched.length) {
+                            counters.touched = Arrays.copyOf(counters.touched, counters.touched.length * 2);
+                        }
+                        counters.touched[touchedCount++] = termId;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                Term term = termsById[counters.touched[i]];
+                int common = shared[term.id];
+                double similarity = (double) common / (queryGrams.length + term.gramCount - common);
+                if (similarity >= threshold) {
+                    candidates.add(new Candidate(term, (float) similarity));
+                }
+            }
+        } finally {
+            for (int i = 0; i < touchedCount; i++) {
+                shared[counters.touched[i]] = 0;
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        Scored result = Scored.EMPTY;
+        for (Candidate candidate : candidates.subList(0, Math.min(maxTerms, candidates.size()))) {
+            result = result.unionMax(candidate.term().items.toArray(), candidate.similarity());
+        }
+        return result;
+    }
+
+    private void put(Document document) {
+        delete(document.id());
+        documents.put(document.id(), document);
+        for (String text : document.terms()) {
+            Term term = terms.get(text);
+            if (term == null) {
+                term = createTerm(text);
+            }
+            term.items.add(document.id());
+        }
+    }
+
+    private void delete(long itemId) {
+        Document previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String text : previous.terms()) {
+            Term term = terms.get(text);
+            if (term != null && term.items.remove(itemId) && term.items.isEmpty()) {
+                dropTerm(term);
+            }
+        }
+    }
+
+    private Term createTerm(String text) {
+        int id;
+        if (freeTermIds.isEmpty()) {
+            id = nextTermId++;
+            if (id == termsById.length) {
+                termsById = Arrays.copyOf(termsById, termsById.length * 2);
+            }
+        } else {
+            id = freeTermIds.pop();
+        }
+        long[] grams = trigrams(text);
+        Term term = new Term(id, text, grams.length);
+        terms.put(text, term);
+        termsById[id] = term;
+        for (long gram : grams) {
+            trigrams.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+        return term;
+    }
+
+    private void dropTerm(Term term) {
+        terms.remove(term.text);
+        termsById[term.id] = null;
+        for (long gram : trigrams(term.text)) {
+            Postings postings = trigrams.get(gram);
+            if (postings != null && postings.remove(term.id) && postings.isEmpty()) {
+                trigrams.remove(gram);
+            }
+        }
+        freeTermIds.push(term.id);
+    }
+
+    /**
+     * Различные триграммы слова, дополненного как в pg_trgm; триграмма упакована в long по 16 бит на символ.
+     */
+    static long[] trigrams(String word) {
+        String padded = "  " + word + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    private static final class Term {
+        private final int id;
+        private final String text;
+        private final int gramCount;
+        private final Postings items = new Postings();
+
+        private Term(int id, String text, int gramCount) {
+            this.id = id;
+            this.text = text;
+            this.gramCount = gramCount;
+        }
+    }
+
+    private static final class Scratch {
+        private int[] shared = new int[1024];
+        private int[] touched = new int[16];
+    }
+
+    private record Candidate(Term term, float similarity) {
+    }
+
+    private record Hit(long id, String name, float score) {
+    }
+
+    private record Document(long id, String name, String[] terms, boolean available) {
+        static Document of(Item item) {
+            Set<String> terms = ItemAnalyzer.NORMALIZING.tokens(item.getName());
+            terms.addAll(ItemAnalyzer.NORMALIZING.tokens(item.getDescription()));
+            return new Document(item.getId(), item.getName() == null ? "" : item.getName(),
+                    terms.toArray(new String[0]), Boolean.TRUE.equals(item.getAvailable()));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Переводит терм в нижний регистр посимвольно.
+ */
+final class LowerCaseFilter implements TokenFilter {
+
+    @Override
+    public boolean apply(TermBuffer term) {
+        for (int i = 0; i < term.length(); i++) {
+            term.setCharAt(i, Character.toLowerCase(term.charAt(i)));
+        }
+        return true;
+    }
+}
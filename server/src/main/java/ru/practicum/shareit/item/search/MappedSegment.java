@@ -0,0 +1,256 @@
+package ru.practicum.shareit.item.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Неизменяемый файловый сегмент индекса, отображённый в память через FileChannel.map: данные
+ * читаются прямо из страниц файла, в куче остаётся только этот объект. Поэтому сегменты,
+ * записанные до перезапуска, готовы к поиску сразу после открытия.
+ * <p>
+ * Формат (big-endian): заголовок; таблица вещей по возрастанию id (id, отпечаток, смещение названия,
+ * длины полей, доступность — по 32 байта); словарь термов по возрастанию (смещение терма, первое
+ * вхождение, число вхождений — по 12 байт); вхождения термов по возрастанию id (id, частоты в названии
+ * и описании, длины полей — по 16 байт); отметки об удалении (id по возрастанию); строки
+ * (длина и байты UTF-8). Смещения строк отсчитываются от начала области строк.
+ */
+final class MappedSegment implements IndexSegment {
+    static final int MAGIC = 0x53484953;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 72;
+    static final int DOCUMENT_SIZE = 32;
+    static final int TERM_SIZE = 12;
+    static final int POSTING_SIZE = 16;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int documentCount;
+    private final int termCount;
+    private final int tombstoneCount;
+    private final long totalNameLength;
+    private final long totalDescriptionLength;
+    private final int termsOffset;
+    private final int postingsOffset;
+    private final int tombstonesOffset;
+    private final int stringsOffset;
+
+    private MappedSegment(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Файл " + path + " не является сегментом поискового индекса версии " + VERSION);
+        }
+        this.documentCount = buffer.getInt(8);
+        this.termCount = buffer.getInt(12);
+        this.tombstoneCount = buffer.getInt(16);
+        this.totalNameLength = buffer.getLong(24);
+        this.totalDescriptionLength = buffer.getLong(32);
+        this.termsOffset = (int) buffer.getLong(40);
+        this.postingsOffset = (int) buffer.getLong(48);
+        this.tombstonesOffset = (int) buffer.getLong(56);
+        this.stringsOffset = (int) buffer.getLong(64);
+    }
+
+    static MappedSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Сегмент поискового индекса больше 2 ГБ: " + path);
+            }
+            return new MappedSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    @Override
+    public int documentCount() {
+        return documentCount;
+    }
+
+    @Override
+    public long totalNameLength() {
+        return totalNameLength;
+    }
+
+    @Override
+    public long totalDescriptionLength() {
+        return totalDescriptionLength;
+    }
+
+    @Override
+    public List<String> terms(String prefix) {
+        List<String> terms = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < termCount; i++) {
+            String term = term(i);
+            if (!term.startsWith(prefix)) {
+                break;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    @Override
+    public int documentFrequency(String term) {
+        int index = findTerm(term);
+        return index < 0 ? 0 : postingCount(index);
+    }
+
+    @Override
+    public TermPostings postings(String term) {
+        int index = findTerm(term);
+        return index < 0 ? TermPostings.EMPTY : postings(index);
+    }
+
+    @Override
+    public long[] prefixIds(String prefix) {
+        long[] ids = new long[0];
+        for (int i = lowerBound(prefix); i < termCount && term(i).startsWith(prefix); i++) {
+            long[] termIds = new long[postingCount(i)];
+            int first = postingsOffset + postingStart(i) * POSTING_SIZE;
+            for (int j = 0; j < termIds.length; j++) {
+                termIds[j] = buffer.getLong(first + j * POSTING_SIZE);
+            }
+            ids = ids.length == 0 ? termIds : Postings.union(ids, termIds);
+        }
+        return ids;
+    }
+
+    @Override
+    public SegmentDocument document(long id) {
+        int index = findDocument(id);
+        return index < 0 ? null : document(index);
+    }
+
+    @Override
+    public boolean masks(long id) {
+        return findDocument(id) >= 0 || isTombstone(id);
+    }
+
+    void forEachDocument(Consumer<SegmentDocument> consumer) {
+        for (int i = 0; i < documentCount; i++) {
+            consumer.accept(document(i));
+        }
+    }
+
+    void forEachTerm(BiConsumer<String, TermPostings> consumer) {
+        for (int i = 0; i < termCount; i++) {
+            consumer.accept(term(i), postings(i));
+        }
+    }
+
+    private SegmentDocument document(int index) {
+        int position = HEADER_SIZE + index * DOCUMENT_SIZE;
+        return new SegmentDocument(buffer.getLong(position), string(buffer.getInt(position + 16)),
+                buffer.getInt(position + 20), buffer.getInt(position + 24), buffer.getInt(position + 28) != 0,
+                buffer.getLong(position + 8));
+    }
+
+    private TermPostings postings(int termIndex) {
+        int count = postingCount(termIndex);
+        long[] ids = new long[count];
+        int[] nameFrequencies = new int[count];
+        int[] descriptionFrequencies = new int[count];
+        int[] nameLengths = new int[count];
+        int[] descriptionLengths = new int[count];
+        int position = postingsOffset + postingStart(termIndex) * POSTING_SIZE;
+        for (int i = 0; i < count; i++, position += POSTING_SIZE) {
+            ids[i] = buffer.getLong(position);
+            nameFrequencies[i] = Short.toUnsignedInt(buffer.getShort(position + 8));
+            descriptionFrequencies[i] = Short.toUnsignedInt(buffer.getShort(position + 10));
+            nameLengths[i] = Short.toUnsignedInt(buffer.getShort(position + 12));
+            descriptionLengths[i] = Short.toUnsignedInt(buffer.getShort(position + 14));
+        }
+        return new TermPostings(ids, nameFrequencies, descriptionFrequencies, nameLengths, descriptionLengths);
+    }
+
+    private int findDocument(long id) {
+        int low = 0;
+        int high = documentCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = buffer.getLong(HEADER_SIZE + middle * DOCUMENT_SIZE);
+            if (key < id) {
+                low = middle + 1;
+            } else if (key > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isTombstone(long id) {
+        int low = 0;
+        int high = tombstoneCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = buffer.getLong(tombstonesOffset + middle * Long.BYTES);
+            if (key < id) {
+                low = middle + 1;
+            } else if (key > id) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int findTerm(String term) {
+        int index = lowerBound(term);
+        return index < termCount && term(index).equals(term) ? index : -1;
+    }
+
+    /**
+     * Номер первого терма, не меньшего key, в порядке String.compareTo — том же, что у TreeMap при записи.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (term(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String term(int index) {
+        return string(buffer.getInt(termsOffset + index * TERM_SIZE));
+    }
+
+    private int postingStart(int termIndex) {
+        return buffer.getInt(termsOffset + termIndex * TERM_SIZE + 4);
+    }
+
+    private int postingCount(int termIndex) {
+        return buffer.getInt(termsOffset + termIndex * TERM_SIZE + 8);
+    }
+
+    private String string(int offset) {
+        int position = stringsOffset + offset;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
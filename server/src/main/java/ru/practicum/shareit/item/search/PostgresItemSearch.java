@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.LongPredicate;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Поиск вещей средствами базы. На PostgreSQL запрос идёт по генерируемому столбцу items.search_vector
+ * (название с весом A, описание с весом B) через GIN-индекс IX_ITEMS_SEARCH: каждое слово запроса
+ * ищется как префикс лексемы, результаты упорядочены по названию или по ts_rank. На остальных платформах
+ * (H2 в тестах) используется прежний запрос ItemRepository.getItemsBySearchQuery с LIKE по подстроке,
+ * без оценки релевантности: выдача всегда по названию.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ItemSearchEngine.PROPERTY, havingValue = "postgres")
+public class PostgresItemSearch implements ItemSearchEngine {
+    private static final String POSTGRESQL = "postgresql";
+    private static final int BATCH = 1000;
+    private static final String SEARCH = "SELECT id FROM items, to_tsquery('simple', :query) query " +
+            "WHERE available = TRUE AND search_vector @@ query ";
+    private static final String BY_NAME = "ORDER BY name, id LIMIT :limit OFFSET :offset";
+    private static final String BY_RANK = "ORDER BY ts_rank(search_vector, query) DESC, name, id " +
+            "LIMIT :limit OFFSET :offset";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ItemRepository repository;
+    private final boolean fullText;
+
+    @Autowired
+    public PostgresItemSearch(JdbcTemplate jdbcTemplate, ItemRepository itemRepository,
+                              @Value("${spring.sql.init.platform:all}") String platform) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.repository = itemRepository;
+        this.fullText = POSTGRESQL.equals(platform);
+        if (!fullText) {
+            log.warn("Полнотекстовый поиск доступен только на PostgreSQL, на платформе {} используется LIKE",
+                    platform);
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, int from, Integer size, ItemSearchSort sort) {
+        if (fullText) {
+            return searchFullText(text, from, size, sort);
+        }
+        return collect(page -> searchLike(text, page), from / BATCH, from % BATCH, size, id -> true);
+    }
+
+    /**
+     * Фильтр известен только приложению, поэтому выдача читается пачками по BATCH, пока не наберётся страница.
+     */
+    @Override
+    public List<Long> search(String text, int from, Integer size, ItemSearchSort sort, LongPredicate filter) {
+        if (fullText) {
+            return collect(page -> searchFullText(text, page * BATCH, BATCH, sort), 0, from, size, filter);
+        }
+        return collect(page -> searchLike(text, page), 0, from, size, filter);
+    }
+
+    private List<Long> searchFullText(String text, int from, Integer size, ItemSearchSort sort) {
+        Set<String> tokens = ItemAnalyzer.SIMPLE.tokens(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        // Термы состоят только из букв и цифр, поэтому синтаксис tsquery в них не встречается.
+        String query = tokens.stream().map(token -> token + ":*").collect(joining(" & "));
+        return jdbcTemplate.queryForList(SEARCH + (sort == ItemSearchSort.RELEVANCE ? BY_RANK : BY_NAME),
+                new MapSqlParameterSource()
+                        .addValue("query", query)
+                        .addValue("limit", size == null ? Integer.MAX_VALUE : size)
+                        .addValue("offset", from), Long.class);
+    }
+
+    private List<Long> searchLike(String text, int page) {
+        return repository.getItemsBySearchQuery(text.toLowerCase(), PageRequest.of(page, BATCH, Sort.by("name", "id")))
+                .map(Item::getId)
+                .getContent();
+    }
+
+    private static List<Long> collect(IntFunction<List<Long>> batches, int firstBatch, int skip, Integer size,
+                                      LongPredicate filter) {
+        List<Long> ids = new ArrayList<>();
+        int page = firstBatch;
+        List<Long> batch;
+        do {
+            batch = batches.apply(page++);
+            for (Long id : batch) {
+                if (!filter.test(id)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else if (size == null || ids.size() < size) {
+                    ids.add(id);
+                }
+            }
+        } while (batch.size() == BATCH && (size == null || ids.size() < size));
+        return ids;
+    }
+}
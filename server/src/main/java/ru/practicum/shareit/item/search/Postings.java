@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Список вхождений терма: возрастающий массив id вещей без повторов на примитивном long[].
+ * Не потокобезопасен, доступ синхронизирует ItemSearchIndex.
+ */
+final class Postings {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = new long[4];
+    private int size;
+
+    boolean add(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Отдаёт лишнюю ёмкость, оставшуюся после удалений.
+     */
+    void compact() {
+        if (ids.length > 4 && ids.length > size * 2) {
+            ids = Arrays.copyOf(ids, Math.max(4, size));
+        }
+    }
+
+    long[] toArray() {
+        return size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Объединение возрастающих массивов без повторов.
+     */
+    static long[] union(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                result[k++] = left[i++];
+            } else if (left[i] > right[j]) {
+                result[k++] = right[j++];
+            } else {
+                result[k++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) {
+            result[k++] = left[i++];
+        }
+        while (j < right.length) {
+            result[k++] = right[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Пересечение возрастающих массивов. Короткий массив проходится целиком, в длинном
+     * следующий элемент ищется галопом, поэтому редкий терм быстро отсекает частый.
+     */
+    static long[] intersect(long[] left, long[] right) {
+        if (left.length > right.length) {
+            return intersect(right, left);
+        }
+        long[] result = new long[left.length];
+        int k = 0;
+        int from = 0;
+        for (long id : left) {
+            int bound = 1;
+            while (from + bound < right.length && right[from + bound] < id) {
+                bound <<= 1;
+            }
+            int position = Arrays.binarySearch(right, from, Math.min(from + bound + 1, right.length), id);
+            if (position >= 0) {
+                result[k++] = id;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= right.length) {
+                break;
+            }
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Лёгкий стеммер для русского, по мотивам стеммера Ж. Савуа: отрезает одно падежное окончание существительного
+ * или прилагательного (самое длинное из подходящих), оставляя основу не короче трёх букв. Суффиксы
+ * словообразования не трогает, поэтому «дрель», «дрели» и «дрелью» сводятся к «дрел», а «аккумулятор»
+ * и «аккумуляторная» остаются разными термами. Работает только с кириллическими термами после
+ * нормализации (нижний регистр, без «ё»).
+ */
+final class RussianLightStemmer implements TokenFilter {
+    private static final int MIN_STEM = 3;
+    /**
+     * Окончания от длинных к коротким: подходит первое совпавшее.
+     */
+    private static final String[] ENDINGS = {"иями",
+            "ого", "его", "ому", "ему", "ими", "ыми", "ями", "ами", "ией", "иям", "ием", "иях",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ую", "юю", "ою", "ею", "ым", "им", "ом",
+            "ем", "ых", "их", "ам", "ям", "ах", "ях", "ов", "ев", "ью", "ию", "ья", "ия", "ье", "ии", "еи",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"};
+
+    @Override
+    public boolean apply(TermBuffer term) {
+        int length = term.length();
+        if (length <= MIN_STEM || !isCyrillic(term.charAt(length - 1))) {
+            return true;
+        }
+        for (String ending : ENDINGS) {
+            if (length - ending.length() >= MIN_STEM && term.endsWith(ending)) {
+                term.truncate(length - ending.length());
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCyrillic(char c) {
+        return c >= 'а' && c <= 'я';
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Возрастающие id вещей с оценками в параллельном массиве. Неизменяем.
+ */
+final class Scored {
+    static final Scored EMPTY = new Scored(new long[0], new float[0]);
+
+    final long[] ids;
+    final float[] scores;
+
+    Scored(long[] ids, float[] scores) {
+        this.ids = ids;
+        this.scores = scores;
+    }
+
+    /**
+     * Объединение с вещами other, каждой из которых приписана оценка score; у общих вещей — большая из оценок.
+     */
+    Scored unionMax(long[] other, float score) {
+        float[] otherScores = new float[other.length];
+        Arrays.fill(otherScores, score);
+        return unionMax(new Scored(other, otherScores));
+    }
+
+    Scored unionMax(Scored other) {
+        long[] resultIds = new long[ids.length + other.ids.length];
+        float[] resultScores = new float[resultIds.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < ids.length || j < other.ids.length) {
+            if (j == other.ids.length || (i < ids.length && ids[i] < other.ids[j])) {
+                resultIds[k] = ids[i];
+                resultScores[k++] = scores[i++];
+            } else if (i == ids.length || ids[i] > other.ids[j]) {
+                resultIds[k] = other.ids[j];
+                resultScores[k++] = other.scores[j++];
+            } else {
+                resultIds[k] = ids[i];
+                resultScores[k++] = Math.max(scores[i++], other.scores[j++]);
+            }
+        }
+        return new Scored(Arrays.copyOf(resultIds, k), Arrays.copyOf(resultScores, k));
+    }
+
+    /**
+     * Пересечение, оценки общих вещей складываются.
+     */
+    Scored intersect(Scored other) {
+        long[] resultIds = new long[Math.min(ids.length, other.ids.length)];
+        float[] resultScores = new float[resultIds.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < ids.length && j < other.ids.length) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            } else if (ids[i] > other.ids[j]) {
+                j++;
+            } else {
+                resultIds[k] = ids[i];
+                resultScores[k++] = scores[i++] + other.scores[j++];
+            }
+        }
+        return new Scored(Arrays.copyOf(resultIds, k), Arrays.copyOf(resultScores, k));
+    }
+}
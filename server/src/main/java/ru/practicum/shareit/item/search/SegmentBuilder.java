@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Собирает в памяти содержимое файлового сегмента и записывает его в формате, который читает MappedSegment.
+ * Файл пишется рядом под временным именем и затем атомарно переименовывается, поэтому недописанный
+ * сегмент никогда не окажется под своим настоящим именем.
+ */
+final class SegmentBuilder {
+    private static final Comparator<Posting> BY_ID = Comparator.comparingLong(Posting::id);
+
+    private final List<SegmentDocument> documents = new ArrayList<>();
+    private final Map<String, List<Posting>> terms = new TreeMap<>();
+    private final Postings tombstones = new Postings();
+
+    void addDocument(SegmentDocument document) {
+        documents.add(document);
+    }
+
+    void addPosting(String term, long id, int nameFrequency, int descriptionFrequency, int nameLength,
+                    int descriptionLength) {
+        terms.computeIfAbsent(term, key -> new ArrayList<>())
+                .add(new Posting(id, nameFrequency, descriptionFrequency, nameLength, descriptionLength));
+    }
+
+    void addTombstone(long id) {
+        tombstones.add(id);
+    }
+
+    MappedSegment write(Path file) throws IOException {
+        documents.sort(Comparator.comparingLong(SegmentDocument::id));
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringsOut = new DataOutputStream(strings);
+        int postingCount = 0;
+        for (List<Posting> postings : terms.values()) {
+            postings.sort(BY_ID);
+            postingCount += postings.size();
+        }
+
+        long documentsOffset = MappedSegment.HEADER_SIZE;
+        long termsOffset = documentsOffset + (long) documents.size() * MappedSegment.DOCUMENT_SIZE;
+        long postingsOffset = termsOffset + (long) terms.size() * MappedSegment.TERM_SIZE;
+        long tombstonesOffset = postingsOffset + (long) postingCount * MappedSegment.POSTING_SIZE;
+        long stringsOffset = tombstonesOffset + (long) tombstones.size() * Long.BYTES;
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MappedSegment.MAGIC);
+            out.writeInt(MappedSegment.VERSION);
+            out.writeInt(documents.size());
+            out.writeInt(terms.size());
+            out.writeInt(tombstones.size());
+            out.writeInt(0);
+            long totalNameLength = 0;
+            long totalDescriptionLength = 0;
+            for (SegmentDocument document : documents) {
+                totalNameLength += document.nameLength();
+                totalDescriptionLength += document.descriptionLength();
+            }
+            out.writeLong(totalNameLength);
+            out.writeLong(totalDescriptionLength);
+            out.writeLong(termsOffset);
+            out.writeLong(postingsOffset);
+            out.writeLong(tombstonesOffset);
+            out.writeLong(stringsOffset);
+
+            for (SegmentDocument document : documents) {
+                out.writeLong(document.id());
+                out.writeLong(document.fingerprint());
+                out.writeInt(writeString(stringsOut, strings, document.name()));
+                out.writeInt(document.nameLength());
+                out.writeInt(document.descriptionLength());
+                out.writeInt(document.available() ? 1 : 0);
+            }
+            int postingIndex = 0;
+            for (Map.Entry<String, List<Posting>> entry : terms.entrySet()) {
+                out.writeInt(writeString(stringsOut, strings, entry.getKey()));
+                out.writeInt(postingIndex);
+                out.writeInt(entry.getValue().size());
+                postingIndex += entry.getValue().size();
+            }
+            for (List<Posting> postings : terms.values()) {
+                for (Posting posting : postings) {
+                    out.writeLong(posting.id());
+                    out.writeShort(clamp(posting.nameFrequency()));
+                    out.writeShort(clamp(posting.descriptionFrequency()));
+                    out.writeShort(clamp(posting.nameLength()));
+                    out.writeShort(clamp(posting.descriptionLength()));
+                }
+            }
+            for (long id : tombstones.toArray()) {
+                out.writeLong(id);
+            }
+            stringsOut.flush();
+            if (stringsOffset + strings.size() > Integer.MAX_VALUE) {
+                throw new IOException("Сегмент поискового индекса больше 2 ГБ");
+            }
+            strings.writeTo(out);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return MappedSegment.open(file);
+    }
+
+    private static int writeString(DataOutputStream out, ByteArrayOutputStream buffer, String value)
+            throws IOException {
+        out.flush();
+        int offset = buffer.size();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return offset;
+    }
+
+    /**
+     * Частоты и длины полей хранятся в двух байтах без знака.
+     */
+    private static int clamp(int value) {
+        return Math.min(value, 0xFFFF);
+    }
+
+    private record Posting(long id, int nameFrequency, int descriptionFrequency, int nameLength,
+                           int descriptionLength) {
+    }
+}
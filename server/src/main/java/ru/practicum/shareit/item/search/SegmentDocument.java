@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Сведения о вещи в сегменте индекса, нужные выдаче и сверке с базой: название, длины полей в термах,
+ * доступность и отпечаток содержимого (меняется при изменении названия, описания или доступности).
+ */
+record SegmentDocument(long id, String name, int nameLength, int descriptionLength, boolean available,
+                       long fingerprint) {
+}
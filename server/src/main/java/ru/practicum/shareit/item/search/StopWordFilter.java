@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Отбрасывает служебные слова. Слова хранятся в открытой хеш-таблице, поиск терма сравнивает символы буфера
+ * со словом таблицы и не создаёт строк. Ставится после нормализации, поэтому слова задаются в нижнем регистре
+ * и без «ё».
+ */
+final class StopWordFilter implements TokenFilter {
+    static final String[] RUSSIAN = {"а", "без", "бы", "в", "во", "вот", "все", "вы", "да", "для", "до", "его",
+            "ее", "еще", "же", "за", "и", "из", "или", "их", "к", "как", "ко", "ли", "на", "над", "не", "нет",
+            "но", "о", "об", "от", "по", "под", "при", "про", "с", "со", "так", "то", "у", "уже", "что", "это"};
+    static final String[] ENGLISH = {"a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "if",
+            "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their", "then",
+            "there", "these", "they", "this", "to", "was", "will", "with"};
+
+    private final String[] table;
+    private final int mask;
+
+    StopWordFilter(String[]... words) {
+        int count = 0;
+        for (String[] list : words) {
+            count += list.length;
+        }
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 4 - 1) << 1;
+        table = new String[capacity];
+        mask = capacity - 1;
+        for (String[] list : words) {
+            for (String word : list) {
+                int slot = word.hashCode() & mask;
+                while (table[slot] != null && !table[slot].equals(word)) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = word;
+            }
+        }
+    }
+
+    @Override
+    public boolean apply(TermBuffer term) {
+        int slot = term.hash() & mask;
+        while (table[slot] != null) {
+            if (term.contentEquals(table[slot])) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Изменяемый буфер текущего терма: токенизатор дописывает в него символы слова, фильтры меняют их на месте
+ * и укорачивают буфер, строка создаётся один раз — для терма, прошедшего всю цепочку.
+ */
+final class TermBuffer {
+    private char[] chars = new char[32];
+    private int length;
+
+    void clear() {
+        length = 0;
+    }
+
+    void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    int length() {
+        return length;
+    }
+
+    char charAt(int index) {
+        return chars[index];
+    }
+
+    void setCharAt(int index, char c) {
+        chars[index] = c;
+    }
+
+    /**
+     * Отбрасывает символы после первых length.
+     */
+    void truncate(int length) {
+        this.length = Math.min(this.length, length);
+    }
+
+    boolean endsWith(String suffix) {
+        int offset = length - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (chars[offset + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean contentEquals(String text) {
+        return text.length() == length && endsWith(text);
+    }
+
+    /**
+     * Тот же хеш, что у String.hashCode() от содержимого буфера.
+     */
+    int hash() {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Вхождения терма в сегменте: возрастающие id вещей, частоты терма в названии и описании
+ * и длины этих полей в термах — в параллельных массивах.
+ */
+record TermPostings(long[] ids, int[] nameFrequencies, int[] descriptionFrequencies, int[] nameLengths,
+                    int[] descriptionLengths) {
+    static final TermPostings EMPTY = new TermPostings(new long[0], new int[0], new int[0], new int[0], new int[0]);
+
+    int size() {
+        return ids.length;
+    }
+}
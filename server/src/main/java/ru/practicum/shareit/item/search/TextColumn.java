@@ -0,0 +1,204 @@
+package ru.practicum.shareit.item.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Столбец текстов вещей вне кучи для поиска по подстроке: тексты строк (название и описание в нижнем регистре
+ * в UTF-8, разделённые нулевым байтом) лежат подряд в одном direct-буфере, а id, название для сортировки,
+ * начало текста и отметка об удалении строки — в параллельных массивах в куче. Изменённая вещь дописывается
+ * новой строкой, прежняя отмечается удалённой; место возвращает compact().
+ * <p>
+ * Поиск идёт по диапазону строк сплошным проходом по байтам, по 8 байт за шаг (SWAR): в словах по адресам
+ * i и i + n - 1 одновременно ищутся первый и последний байт образца, и только на совпавших позициях
+ * образец сравнивается целиком. Совпадение, пересекающее границу строк, не засчитывается; после найденного
+ * совпадения проход продолжается со следующей строки. UTF-8 самосинхронизируется, поэтому совпадение
+ * байтов — это совпадение символов. Не потокобезопасен для записи; читать могут несколько потоков сразу.
+ */
+final class TextColumn {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final int[] NO_ROWS = new int[0];
+
+    private ByteBuffer data;
+    private int bytes;
+    private long[] ids;
+    private String[] names;
+    private int[] starts;
+    private long[] dead;
+    private int rows;
+    private int deadBytes;
+
+    TextColumn(int capacity) {
+        data = ByteBuffer.allocateDirect(Math.max(capacity, 64)).order(ByteOrder.LITTLE_ENDIAN);
+        ids = new long[16];
+        names = new String[16];
+        starts = new int[16];
+        dead = new long[1];
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int bytes() {
+        return bytes;
+    }
+
+    int deadBytes() {
+        return deadBytes;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    String name(int row) {
+        return names[row];
+    }
+
+    int start(int row) {
+        return row < rows ? starts[row] : bytes;
+    }
+
+    boolean isDead(int row) {
+        return (dead[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Дописывает строку и возвращает её номер.
+     */
+    int append(long id, String name, byte[] text) {
+        if (rows == ids.length) {
+            ids = Arrays.copyOf(ids, rows * 2);
+            names = Arrays.copyOf(names, rows * 2);
+            starts = Arrays.copyOf(starts, rows * 2);
+        }
+        if ((rows >>> 6) == dead.length) {
+            dead = Arrays.copyOf(dead, dead.length * 2);
+        }
+        if (bytes + text.length > data.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(data.capacity() * 2, bytes + text.length))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(0, data, 0, bytes);
+            data = grown;
+        }
+        data.put(bytes, text);
+        ids[rows] = id;
+        names[rows] = name;
+        starts[rows] = bytes;
+        bytes += text.length;
+        return rows++;
+    }
+
+    void kill(int row) {
+        if (!isDead(row)) {
+            dead[row >>> 6] |= 1L << row;
+            deadBytes += start(row + 1) - starts[row];
+        }
+    }
+
+    boolean textEquals(int row, byte[] text) {
+        if (start(row + 1) - starts[row] != text.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length; i++) {
+            if (data.get(starts[row] + i) != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Новый столбец только из живых строк, в прежнем порядке.
+     */
+    TextColumn compact() {
+        TextColumn compacted = new TextColumn(bytes - deadBytes);
+        byte[] text = new byte[0];
+        for (int row = 0; row < rows; row++) {
+            if (isDead(row)) {
+                continue;
+            }
+            int length = start(row + 1) - starts[row];
+            if (text.length < length) {
+                text = new byte[length];
+            }
+            data.get(starts[row], text, 0, length);
+            compacted.append(ids[row], names[row], length == text.length ? text : Arrays.copyOf(text, length));
+        }
+        return compacted;
+    }
+
+    /**
+     * Номера живых строк из [fromRow, toRow), текст которых содержит needle, по возрастанию.
+     */
+    int[] scan(byte[] needle, int fromRow, int toRow) {
+        int n = needle.length;
+        int end = start(toRow);
+        int i = start(fromRow);
+        if (n == 0 || end - i < n) {
+            return NO_ROWS;
+        }
+        long first = ONES * (needle[0] & 0xFF);
+        long last = ONES * (needle[n - 1] & 0xFF);
+        int[] matched = new int[16];
+        int count = 0;
+        int row = fromRow;
+        while (i + n + 7 <= end) {
+            long candidates = zeroBytes(data.getLong(i) ^ first) & zeroBytes(data.getLong(i + n - 1) ^ last);
+            int next = i + 8;
+            while (candidates != 0) {
+                int position = i + (Long.numberOfTrailingZeros(candidates) >>> 3);
+                candidates &= candidates - 1;
+                while (start(row + 1) <= position) {
+                    row++;
+                }
+                if (matches(needle, position, row)) {
+                    if (count == matched.length) {
+                        matched = Arrays.copyOf(matched, count * 2);
+                    }
+                    matched[count++] = row;
+                    next = start(row + 1);
+                    break;
+                }
+            }
+            i = next;
+        }
+        while (i + n <= end) {
+            while (start(row + 1) <= i) {
+                row++;
+            }
+            if (matches(needle, i, row)) {
+                if (count == matched.length) {
+                    matched = Arrays.copyOf(matched, count * 2);
+                }
+                matched[count++] = row;
+                i = start(row + 1);
+            } else {
+                i++;
+            }
+        }
+        return Arrays.copyOf(matched, count);
+    }
+
+    private boolean matches(byte[] needle, int position, int row) {
+        if (position + needle.length > start(row + 1) || isDead(row)) {
+            return false;
+        }
+        for (int j = 0; j < needle.length; j++) {
+            if (data.get(position + j) != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 0x80 в каждом нулевом байте x и 0 в остальных, без ложных срабатываний от переносов.
+     */
+    private static long zeroBytes(long x) {
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Звено цепочки анализатора: меняет терм в буфере на месте.
+ */
+interface TokenFilter {
+
+    /**
+     * Возвращает false, если терм нужно отбросить; следующие фильтры цепочки его тогда не видят.
+     */
+    boolean apply(TermBuffer term);
+}
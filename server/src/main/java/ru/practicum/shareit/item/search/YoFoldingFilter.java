@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Заменяет «ё» на «е»: в названиях вещей пишут и так, и так. Ставится после LowerCaseFilter.
+ */
+final class YoFoldingFilter implements TokenFilter {
+
+    @Override
+    public boolean apply(TermBuffer term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (term.charAt(i) == 'ё') {
+                term.setCharAt(i, 'е');
+            }
+        }
+        return true;
+    }
+}
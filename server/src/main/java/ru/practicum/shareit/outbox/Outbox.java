@@ -0,0 +1,67 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.AfterTransaction;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Запись доменных событий в таблицу outbox_events в той же транзакции, что и изменение данных.
+ * Доставкой подписчикам занимается OutboxRelay, которому после фиксации транзакции
+ * отправляется сигнал, чтобы не ждать очередного опроса.
+ */
+@Component
+public class Outbox {
+    public static final String BOOKING = "BOOKING";
+    public static final String ITEM = "ITEM";
+    public static final String COMMENT = "COMMENT";
+    public static final String ITEM_REQUEST = "ITEM_REQUEST";
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    private final OutboxEventRepository repository;
+    private final OutboxRelay relay;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public Outbox(OutboxEventRepository repository, OutboxRelay relay, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.relay = relay;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(String aggregateType, Long aggregateId, String eventType, Map<String, ?> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать событие " + aggregateType + "/" +
+                    eventType, e);
+        }
+        repository.save(new OutboxEvent(null, aggregateType, aggregateId, eventType, json, LocalDateTime.now()));
+        AfterTransaction.commit(relay::wakeUp);
+    }
+
+    /**
+     * Собирает содержимое события из пар «ключ, значение»; в отличие от Map.of допускает null
+     * и сохраняет порядок полей.
+     */
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        if (keysAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Ожидаются пары ключ-значение");
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<OutboxEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id <= :id")
+    int deleteUpTo(@Param("id") Long id);
+}
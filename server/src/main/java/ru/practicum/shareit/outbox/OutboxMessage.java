@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+public record OutboxMessage(Long id, String aggregateType, Long aggregateId, String eventType, String payload,
+                            LocalDateTime created) {
+    static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreated());
+    }
+}
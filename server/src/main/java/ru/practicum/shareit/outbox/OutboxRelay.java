@@ -0,0 +1,314 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая доставка событий из outbox_events подписчикам.
+ * Ретранслятор читает события пачками по возрастанию id и кладёт каждую пачку в ограниченную
+ * очередь каждого подписчика. Если подписчик не успевает, ретранслятор блокируется на его
+ * очереди и перестаёт читать таблицу — запись в outbox при этом не замедляется.
+ * <p>
+ * Идентификаторы выдаются до фиксации транзакций, поэтому событие с меньшим id может стать
+ * видимым позже события с большим. Ретранслятор не ждёт на пропуске в нумерации: он доставляет
+ * то, что видно, а пропущенные id запоминает и при каждом следующем опросе перечитывает
+ * (не больше batch-size самых старых за раз). Событие, зафиксированное позже, уходит подписчикам
+ * отдельной пачкой. Пропуск, не заполнившийся за gap-retention, считается откаченной транзакцией
+ * и забывается; одновременно помнится не больше max-gaps пропусков. Так же, как пропуски, при
+ * старте запоминаются batch-size id ниже первого увиденного события: их транзакции могли ещё
+ * не зафиксироваться. Строки удаляются, когда их обработали все подписчики, и только ниже самого
+ * старого незаполненного пропуска.
+ * <p>
+ * Если подписчик бросил исключение, его поток повторяет ту же пачку с экспоненциальной задержкой
+ * от retry-delay до max-retry-delay и не берёт следующую, пока эта не обработана. Пока пачка
+ * не обработана, её строки не удаляются, а заполненная очередь подписчика останавливает чтение.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository repository;
+    private final List<Worker> workers = new ArrayList<>();
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pollMillis;
+    private final long gapRetentionMillis;
+    private final int maxGaps;
+    private final long retryMillis;
+    private final long maxRetryMillis;
+    private final Semaphore signal = new Semaphore(0);
+    // Незаполненные пропуски: id → момент, когда пропуск замечен. Доступ только из потока ретранслятора.
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastId;
+    private boolean positioned;
+    private long purgedId;
+    private long dispatched;
+    private volatile Thread relayThread;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository repository, List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.queue-capacity:16}") int queueCapacity,
+                       @Value("${shareit.outbox.poll-interval-ms:1000}") long pollMillis,
+                       @Value("${shareit.outbox.gap-retention-ms:300000}") long gapRetentionMillis,
+                       @Value("${shareit.outbox.max-gaps:10000}") int maxGaps,
+                       @Value("${shareit.outbox.retry-delay-ms:1000}") long retryMillis,
+                       @Value("${shareit.outbox.max-retry-delay-ms:60000}") long maxRetryMillis) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.gapRetentionMillis = gapRetentionMillis;
+        this.maxGaps = maxGaps;
+        this.retryMillis = retryMillis;
+        this.maxRetryMillis = Math.max(retryMillis, maxRetryMillis);
+        for (OutboxSubscriber subscriber : subscribers) {
+            workers.add(new Worker(subscriber, new ArrayBlockingQueue<>(queueCapacity)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .ifPresent(event -> position(event.getId(), System.currentTimeMillis()));
+        startWorkers();
+        Thread thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        relayThread = thread;
+        thread.start();
+        log.info("Ретранслятор outbox запущен: подписчиков {}, начиная с id > {}", workers.size(), lastId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = relayThread;
+        relayThread = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        workers.forEach(worker -> {
+            if (worker.thread != null) {
+                worker.thread.interrupt();
+            }
+        });
+    }
+
+    void startWorkers() {
+        for (Worker worker : workers) {
+            Thread thread = new Thread(worker, "outbox-" + worker.subscriber.getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+            worker.thread = thread;
+        }
+    }
+
+    public void wakeUp() {
+        signal.release();
+    }
+
+    /**
+     * Перечитывает незаполненные пропуски, читает следующую пачку событий и раздаёт подписчикам всё
+     * найденное. Возвращает число отправленных событий.
+     */
+    int relayOnce() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        List<OutboxMessage> batch = new ArrayList<>();
+        recoverGaps(batch, now);
+        for (OutboxEvent event : repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize))) {
+            if (!positioned) {
+                position(event.getId(), now);
+            }
+            for (long id = Math.max(lastId + 1, event.getId() - maxGaps); id < event.getId(); id++) {
+                gap(id, now);
+            }
+            batch.add(OutboxMessage.of(event));
+            lastId = event.getId();
+        }
+        if (batch.isEmpty()) {
+            purge();
+            return 0;
+        }
+        Batch next = new Batch(++dispatched, batch, watermark());
+        for (Worker worker : workers) {
+            worker.queue.put(next);
+        }
+        purge();
+        return batch.size();
+    }
+
+    int gapCount() {
+        return gaps.size();
+    }
+
+    /**
+     * Забывает просроченные пропуски и добавляет в пачку события, появившиеся на месте самых старых из остальных.
+     */
+    private void recoverGaps(List<OutboxMessage> batch, long now) {
+        int expired = 0;
+        for (Iterator<Long> seen = gaps.values().iterator(); seen.hasNext(); ) {
+            if (now - seen.next() >= gapRetentionMillis) {
+                seen.remove();
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.warn("{} пропусков в нумерации outbox не заполнились за {} мс и считаются откаченными транзакциями",
+                    expired, gapRetentionMillis);
+        }
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<Long> window = new ArrayList<>(Math.min(gaps.size(), batchSize));
+        for (Long id : gaps.keySet()) {
+            if (window.size() == batchSize) {
+                break;
+            }
+            window.add(id);
+        }
+        for (OutboxEvent event : repository.findByIdInOrderByIdAsc(window)) {
+            gaps.remove(event.getId());
+            batch.add(OutboxMessage.of(event));
+        }
+    }
+
+    private void gap(long id, long now) {
+        if (gaps.size() == maxGaps) {
+            Map.Entry<Long, Long> oldest = gaps.pollFirstEntry();
+            log.warn("Слишком много пропусков в нумерации outbox, id {} больше не ожидается", oldest.getKey());
+        }
+        gaps.put(id, now);
+    }
+
+    /**
+     * Граница, до которой включительно все события уже отправлены: не выше самого старого пропуска.
+     */
+    private long watermark() {
+        return gaps.isEmpty() ? lastId : Math.min(lastId, gaps.firstKey() - 1);
+    }
+
+    /**
+     * Удаляет строки, обработанные всеми подписчиками. Подписчик, обработавший все отправленные пачки,
+     * не задерживает удаление: граница могла подняться без новой пачки, когда пропуск был забыт.
+     */
+    private void purge() {
+        long watermark = watermark();
+        long bound = workers.stream()
+                .mapToLong(worker -> worker.processedBatch == dispatched ? watermark : worker.processedId)
+                .min()
+                .orElse(watermark);
+        if (bound > purgedId) {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteUpTo(bound));
+            purgedId = bound;
+        }
+    }
+
+    /**
+     * Начинает чтение с первого увиденного события; batch-size id ниже него ожидаются как пропуски.
+     */
+    private void position(long firstId, long now) {
+        lastId = firstId - 1;
+        purgedId = 0;
+        positioned = true;
+        for (long id = Math.max(1, firstId - batchSize); id < firstId; id++) {
+            gap(id, now);
+        }
+        long watermark = watermark();
+        workers.forEach(worker -> worker.processedId = watermark);
+    }
+
+    private void run() {
+        while (relayThread == Thread.currentThread()) {
+            try {
+                if (relayOnce() < batchSize) {
+                    signal.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка при чтении outbox: {}", e.getMessage(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Пачка событий и граница, до которой после её обработки можно удалять строки.
+     */
+    private record Batch(long number, List<OutboxMessage> events, long watermark) {
+    }
+
+    private final class Worker implements Runnable {
+        private final OutboxSubscriber subscriber;
+        private final BlockingQueue<Batch> queue;
+        private volatile long processedId;
+        private volatile long processedBatch;
+        private Thread thread;
+
+        private Worker(OutboxSubscriber subscriber, BlockingQueue<Batch> queue) {
+            this.subscriber = subscriber;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Batch batch;
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    deliver(batch.events());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                processedId = batch.watermark();
+                processedBatch = batch.number();
+            }
+        }
+
+        private void deliver(List<OutboxMessage> batch) throws InterruptedException {
+            long delay = retryMillis;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    subscriber.handle(batch);
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Подписчик {} не обработал {} событий outbox (попытка {}), повтор через {} мс: {}",
+                            subscriber.getClass().getSimpleName(), batch.size(), attempt, delay, e.getMessage(), e);
+                }
+                TimeUnit.MILLISECONDS.sleep(delay);
+                delay = Math.min(delay * 2, maxRetryMillis);
+            }
+        }
+    }
+}
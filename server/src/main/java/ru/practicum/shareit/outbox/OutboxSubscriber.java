@@ -0,0 +1,12 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Каждый подписчик обрабатывается своим потоком и получает
+ * события пачками в порядке их записи. Доставка «хотя бы один раз»: после перезапуска
+ * необработанные события приходят повторно, поэтому обработка должна быть идемпотентной.
+ */
+public interface OutboxSubscriber {
+    void handle(List<OutboxMessage> events);
+}
@@ -4,8 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.time.LocalDateTime;
 
@@ -15,12 +17,15 @@ public class ItemRequestMapper {
     private UserMapper userMapper;
     private UserService userService;
     private ItemService itemService;
+    private LookupContext lookups;
 
     @Autowired
-    public ItemRequestMapper(UserMapper userMapper, UserService userService, ItemService itemService) {
+    public ItemRequestMapper(UserMapper userMapper, UserService userService, ItemService itemService,
+                             LookupContext lookupContext) {
         this.userMapper = userMapper;
         this.userService = userService;
         this.itemService = itemService;
+        this.lookups = lookupContext;
     }
 
     public ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
@@ -37,7 +42,7 @@ public class ItemRequestMapper {
         return new ItemRequest(
                 null,
                 itemRequestDto.getDescription(),
-                userService.findUserById(requestorId),
+                lookups.get(User.class, requestorId, userService::findUserById),
                 created
         );
     }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -7,6 +8,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.CheckConsistencyService;
 import ru.practicum.shareit.util.Pagination;
@@ -22,19 +24,28 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository repository;
     private final CheckConsistencyService checker;
     private final ItemRequestMapper mapper;
+    private final Outbox outbox;
 
     @Autowired
     public ItemRequestServiceImpl(ItemRequestRepository repository,
-                                  CheckConsistencyService checkConsistencyService, ItemRequestMapper mapper) {
+                                  CheckConsistencyService checkConsistencyService, ItemRequestMapper mapper,
+                                  Outbox outbox) {
         this.repository = repository;
         this.checker = checkConsistencyService;
         this.mapper = mapper;
+        this.outbox = outbox;
     }
 
     @Override
+    @Transactional
     public ItemRequestDto create(ItemRequestDto itemRequestDto, Long requestorId, LocalDateTime created) {
         ItemRequest itemRequest = mapper.toItemRequest(itemRequestDto, requestorId, created);
-        return mapper.toItemRequestDto(repository.save(itemRequest));
+        itemRequest = repository.save(itemRequest);
+        outbox.append(Outbox.ITEM_REQUEST, itemRequest.getId(), Outbox.CREATED, Outbox.payload(
+                "requestorId", requestorId,
+                "description", itemRequest.getDescription(),
+                "created", itemRequest.getCreated()));
+        return mapper.toItemRequestDto(itemRequest);
     }
 
     @Override
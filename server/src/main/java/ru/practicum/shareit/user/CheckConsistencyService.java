@@ -5,46 +5,74 @@ import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemOwnership;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.util.LookupContext;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CheckConsistencyService {
     private UserService userService;
     private ItemService itemService;
     private BookingService bookingService;
+    private ItemOwnership ownership;
+    private LookupContext lookups;
+    private UserExistenceCache existence;
 
     @Autowired
     public CheckConsistencyService(UserService userService, ItemService itemService,
-                                   BookingService bookingService) {
+                                   BookingService bookingService, ItemOwnership itemOwnership,
+                                   LookupContext lookupContext, UserExistenceCache userExistenceCache) {
         this.userService = userService;
         this.itemService = itemService;
         this.bookingService = bookingService;
+        this.ownership = itemOwnership;
+        this.lookups = lookupContext;
+        this.existence = userExistenceCache;
     }
 
     public boolean isUserExistsForStrictCheck(Long userId) {
-        userService.getUserByIdOrThrow(userId);
+        if (!existence.exists(userId)) {
+            throw new DataNotFoundException("Пользователь с id=" + userId + " не найден");
+        }
         return true;
     }
 
     public boolean isUserExistsForValidation(Long userId) {
-        userService.getUserByIdOrValidation(userId);
+        if (!existence.exists(userId)) {
+            throw new ValidationException("Пользователь с id=" + userId + " не найден");
+        }
         return true;
     }
 
     public boolean isAvailableItem(Long itemId) {
-        return itemService.findItemById(itemId).getAvailable();
+        return findItemById(itemId).getAvailable();
     }
 
     public boolean isItemOwner(Long itemId, Long userId) {
-        return itemService.getItemsByOwner(userId, 0, null).stream()
-                .anyMatch(i -> i.getId().equals(itemId));
+        return ownership.isOwner(itemId, userId);
     }
 
+    /**
+     * Пользователь по id; в пределах запроса загружается один раз (см. LookupContext).
+     */
     public User findUserById(Long userId) {
-        return userService.findUserById(userId);
+        return lookups.get(User.class, userId, userService::findUserById);
+    }
+
+    /**
+     * Вещь по id; в пределах запроса загружается один раз (см. LookupContext).
+     */
+    public Item findItemById(Long itemId) {
+        return lookups.get(Item.class, itemId, itemService::findItemById);
     }
 
     public BookingShortDto getLastBooking(Long itemId) {
@@ -55,6 +83,10 @@ public class CheckConsistencyService {
         return bookingService.getNextBooking(itemId);
     }
 
+    public Map<Long, ItemBookingsDto> getLastAndNextBookings(Collection<Long> itemIds) {
+        return bookingService.getLastAndNextBookings(itemIds);
+    }
+
     public Booking getBookingWithUserBookedItem(Long itemId, Long userId) {
         return bookingService.getBookingWithUserBookedItem(itemId, userId);
     }
@@ -62,4 +94,8 @@ public class CheckConsistencyService {
     public List<CommentDto> getCommentsByItemId(Long itemId) {
         return itemService.getCommentsByItemId(itemId);
     }
+
+    public Map<Long, List<CommentDto>> getCommentsByItemIds(Collection<Long> itemIds) {
+        return itemService.getCommentsByItemIds(itemIds);
+    }
 }
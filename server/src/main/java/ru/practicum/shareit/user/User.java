@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -21,7 +22,9 @@ public class User {
     private Long id;
     @NotBlank
     private String name;
+    // Email пишется только UserEmails (условные INSERT и UPDATE со сверкой уникальности), JPA его не обновляет.
     @Email
     @NotBlank
+    @Column(updatable = false)
     private String email;
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.AfterTransaction;
+import ru.practicum.shareit.util.CountingBloomFilter;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Запись email пользователей с проверкой уникальности без учёта регистра. Уникальность держит
+ * функциональный уникальный индекс по lower(email) (в H2 — по вычисляемому столбцу email_lower),
+ * а вставка и смена email — одиночные условные запросы: при занятом email они ничего не меняют
+ * и возвращают «конфликт», исключение из базы в обычном ходе не возникает.
+ * <p>
+ * Перед запросом email проверяется по считающему фильтру Блума из всех email в нижнем регистре
+ * (загружается при старте, обновляется после фиксации транзакций). Если фильтр отвечает «точно нет»,
+ * выполняется простой запрос без проверки на конфликт; если такой email всё же успели записать
+ * параллельно, нарушение индекса считается тем же конфликтом. До окончания загрузки фильтр не
+ * используется. Метрика shareit.user.email.filter с тегом result: new (проверка пропущена) и maybe.
+ */
+@Slf4j
+@Component
+public class UserEmails {
+    private static final String POSTGRESQL = "postgresql";
+    private static final String INSERT = "INSERT INTO users (name, email) VALUES (?, ?)";
+    private static final String INSERT_IF_FREE_POSTGRESQL = "INSERT INTO users (name, email) VALUES (?, ?) " +
+            "ON CONFLICT ((lower(email))) DO NOTHING";
+    private static final String INSERT_IF_FREE_H2 = "INSERT INTO users (name, email) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM users WHERE email_lower = ?)";
+    private static final String UPDATE = "UPDATE users SET email = ? WHERE id = ?";
+    private static final String UPDATE_IF_FREE_POSTGRESQL = "UPDATE users SET email = ? WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM users WHERE lower(email) = ? AND id <> ?)";
+    private static final String UPDATE_IF_FREE_H2 = "UPDATE users SET email = ? WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM users WHERE email_lower = ? AND id <> ?)";
+    private static final String SELECT_PAGE = "SELECT id, email FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final int WARM_UP_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgresql;
+    private final CountingBloomFilter filter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter filteredNew;
+    private final Counter filteredMaybe;
+    private volatile boolean ready;
+
+    @Autowired
+    public UserEmails(JdbcTemplate jdbcTemplate, MeterRegistry registry,
+                      @Value("${spring.sql.init.platform:all}") String platform,
+                      @Value("${shareit.user.email-filter.expected-insertions:100000}") int expectedInsertions,
+                      @Value("${shareit.user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgresql = POSTGRESQL.equals(platform);
+        this.filter = new CountingBloomFilter(expectedInsertions, falsePositiveRate);
+        this.filteredNew = registry.counter("shareit.user.email.filter", "result", "new");
+        this.filteredMaybe = registry.counter("shareit.user.email.filter", "result", "maybe");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long last = 0;
+        int loaded = 0;
+        List<String> page = new ArrayList<>(WARM_UP_BATCH);
+        do {
+            page.clear();
+            long[] maxId = {last};
+            jdbcTemplate.query(SELECT_PAGE, rs -> {
+                maxId[0] = rs.getLong("id");
+                page.add(normalize(rs.getString("email")));
+            }, last, WARM_UP_BATCH);
+            lock.writeLock().lock();
+            try {
+                page.forEach(filter::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            last = maxId[0];
+            loaded += page.size();
+        } while (page.size() == WARM_UP_BATCH);
+        ready = true;
+        log.info("Фильтр email пользователей загружен: {} адресов", loaded);
+    }
+
+    public static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Может ли email (без учёта регистра) уже принадлежать какому-то пользователю.
+     */
+    public boolean mightExist(String email) {
+        if (!ready) {
+            return true;
+        }
+        boolean maybe;
+        lock.readLock().lock();
+        try {
+            maybe = filter.mightContain(normalize(email));
+        } finally {
+            lock.readLock().unlock();
+        }
+        (maybe ? filteredMaybe : filteredNew).increment();
+        return maybe;
+    }
+
+    /**
+     * Создаёт пользователя и возвращает его id или null, если email занят.
+     */
+    public Long insert(String name, String email) {
+        String key = normalize(email);
+        boolean maybe = mightExist(email);
+        KeyHolder keys = new GeneratedKeyHolder();
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        !maybe ? INSERT : postgresql ? INSERT_IF_FREE_POSTGRESQL : INSERT_IF_FREE_H2,
+                        Statement.RETURN_GENERATED_KEYS);
+                statement.setString(1, name);
+                statement.setString(2, email);
+                if (maybe && !postgresql) {
+                    statement.setString(3, key);
+                }
+                return statement;
+            }, keys);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+        if (inserted == 0) {
+            return null;
+        }
+        AfterTransaction.commit(() -> add(key));
+        return id(keys);
+    }
+
+    /**
+     * Меняет email пользователя userId с previousEmail на email; false, если email занят другим пользователем.
+     */
+    public boolean changeEmail(Long userId, String previousEmail, String email) {
+        String key = normalize(email);
+        boolean maybe = mightExist(email);
+        int updated;
+        try {
+            updated = maybe
+                    ? jdbcTemplate.update(postgresql ? UPDATE_IF_FREE_POSTGRESQL : UPDATE_IF_FREE_H2,
+                    email, userId, key, userId)
+                    : jdbcTemplate.update(UPDATE, email, userId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        if (updated == 0) {
+            return false;
+        }
+        AfterTransaction.commit(() -> {
+            add(key);
+            remove(previousEmail);
+        });
+        return true;
+    }
+
+    /**
+     * Забывает email удалённого пользователя после фиксации транзакции.
+     */
+    public void deleted(String email) {
+        AfterTransaction.commit(() -> remove(email));
+    }
+
+    private void add(String key) {
+        lock.writeLock().lock();
+        try {
+            filter.add(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String email) {
+        lock.writeLock().lock();
+        try {
+            filter.remove(normalize(email));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Long id(KeyHolder keys) {
+        for (Map.Entry<String, Object> column : keys.getKeyList().get(0).entrySet()) {
+            if ("id".equalsIgnoreCase(column.getKey())) {
+                return ((Number) column.getValue()).longValue();
+            }
+        }
+        throw new IllegalStateException("База не вернула id созданного пользователя");
+    }
+}
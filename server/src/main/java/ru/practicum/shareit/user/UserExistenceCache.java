@@ -0,0 +1,128 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.AfterTransaction;
+import ru.practicum.shareit.util.FrequencySketch;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ближний кеш ответов «существует ли пользователь с таким id» для проверок CheckConsistencyService:
+ * хранит и положительные, и отрицательные ответы, не дольше ttl-ms каждый, и не больше maximum-size
+ * записей. Промах проверяется запросом существования без загрузки пользователя.
+ * <p>
+ * Вытеснение — LRU, допуск — TinyLFU: при заполненном кеше новый ответ попадает в кеш, только если его
+ * id запрашивали чаще, чем id вытесняемой записи (частоты оценивает FrequencySketch по всем обращениям,
+ * включая промахи). Так редкие и одноразовые id, например перебор несуществующих, не вымывают часто
+ * проверяемых пользователей.
+ * <p>
+ * UserServiceImpl после фиксации создания или удаления пользователя сбрасывает его запись (invalidate).
+ * Ответ, загруженный из базы до сброса, в кеш уже не попадает. Метрики: shareit.user.exists.cache.gets
+ * (тег result: hit, negative-hit, miss), shareit.user.exists.cache.hit.ratio,
+ * shareit.user.exists.cache.size, shareit.user.exists.cache.evictions и shareit.user.exists.cache.rejections.
+ */
+@Component
+public class UserExistenceCache {
+    private final UserRepository repository;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter rejections;
+    private long invalidations;
+
+    @Autowired
+    public UserExistenceCache(UserRepository userRepository, MeterRegistry registry,
+                              @Value("${shareit.user.exists-cache.maximum-size:10000}") int maximumSize,
+                              @Value("${shareit.user.exists-cache.ttl-ms:60000}") long ttlMillis) {
+        this.repository = userRepository;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.sketch = new FrequencySketch(maximumSize);
+        this.hits = registry.counter("shareit.user.exists.cache.gets", "result", "hit");
+        this.negativeHits = registry.counter("shareit.user.exists.cache.gets", "result", "negative-hit");
+        this.misses = registry.counter("shareit.user.exists.cache.gets", "result", "miss");
+        this.evictions = registry.counter("shareit.user.exists.cache.evictions");
+        this.rejections = registry.counter("shareit.user.exists.cache.rejections");
+        Gauge.builder("shareit.user.exists.cache.size", this, UserExistenceCache::size).register(registry);
+        Gauge.builder("shareit.user.exists.cache.hit.ratio", this, UserExistenceCache::hitRatio).register(registry);
+    }
+
+    public boolean exists(Long userId) {
+        long generation;
+        synchronized (this) {
+            sketch.increment(userId);
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                (entry.exists() ? hits : negativeHits).increment();
+                return entry.exists();
+            }
+            if (entry != null) {
+                entries.remove(userId);
+            }
+            generation = invalidations;
+        }
+        misses.increment();
+        boolean exists = repository.existsById(userId);
+        synchronized (this) {
+            if (generation == invalidations) {
+                admit(userId, new Entry(exists, System.nanoTime() + ttlNanos));
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Сбрасывает запись пользователя после фиксации транзакции (или сразу, если транзакции нет).
+     */
+    public void invalidate(Long userId) {
+        AfterTransaction.commit(() -> {
+            synchronized (this) {
+                invalidations++;
+                entries.remove(userId);
+            }
+        });
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double found = hits.count() + negativeHits.count();
+        double total = found + misses.count();
+        return total == 0 ? 0 : found / total;
+    }
+
+    private void admit(Long userId, Entry entry) {
+        if (entries.size() < maximumSize || entries.containsKey(userId)) {
+            entries.put(userId, entry);
+            return;
+        }
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        Map.Entry<Long, Entry> victim = eldest.next();
+        if (victim.getValue().expiresAt() - System.nanoTime() > 0
+                && sketch.frequency(userId) <= sketch.frequency(victim.getKey())) {
+            rejections.increment();
+            return;
+        }
+        eldest.remove();
+        evictions.increment();
+        entries.put(userId, entry);
+    }
+
+    private record Entry(boolean exists, long expiresAt) {
+    }
+}
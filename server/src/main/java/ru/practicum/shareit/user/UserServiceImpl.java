@@ -2,27 +2,36 @@ package ru.practicum.shareit.user;
 
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.DataAlreadyExistsException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.springframework.dao.DataIntegrityViolationException;
-
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final UserExistenceCache existence;
+    private final UserEmails emails;
+    private final ItemRepository itemRepository;
+    private final Outbox outbox;
 
     @Autowired
-    public UserServiceImpl(UserRepository repository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository repository, UserMapper userMapper,
+                           UserExistenceCache userExistenceCache, UserEmails userEmails,
+                           ItemRepository itemRepository, Outbox outbox) {
         this.repository = repository;
         this.mapper = userMapper;
+        this.existence = userExistenceCache;
+        this.emails = userEmails;
+        this.itemRepository = itemRepository;
+        this.outbox = outbox;
     }
 
     @Override
@@ -52,11 +61,19 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto create(UserDto userDto) {
-        try {
-            return mapper.toUserDto(repository.save(mapper.toUser(userDto)));
-        } catch (DataIntegrityViolationException e) {
+        User user = mapper.toUser(userDto);
+        // Пользователь записывается условным INSERT в обход JPA, поэтому и проверка полей здесь.
+        if (user.getName() == null || user.getName().isBlank() || user.getEmail() == null
+                || user.getEmail().isBlank()) {
+            throw new ValidationException("Имя и email пользователя должны быть заданы");
+        }
+        Long id = emails.insert(user.getName(), user.getEmail());
+        if (id == null) {
             throw new DataAlreadyExistsException("Пользователь с email=" + userDto.getEmail() + " уже существует");
         }
+        user.setId(id);
+        existence.invalidate(id);
+        return mapper.toUserDto(user);
     }
 
     @Override
@@ -70,16 +87,12 @@ public class UserServiceImpl implements UserService {
         if (userDto.getName() != null) {
             user.setName(userDto.getName());
         }
-        if ((userDto.getEmail() != null) && (userDto.getEmail() != user.getEmail())) {
-            if (repository.findByEmail(userDto.getEmail())
-                    .stream()
-                    .filter(u -> u.getEmail().equals(userDto.getEmail()))
-                    .allMatch(u -> u.getId().equals(userDto.getId()))) {
-                user.setEmail(userDto.getEmail());
-            } else {
+        if (userDto.getEmail() != null && !userDto.getEmail().equals(user.getEmail())) {
+            if (!emails.changeEmail(id, user.getEmail(), userDto.getEmail())) {
                 throw new DataAlreadyExistsException("Пользователь с email=" + userDto.getEmail() + " уже существует");
             }
-
+            // Столбец уже обновлён, сущности новое значение нужно только для ответа: save пишет одно имя.
+            user.setEmail(userDto.getEmail());
         }
         return mapper.toUserDto(repository.save(user));
     }
@@ -87,10 +100,16 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void delete(Long userId) {
-        try {
-            repository.deleteById(userId);
-        } catch (EmptyResultDataAccessException e) {
-            throw new DataNotFoundException("Пользователь с id=" + userId + " не найден");
+        User user = repository.findById(userId)
+                .orElseThrow(() -> new DataNotFoundException("Пользователь с id=" + userId + " не найден"));
+        // Вещи пользователя удаляются каскадно вместе с ним, поэтому их id читаются до удаления,
+        // а индексы вещей узнают об удалении из событий outbox, как при удалении отдельной вещи.
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userId);
+        repository.delete(user);
+        emails.deleted(user.getEmail());
+        existence.invalidate(userId);
+        for (Long itemId : itemIds) {
+            outbox.append(Outbox.ITEM, itemId, Outbox.DELETED, Outbox.payload("ownerId", userId));
         }
     }
 
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.util;
+
+/**
+ * Считающий фильтр Блума для строк: вместо битов 4-битные счётчики, по 16 в одном long, поэтому
+ * строки можно не только добавлять, но и удалять. mightContain может ошибочно ответить true (с долей
+ * ложных срабатываний около falsePositiveRate при expectedInsertions строках), но не ответит false
+ * для добавленной и не удалённой строки. Счётчик, дошедший до 15, больше не меняется, чтобы удаление
+ * не обнулило его под другими строками. Класс не потокобезопасен.
+ */
+public class CountingBloomFilter {
+    private static final int MAX_COUNT = 15;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final long[] table;
+    private final long counters;
+    private final int hashes;
+
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры фильтра Блума");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.table = new long[(int) Math.max(1, (bits + 15) / 16)];
+        this.counters = table.length * 16L;
+        this.hashes = Math.max(1, (int) Math.round((double) counters / expectedInsertions * ln2));
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long step = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            if (counter(position(hash, step, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        long step = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            long position = position(hash, step, i);
+            if (counter(position) < MAX_COUNT) {
+                table[(int) (position >>> 4)] += 1L << offset(position);
+            }
+        }
+    }
+
+    /**
+     * Удаляет строку, добавленную раньше; строку, которой в фильтре точно нет, пропускает.
+     */
+    public void remove(String key) {
+        if (!mightContain(key)) {
+            return;
+        }
+        long hash = hash(key);
+        long step = mix(hash);
+        for (int i = 0; i < hashes; i++) {
+            long position = position(hash, step, i);
+            if (counter(position) < MAX_COUNT) {
+                table[(int) (position >>> 4)] -= 1L << offset(position);
+            }
+        }
+    }
+
+    private int counter(long position) {
+        return (int) (table[(int) (position >>> 4)] >>> offset(position)) & MAX_COUNT;
+    }
+
+    private long position(long hash, long step, int i) {
+        return Math.floorMod(hash + i * (step | 1), counters);
+    }
+
+    private static int offset(long position) {
+        return (int) (position & 15) << 2;
+    }
+
+    private static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.util;
+
+/**
+ * Приблизительный счётчик частот обращений к ключам long для допуска в кеш по схеме TinyLFU:
+ * Count-Min Sketch из 4-битных счётчиков, по 16 в одном long. Ключ учитывается в четырёх счётчиках,
+ * частота ключа — минимум из них, поэтому она бывает завышена, но не занижена. Когда число
+ * учтённых обращений достигает 10 × maximumSize, все счётчики делятся пополам, и старая популярность
+ * постепенно забывается. Класс не потокобезопасен.
+ */
+public class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(maximumSize, 16) * 2 - 1);
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.sampleSize = Math.max(maximumSize, 16) * 10;
+    }
+
+    /**
+     * Оценка числа обращений к ключу, от 0 до 15.
+     */
+    public int frequency(long key) {
+        long hash = mix(key);
+        long offsets = mix(hash);
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            frequency = Math.min(frequency, counter(index(hash, i), offset(offsets, i)));
+        }
+        return frequency;
+    }
+
+    public void increment(long key) {
+        long hash = mix(key);
+        long offsets = mix(hash);
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = index(hash, i);
+            int offset = offset(offsets, i);
+            if (counter(index, offset) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int counter(int index, int offset) {
+        return (int) (table[index] >>> offset) & MAX_COUNT;
+    }
+
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return (h1 + i * h2) & mask;
+    }
+
+    private static int offset(long offsets, int i) {
+        return (int) ((offsets >>> (i * 4)) & 15) << 2;
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
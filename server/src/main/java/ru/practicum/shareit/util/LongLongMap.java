@@ -0,0 +1,166 @@
+package ru.practicum.shareit.util;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица long → long с открытой адресацией и линейным пробированием на двух массивах примитивов:
+ * ни ключи, ни значения не упаковываются, узлов нет, поиск не создаёт объектов. Таблица заполняется
+ * не больше чем наполовину и удваивается при росте; удаление сдвигает следующие записи цепочки назад,
+ * поэтому отметок об удалении нет. Ключ 0 служит признаком пустой ячейки и хранится отдельно.
+ * Класс не потокобезопасен.
+ */
+public class LongLongMap {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Значение по ключу или missing, если ключа нет.
+     */
+    public long get(long key, long missing) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return missing;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Удаляет ключ; возвращает false, если его не было.
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            return had;
+        }
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Сдвиг назад: запись переносится в освободившуюся ячейку, если та лежит между её домашней ячейкой и ею.
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Удаляет все записи с данным значением и возвращает их число.
+     */
+    public int removeValue(long value) {
+        long[] matched = new long[16];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && values[slot] == value) {
+                if (count == matched.length) {
+                    matched = Arrays.copyOf(matched, count * 2);
+                }
+                matched[count++] = keys[slot];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(matched[i]);
+        }
+        if (hasZeroKey && zeroValue == value) {
+            hasZeroKey = false;
+            count++;
+        }
+        return count;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Карта идентичности на время одного HTTP-запроса: сущность, загруженная по id через get, в пределах
+ * запроса больше не загружается, а возвращается тот же экземпляр. Так проверки CheckConsistencyService
+ * и мапперы, которым нужны одни и те же пользователь и вещь, обращаются к базе один раз.
+ * <p>
+ * Область открывает LookupContextFilter для каждого запроса; вне запроса get просто вызывает загрузчик.
+ * Работа, которую запрос передаёт другому потоку и дожидается (например, приём бронирования),
+ * оборачивается в bind, чтобы видеть ту же область. Метрики: shareit.lookup.loads (загрузки)
+ * и shareit.lookup.saved (загрузки, которых удалось избежать) с тегом entity.
+ */
+@Component
+public class LookupContext {
+    private final ThreadLocal<Map<Key, Object>> scope = new ThreadLocal<>();
+    private final MeterRegistry registry;
+
+    @Autowired
+    public LookupContext(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Сущность type с данным id из области запроса или, если её там нет, из loader.
+     * Исключение загрузчика пробрасывается, в область ничего не попадает.
+     */
+    public <T> T get(Class<T> type, Long id, Function<Long, ? extends T> loader) {
+        Map<Key, Object> entities = scope.get();
+        if (entities == null) {
+            return loader.apply(id);
+        }
+        Key key = new Key(type, id);
+        Object cached = entities.get(key);
+        if (cached != null) {
+            registry.counter("shareit.lookup.saved", "entity", type.getSimpleName()).increment();
+            return type.cast(cached);
+        }
+        T loaded = loader.apply(id);
+        registry.counter("shareit.lookup.loads", "entity", type.getSimpleName()).increment();
+        if (loaded != null) {
+            entities.putIfAbsent(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Открывает область на текущем потоке; если она уже открыта, возвращённый Scope ничего не закрывает.
+     */
+    public Scope open() {
+        if (scope.get() != null) {
+            return () -> {
+            };
+        }
+        scope.set(new ConcurrentHashMap<>());
+        return scope::remove;
+    }
+
+    /**
+     * Задача, которая на любом потоке выполняется в области, открытой сейчас на текущем.
+     */
+    public <T> Supplier<T> bind(Supplier<T> task) {
+        Map<Key, Object> captured = scope.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Map<Key, Object> previous = scope.get();
+            scope.set(captured);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    scope.remove();
+                } else {
+                    scope.set(previous);
+                }
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Key(Class<?> type, Long id) {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Открывает область LookupContext на время обработки каждого запроса.
+ */
+@Component
+public class LookupContextFilter extends OncePerRequestFilter {
+    private final LookupContext lookups;
+
+    @Autowired
+    public LookupContextFilter(LookupContext lookupContext) {
+        this.lookups = lookupContext;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (LookupContext.Scope ignored = lookups.open()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. Уровень 0 хранит задачи ближайших 64 тиков, каждый следующий
+ * уровень — в 64 раза более длинный горизонт. Когда младший уровень проходит полный оборот,
+ * слот старшего уровня «осыпается» на нижние уровни. Задачи за пределами всех уровней
+ * лежат в списке переполнения и перераспределяются при обороте старшего уровня.
+ * Добавление задачи и срабатывание тика выполняются за O(1) на задачу.
+ * Класс не потокобезопасен.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<Entry<T>>> slots;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels <= 0 || levels * SLOT_BITS >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Некорректные параметры колеса таймеров");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.slots = new ArrayList<>(levels * SLOTS);
+        for (int i = 0; i < levels * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Планирует задачу на момент deadlineMillis.
+     * Возвращает false, если момент уже наступил: такую задачу вызывающий выполняет сам.
+     */
+    public boolean schedule(long deadlineMillis, T task) {
+        long tick = Math.floorDiv(deadlineMillis, tickMillis);
+        if (tick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(tick, task));
+        size++;
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до момента nowMillis и передаёт в sink все наступившие задачи
+     * в порядке их тиков.
+     */
+    public void advanceTo(long nowMillis, Consumer<T> sink) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target;
+                return;
+            }
+            currentTick++;
+            cascade();
+            List<Entry<T>> due = slot(0, (int) (currentTick & MASK));
+            if (!due.isEmpty()) {
+                List<Entry<T>> fired = new ArrayList<>(due);
+                due.clear();
+                size -= fired.size();
+                fired.forEach(entry -> sink.accept(entry.task()));
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade() {
+        int top = 0;
+        while (top < levels && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        if (top == levels && !overflow.isEmpty()) {
+            List<Entry<T>> pending = new ArrayList<>(overflow);
+            overflow.clear();
+            pending.forEach(this::place);
+        }
+        for (int level = Math.min(top, levels - 1); level >= 1; level--) {
+            List<Entry<T>> bucket = slot(level, (int) ((currentTick >> (SLOT_BITS * level)) & MASK));
+            if (!bucket.isEmpty()) {
+                List<Entry<T>> pending = new ArrayList<>(bucket);
+                bucket.clear();
+                pending.forEach(this::place);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.tick() - currentTick;
+        if (delta <= 0) {
+            slot(0, (int) (currentTick & MASK)).add(entry);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                slot(level, (int) ((entry.tick() >> (SLOT_BITS * level)) & MASK)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private List<Entry<T>> slot(int level, int index) {
+        return slots.get(level * SLOTS + index);
+    }
+
+    private record Entry<T>(long tick, T task) {
+    }
+}
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR (25),
+    archived TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT PK_BOOKING_ARCHIVE PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_END ON bookings_archive (end_date);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_BOOKER_START ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_ITEM_START ON bookings_archive (item_id, start_date DESC, id DESC);
+
+CREATE OR REPLACE VIEW booking_history AS
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings
+    UNION ALL
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings_archive;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_lower VARCHAR(512) GENERATED ALWAYS AS (LOWER(email));
+
+CREATE UNIQUE INDEX IF NOT EXISTS UQ_USER_EMAIL_LOWER ON users (email_lower);
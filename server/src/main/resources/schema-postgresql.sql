@@ -0,0 +1,30 @@
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR (25),
+    archived TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT PK_BOOKING_ARCHIVE PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+
+CREATE TABLE IF NOT EXISTS bookings_archive_default PARTITION OF bookings_archive DEFAULT;
+
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_ID ON bookings_archive (id);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_BOOKER_START ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ARCHIVE_ITEM_START ON bookings_archive (item_id, start_date DESC, id DESC);
+
+CREATE OR REPLACE VIEW booking_history AS
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings
+    UNION ALL
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings_archive;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS IX_ITEMS_SEARCH ON items USING GIN (search_vector);
+
+CREATE UNIQUE INDEX IF NOT EXISTS UQ_USER_EMAIL_LOWER ON users (lower(email));
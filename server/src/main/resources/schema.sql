@@ -1,3 +1,7 @@
+DROP VIEW IF EXISTS booking_history;
+DROP TABLE IF EXISTS bookings_archive CASCADE;
+DROP TABLE IF EXISTS booking_counters CASCADE;
+DROP TABLE IF EXISTS outbox_events CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS items CASCADE;
@@ -8,8 +12,7 @@ CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
-    CONSTRAINT PK_USER PRIMARY KEY (id),
-    CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+    CONSTRAINT PK_USER PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS items (
@@ -30,6 +33,8 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR (25),
+    version BIGINT NOT NULL DEFAULT 0,
+    phase VARCHAR (10) NOT NULL DEFAULT 'FUTURE',
     CONSTRAINT PK_BOOKING PRIMARY KEY (id),
     CONSTRAINT FK_BOOKING_FOR_BOOKER FOREIGN KEY (booker_id) REFERENCES users (id),
     CONSTRAINT FK_BOOKING_FOR_ITEM FOREIGN KEY (item_id) REFERENCES items (id)
@@ -53,4 +58,34 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT PK_COMMENTS PRIMARY KEY (id),
     CONSTRAINT FK_COMMENT_FOR_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT FK_COMMENT_FOR_USER FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS booking_counters (
+    user_id BIGINT NOT NULL,
+    role VARCHAR (10) NOT NULL,
+    all_count BIGINT NOT NULL DEFAULT 0,
+    current_count BIGINT NOT NULL DEFAULT 0,
+    past_count BIGINT NOT NULL DEFAULT 0,
+    future_count BIGINT NOT NULL DEFAULT 0,
+    waiting_count BIGINT NOT NULL DEFAULT 0,
+    approved_count BIGINT NOT NULL DEFAULT 0,
+    rejected_count BIGINT NOT NULL DEFAULT 0,
+    canceled_count BIGINT NOT NULL DEFAULT 0,
+    expired_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT PK_BOOKING_COUNTERS PRIMARY KEY (user_id, role)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload VARCHAR(4096),
+    created TIMESTAMP NOT NULL,
+    CONSTRAINT PK_OUTBOX_EVENTS PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS IX_ITEM_OWNER ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_BOOKER_START ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_START ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_END ON bookings (end_date);
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class BookingAdmissionTest {
+    private BookingAdmission admission;
+
+    @AfterEach
+    void tearDown() {
+        admission.stop();
+    }
+
+    @Test
+    void submit_ShouldRunCommandsForSameItemOneAtATime() throws Exception {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 4, 100, 10000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(callers.submit(() -> admission.submit(1L, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                return Thread.currentThread().getName();
+            })));
+        }
+        String stripeThread = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<String> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(stripeThread);
+        }
+        callers.shutdown();
+
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(stripeThread).isEqualTo("booking-admission-" + admission.stripe(1L));
+    }
+
+    @Test
+    void submit_ShouldRunCommandsForItemsOnDifferentStripesInParallel() throws Exception {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 2, 100, 10000);
+        long first = 1L;
+        long second = 2L;
+        while (admission.stripe(second) == admission.stripe(first)) {
+            second++;
+        }
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        long other = second;
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Future<Boolean> a = callers.submit(() -> admission.submit(first, () -> meet(bothStarted)));
+        Future<Boolean> b = callers.submit(() -> admission.submit(other, () -> meet(bothStarted)));
+
+        assertThat(a.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(b.get(10, TimeUnit.SECONDS)).isTrue();
+        callers.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRethrowCommandException() {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 2, 100, 10000);
+
+        assertThatThrownBy(() -> admission.submit(1L, () -> {
+            throw new ValidationException("Вещь уже забронирована");
+        })).isInstanceOf(ValidationException.class).hasMessage("Вещь уже забронирована");
+    }
+
+    @Test
+    void submit_ShouldThrow_WhenResultIsLateOrStripeQueueIsFull() throws InterruptedException {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 1, 1, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        caller.submit(() -> admission.submit(1L, () -> {
+            started.countDown();
+            return await(release);
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Команда ждёт в очереди дольше timeout-ms: вызывающему отказ, место в очереди остаётся занятым.
+        assertThatThrownBy(() -> admission.submit(1L, () -> true))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("не обработан вовремя");
+        assertThatThrownBy(() -> admission.submit(1L, () -> true))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("Слишком много");
+        release.countDown();
+        caller.shutdown();
+    }
+
+    @Test
+    void submit_ShouldWaitForStartedCommand_WhenItOutlivesTimeout() {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 1, 10, 50);
+        AtomicInteger executed = new AtomicInteger();
+
+        Long result = admission.submit(1L, () -> {
+            sleep(300);
+            executed.incrementAndGet();
+            return 42L;
+        });
+
+        assertThat(result).isEqualTo(42L);
+        assertThat(executed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_ShouldNeverRunQueuedCommand_AfterCallerGaveUp() throws InterruptedException {
+        admission = new BookingAdmission(mock(PlatformTransactionManager.class), 1, 10, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger late = new AtomicInteger();
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        caller.submit(() -> admission.submit(1L, () -> {
+            started.countDown();
+            return await(release);
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> admission.submit(1L, late::incrementAndGet))
+                .isInstanceOf(ServiceUnavailableException.class);
+        release.countDown();
+        assertThat(admission.submit(1L, () -> true)).isTrue();
+
+        assertThat(late.get()).isZero();
+        caller.shutdown();
+    }
+
+    private static boolean meet(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class BookingArchiverPartitionsTest {
+    private static final String CREATE_JUNE = "CREATE TABLE IF NOT EXISTS bookings_archive_2030_06";
+    private static final LocalDateTime JUNE = LocalDateTime.of(2030, 6, 1, 0, 0);
+    private static final LocalDateTime JULY = LocalDateTime.of(2030, 7, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private BookingArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        archiver = new BookingArchiver(jdbcTemplate, mock(PlatformTransactionManager.class), "postgresql",
+                30, 500, 600000);
+    }
+
+    @Test
+    void preparePartitions_ShouldCreateCurrentAndNextMonth_Once() {
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 15, 12, 0));
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 20, 12, 0));
+
+        verify(jdbcTemplate).execute(startsWith(CREATE_JUNE));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS bookings_archive_2030_07"));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void preparePartitions_ShouldMoveRowsOutOfDefaultPartition_WhenPostgresRejectsNewPartition() {
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition " +
+                "\"bookings_archive_default\" would be violated by some row"))
+                .doNothing()
+                .when(jdbcTemplate).execute(startsWith(CREATE_JUNE));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(JUNE), eq(JULY))).thenReturn(true);
+
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 15, 12, 0));
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 20, 12, 0));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(startsWith(CREATE_JUNE));
+        order.verify(jdbcTemplate).execute(startsWith("ALTER TABLE bookings_archive DETACH PARTITION"));
+        order.verify(jdbcTemplate).execute(startsWith(CREATE_JUNE));
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO bookings_archive "), eq(JUNE), eq(JULY));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM bookings_archive_default"), eq(JUNE), eq(JULY));
+        order.verify(jdbcTemplate).execute(startsWith("ALTER TABLE bookings_archive ATTACH PARTITION"));
+        verify(jdbcTemplate, times(2)).execute(startsWith(CREATE_JUNE));
+    }
+
+    @Test
+    void preparePartitions_ShouldRetryMonth_WhenPartitionWasNotCreated() {
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition"))
+                .when(jdbcTemplate).execute(startsWith(CREATE_JUNE));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(false);
+
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 15, 12, 0));
+        archiver.preparePartitions(LocalDateTime.of(2030, 6, 20, 12, 0));
+
+        verify(jdbcTemplate, times(2)).execute(startsWith(CREATE_JUNE));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+}
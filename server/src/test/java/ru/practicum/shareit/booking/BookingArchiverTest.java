@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "shareit.booking.archive.batch-size=2")
+@Import(BookingArchiver.class)
+class BookingArchiverTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingArchiver archiver;
+
+    @Autowired
+    private BookingRepository repository;
+
+    @Autowired
+    private BookingHistoryRepository history;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2030, 6, 1, 12, 0);
+        User owner = em.persist(new User(null, "Owner", "owner@example.com"));
+        booker = em.persist(new User(null, "Booker", "booker@example.com"));
+        item = em.persist(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @Test
+    void archive_ShouldMoveOnlyBookingsFinishedBeforeRetention_InBatches() {
+        Booking oldest = book(now.minusDays(90), now.minusDays(89), Status.APPROVED);
+        Booking old = book(now.minusDays(70), now.minusDays(69), Status.REJECTED);
+        Booking older = book(now.minusDays(80), now.minusDays(79), Status.CANCELED);
+        Booking recent = book(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        Booking future = book(now.plusDays(1), now.plusDays(2), Status.WAITING);
+        em.flush();
+
+        int moved = archiver.archive(now);
+        em.clear();
+
+        assertThat(moved).isEqualTo(3);
+        assertThat(repository.findAll()).extracting(Booking::getId)
+                .containsExactlyInAnyOrder(recent.getId(), future.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM bookings_archive ORDER BY end_date", Long.class))
+                .containsExactly(oldest.getId(), older.getId(), old.getId());
+        assertThat(archiver.archive(now)).isZero();
+    }
+
+    @Test
+    void history_ShouldIncludeArchivedBookings() {
+        Booking archived = book(now.minusDays(90), now.minusDays(89), Status.APPROVED);
+        Booking recent = book(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        em.flush();
+        archiver.archive(now);
+        em.clear();
+
+        List<BookingRecord> past = history.findByBookerIdAndEndIsBefore(booker.getId(), now,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"))).getContent();
+
+        assertThat(past).extracting(BookingRecord::getId).containsExactly(recent.getId(), archived.getId());
+        assertThat(history.findById(archived.getId())).get()
+                .extracting(record -> record.getItem().getOwner().getName()).isEqualTo("Owner");
+        assertThat(history.existsById(archived.getId())).isTrue();
+        assertThat(repository.findById(archived.getId())).isEmpty();
+        assertThat(history.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(item.getId(), booker.getId(),
+                now.minusDays(30), Status.APPROVED).getId()).isEqualTo(archived.getId());
+        assertThat(repository.findLastAndNextByItemIds(List.of(item.getId()), now.minusDays(30)))
+                .filteredOn(edge -> BookingEdge.LAST.equals(edge.getKind()))
+                .extracting(BookingEdge::getId).containsExactly(archived.getId());
+    }
+
+    private Booking book(LocalDateTime start, LocalDateTime end, Status status) {
+        return em.persist(new Booking(null, start, end, item, booker, status));
+    }
+}
@@ -12,8 +12,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +35,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private LookupContext lookupContext;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -117,4 +123,51 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(sampleBookingDto.getId()));
     }
+
+    @Test
+    void getBookings_ShouldReturnNextCursor_WhenPageIsFull() throws Exception {
+        Mockito.when(bookingService.getBookingsAfter(eq("ALL"), eq(1L), eq(""), eq(1)))
+                .thenReturn(List.of(sampleBookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "ALL")
+                        .param("size", "1")
+                        .param("after", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor",
+                        BookingCursor.encode(sampleBookingDto.getStart(), sampleBookingDto.getId())));
+    }
+
+    @Test
+    void getBookingsOwner_ShouldOmitNextCursor_WhenLastPage() throws Exception {
+        Mockito.when(bookingService.getBookingsOwnerAfter(eq("ALL"), eq(1L), eq("abc"), eq(5)))
+                .thenReturn(List.of(sampleBookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "ALL")
+                        .param("size", "5")
+                        .param("after", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void updateBatch_ShouldReturnResults() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+        Mockito.when(bookingService.updateBatch(eq(1L), anyList()))
+                .thenReturn(List.of(new BookingDecisionResultDto(1L, true, Status.APPROVED, null),
+                        new BookingDecisionResultDto(2L, false, Status.APPROVED, "Решение по бронированию уже принято")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].updated").value(true))
+                .andExpect(jsonPath("$[1].updated").value(false))
+                .andExpect(jsonPath("$[1].error").value("Решение по бронированию уже принято"));
+    }
 }
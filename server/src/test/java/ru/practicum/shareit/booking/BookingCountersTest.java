@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(BookingCounters.class)
+class BookingCountersTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingCounters counters;
+
+    private LocalDateTime now;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        owner = em.persist(new User(null, "Owner", "owner@example.com"));
+        booker = em.persist(new User(null, "Booker", "booker@example.com"));
+        item = em.persist(new Item(null, "Drill", "Cordless drill", true, owner, null));
+    }
+
+    @Test
+    void get_ShouldReturnZeros_WhenUserHasNoBookings() {
+        assertThat(counters.get(booker.getId(), BookingCounters.Role.BOOKER)).isEqualTo(new BookingSummaryDto());
+    }
+
+    @Test
+    void onCreated_ShouldCountByPhaseAndStatus_ForBookerAndOwner() {
+        create(now.plusDays(1), now.plusDays(2), Status.WAITING);
+        create(now.minusDays(1), now.plusDays(1), Status.APPROVED);
+        create(now.minusDays(3), now.minusDays(2), Status.APPROVED);
+
+        BookingSummaryDto expected = new BookingSummaryDto(3, 1, 1, 1, 1, 2, 0, 0, 0);
+        assertThat(counters.get(booker.getId(), BookingCounters.Role.BOOKER)).isEqualTo(expected);
+        assertThat(counters.get(owner.getId(), BookingCounters.Role.OWNER)).isEqualTo(expected);
+        assertThat(counters.get(owner.getId(), BookingCounters.Role.BOOKER)).isEqualTo(new BookingSummaryDto());
+    }
+
+    @Test
+    void onStatusChanged_ShouldMoveBetweenStatusCounters() {
+        create(now.plusDays(1), now.plusDays(2), Status.WAITING);
+
+        counters.onStatusChanged(booker.getId(), owner.getId(), Status.WAITING, Status.REJECTED);
+
+        assertThat(counters.get(booker.getId(), BookingCounters.Role.BOOKER))
+                .isEqualTo(new BookingSummaryDto(1, 0, 0, 1, 0, 0, 1, 0, 0));
+    }
+
+    @Test
+    void onBookingLifecycle_ShouldShiftPhaseOnlyOnce() {
+        Booking booking = create(now.plusDays(1), now.plusDays(2), Status.APPROVED);
+
+        counters.onBookingLifecycle(event(BookingLifecycleEvent.Type.STARTED, booking));
+        counters.onBookingLifecycle(event(BookingLifecycleEvent.Type.STARTED, booking));
+        assertThat(counters.get(booker.getId(), BookingCounters.Role.BOOKER))
+                .isEqualTo(new BookingSummaryDto(1, 1, 0, 0, 0, 1, 0, 0, 0));
+
+        counters.onBookingLifecycle(event(BookingLifecycleEvent.Type.ENDED, booking));
+        counters.onBookingLifecycle(event(BookingLifecycleEvent.Type.ENDED, booking));
+        assertThat(counters.get(owner.getId(), BookingCounters.Role.OWNER))
+                .isEqualTo(new BookingSummaryDto(1, 0, 1, 0, 0, 1, 0, 0, 0));
+    }
+
+    @Test
+    void rebuild_ShouldMatchIncrementalCounters() {
+        create(now.plusDays(1), now.plusDays(2), Status.WAITING);
+        create(now.minusDays(1), now.plusDays(1), Status.APPROVED);
+        Booking ended = create(now.minusDays(3), now.minusDays(2), Status.WAITING);
+        counters.onStatusChanged(booker.getId(), owner.getId(), Status.WAITING, Status.EXPIRED);
+        BookingSummaryDto incremental = counters.get(booker.getId(), BookingCounters.Role.BOOKER);
+        ended.setStatus(Status.EXPIRED);
+        em.flush();
+
+        counters.rebuild(now);
+
+        assertThat(counters.get(booker.getId(), BookingCounters.Role.BOOKER)).isEqualTo(incremental)
+                .isEqualTo(new BookingSummaryDto(3, 1, 1, 1, 1, 1, 0, 0, 1));
+        assertThat(counters.get(owner.getId(), BookingCounters.Role.OWNER)).isEqualTo(incremental);
+    }
+
+    private Booking create(LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = em.persistAndFlush(new Booking(null, start, end, item, booker, status));
+        counters.onCreated(booking);
+        return booking;
+    }
+
+    private BookingLifecycleEvent event(BookingLifecycleEvent.Type type, Booking booking) {
+        return new BookingLifecycleEvent(type, booking.getId(), item.getId(), booker.getId(), owner.getId(), now);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedPosition() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 2, 3, 4, 5);
+
+        BookingCursor cursor = BookingCursor.decode(BookingCursor.encode(start, 42L));
+
+        assertThat(cursor.getStart()).isEqualTo(start);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void decode_ShouldReturnFirst_WhenTokenIsEmpty() {
+        assertThat(BookingCursor.decode(null)).isSameAs(BookingCursor.FIRST);
+        assertThat(BookingCursor.decode("")).isSameAs(BookingCursor.FIRST);
+    }
+
+    @Test
+    void decode_ShouldThrow_WhenTokenIsMalformed() {
+        assertThatThrownBy(() -> BookingCursor.decode("not-a-cursor"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Некорректный курсор");
+    }
+}
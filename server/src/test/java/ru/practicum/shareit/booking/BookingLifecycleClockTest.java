@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingLifecycleClockTest {
+
+    private BookingRepository repository;
+    private ApplicationEventPublisher publisher;
+    private Outbox outbox;
+    private BookingCounters counters;
+    private BookingLifecycleClock clock;
+    private Item item;
+    private User booker;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BookingRepository.class);
+        publisher = mock(ApplicationEventPublisher.class);
+        outbox = mock(Outbox.class);
+        counters = mock(BookingCounters.class);
+        clock = new BookingLifecycleClock(repository, publisher, outbox, counters,
+                mock(PlatformTransactionManager.class), false);
+        item = new Item(1L, "Дрель", "Мощная дрель", true, new User(2L, "Owner", "owner@example.com"), null);
+        booker = new User(3L, "Booker", "booker@example.com");
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+    }
+
+    private Booking booking(long id, int startSeconds, int endSeconds, Status status) {
+        return new Booking(id, now.plusSeconds(startSeconds), now.plusSeconds(endSeconds), item, booker, status);
+    }
+
+    private List<BookingLifecycleEvent> publishedEvents(int times) {
+        ArgumentCaptor<BookingLifecycleEvent> captor = ArgumentCaptor.forClass(BookingLifecycleEvent.class);
+        verify(publisher, times(times)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void advance_ShouldPublishStartAndEnd_ForApprovedBooking() {
+        clock.track(booking(1L, 10, 100, Status.APPROVED));
+
+        clock.advance(now.plusSeconds(9));
+        verifyNoInteractions(publisher);
+
+        clock.advance(now.plusSeconds(10));
+        clock.advance(now.plusSeconds(100));
+
+        List<BookingLifecycleEvent> events = publishedEvents(2);
+        assertThat(events).extracting(BookingLifecycleEvent::getType)
+                .containsExactly(BookingLifecycleEvent.Type.STARTED, BookingLifecycleEvent.Type.ENDED);
+        assertThat(events.get(1).getOwnerId()).isEqualTo(2L);
+        assertThat(clock.trackedCount()).isZero();
+    }
+
+    @Test
+    void advance_ShouldExpireWaitingBookingsInOneBatch_WhenTheyEnd() {
+        clock.track(booking(1L, 10, 100, Status.WAITING));
+        clock.track(booking(2L, 20, 100, Status.WAITING));
+        clock.track(booking(3L, 30, 100, Status.APPROVED));
+        when(repository.transitionStatuses(List.of(1L, 2L), List.of(Status.EXPIRED, Status.EXPIRED),
+                Status.WAITING)).thenReturn(new int[]{1, 0});
+
+        clock.advance(now.plusSeconds(100));
+
+        verify(repository).transitionStatuses(List.of(1L, 2L), List.of(Status.EXPIRED, Status.EXPIRED),
+                Status.WAITING);
+        verify(outbox).append(eq(Outbox.BOOKING), eq(1L), eq(Outbox.STATUS_CHANGED), anyMap());
+        verify(outbox, never()).append(anyString(), eq(2L), anyString(), anyMap());
+        verify(counters).onStatusChanged(3L, 2L, Status.WAITING, Status.EXPIRED);
+        assertThat(publishedEvents(7)).extracting(BookingLifecycleEvent::getType)
+                .containsExactly(BookingLifecycleEvent.Type.STARTED, BookingLifecycleEvent.Type.STARTED,
+                        BookingLifecycleEvent.Type.STARTED, BookingLifecycleEvent.Type.ENDED,
+                        BookingLifecycleEvent.Type.ENDED, BookingLifecycleEvent.Type.ENDED,
+                        BookingLifecycleEvent.Type.EXPIRED);
+        assertThat(clock.trackedCount()).isZero();
+    }
+
+    @Test
+    void advance_ShouldNotExpire_WhenBookingWasApprovedMeanwhile() {
+        Booking booking = booking(1L, 10, 100, Status.WAITING);
+        clock.track(booking);
+        clock.track(booking, Status.APPROVED);
+
+        clock.advance(now.plusSeconds(100));
+
+        verify(repository, never()).transitionStatuses(any(), any(), any());
+        assertThat(publishedEvents(2)).extracting(BookingLifecycleEvent::getType)
+                .containsExactly(BookingLifecycleEvent.Type.STARTED, BookingLifecycleEvent.Type.ENDED);
+    }
+
+    @Test
+    void advance_ShouldPublishTimeEventsWithoutExpiring_WhenBookingWasRejected() {
+        Booking booking = booking(1L, 10, 100, Status.WAITING);
+        clock.track(booking);
+        clock.track(booking, Status.REJECTED);
+
+        clock.advance(now.plusSeconds(100));
+
+        verify(repository, never()).transitionStatuses(any(), any(), any());
+        assertThat(publishedEvents(2)).extracting(BookingLifecycleEvent::getType)
+                .containsExactly(BookingLifecycleEvent.Type.STARTED, BookingLifecycleEvent.Type.ENDED);
+    }
+
+    @Test
+    void track_ShouldPublishStartedAtOnce_WhenBookingHasAlreadyStarted() {
+        clock.track(booking(1L, -10, 100, Status.APPROVED));
+
+        assertThat(publishedEvents(1)).extracting(BookingLifecycleEvent::getType)
+                .containsExactly(BookingLifecycleEvent.Type.STARTED);
+        assertThat(clock.trackedCount()).isEqualTo(1);
+    }
+}
@@ -10,26 +10,27 @@ import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
-import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.CheckConsistencyService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
-import ru.practicum.shareit.user.UserServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class BookingMapperTest {
 
-    @Mock
-    private UserServiceImpl userService;
-    @Mock
-    private ItemServiceImpl itemService;
     @Mock
     private UserMapper userMapper;
     @Mock
     private ItemMapper itemMapper;
+    @Mock
+    private CheckConsistencyService checker;
 
     @InjectMocks
     private BookingMapper bookingMapper;
@@ -56,6 +57,28 @@ class BookingMapperTest {
         verify(userMapper).toUserDto(user);
     }
 
+    @Test
+    void toBookingDtoList_shouldLoadCommentsOnceForAllItems() {
+        User user = new User(1L, "User", "user@example.com");
+        Item first = new Item(2L, "Item", "Desc", true, user, null);
+        Item second = new Item(4L, "Other", "Desc", true, user, null);
+        List<Booking> bookings = List.of(
+                new Booking(3L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), first, user, Status.APPROVED),
+                new Booking(5L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), first, user, Status.WAITING),
+                new Booking(6L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), second, user, Status.WAITING));
+        ItemDto firstDto = new ItemDto(2L, "Item", "Desc", true, user, null, null, null, List.of());
+
+        when(checker.getCommentsByItemIds(Set.of(2L, 4L))).thenReturn(Map.of(2L, List.of()));
+        when(itemMapper.toItemDto(first, List.of())).thenReturn(firstDto);
+
+        List<BookingDto> dtos = bookingMapper.toBookingDtoList(bookings);
+
+        assertEquals(List.of(3L, 5L, 6L), dtos.stream().map(BookingDto::getId).toList());
+        assertEquals(firstDto, dtos.get(0).getItem());
+        verify(checker).getCommentsByItemIds(Set.of(2L, 4L));
+        verify(itemMapper, never()).toItemDto(any(Item.class));
+    }
+
     @Test
     void toBookingDto_shouldReturnNull_WhenBookingIsNull() {
         assertNull(bookingMapper.toBookingDto(null));
@@ -84,8 +107,8 @@ class BookingMapperTest {
         User booker = new User(3L, "Booker", "booker@example.com");
         Item item = new Item(5L, "Item", "Desc", true, booker, null);
 
-        when(itemService.findItemById(5L)).thenReturn(item);
-        when(userService.findUserById(3L)).thenReturn(booker);
+        when(checker.findItemById(5L)).thenReturn(item);
+        when(checker.findUserById(3L)).thenReturn(booker);
 
         Booking result = bookingMapper.toBooking(inputDto, 3L);
 
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository repository;
+
+    private LocalDateTime now;
+    private User booker;
+    private Item first;
+    private Item second;
+    private Item idle;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2030, 6, 1, 12, 0);
+        User owner = em.persist(new User(null, "Owner", "owner@example.com"));
+        booker = em.persist(new User(null, "Booker", "booker@example.com"));
+        first = em.persist(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        second = em.persist(new Item(null, "Saw", "Circular saw", true, owner, null));
+        idle = em.persist(new Item(null, "Ladder", "Folding ladder", true, owner, null));
+    }
+
+    @Test
+    void findLastAndNextByItemIds_ShouldReturnClosestBookingsPerItem() {
+        book(first, now.minusDays(10), now.minusDays(9));
+        Booking firstLast = book(first, now.minusDays(5), now.minusDays(4));
+        Booking firstNext = book(first, now.plusDays(1), now.plusDays(2));
+        book(first, now.plusDays(5), now.plusDays(6));
+        Booking secondNext = book(second, now.plusDays(3), now.plusDays(4));
+        em.flush();
+
+        List<BookingEdge> edges = repository.findLastAndNextByItemIds(
+                List.of(first.getId(), second.getId(), idle.getId()), now);
+
+        Map<String, BookingEdge> byKey = edges.stream()
+                .collect(toMap(edge -> edge.getItemId() + edge.getKind(), Function.identity()));
+        assertThat(byKey).containsOnlyKeys(first.getId() + BookingEdge.LAST, first.getId() + BookingEdge.NEXT,
+                second.getId() + BookingEdge.NEXT);
+        assertThat(byKey.get(first.getId() + BookingEdge.LAST).getId()).isEqualTo(firstLast.getId());
+        BookingEdge next = byKey.get(first.getId() + BookingEdge.NEXT);
+        assertThat(next.getId()).isEqualTo(firstNext.getId());
+        assertThat(next.getBookerId()).isEqualTo(booker.getId());
+        assertThat(next.getStartDate()).isEqualTo(firstNext.getStart());
+        assertThat(next.getEndDate()).isEqualTo(firstNext.getEnd());
+        assertThat(byKey.get(second.getId() + BookingEdge.NEXT).getId()).isEqualTo(secondNext.getId());
+    }
+
+    @Test
+    void transitionStatuses_ShouldUpdateOnlyWaitingBookings() {
+        Booking waiting = em.persist(new Booking(null, now.plusDays(1), now.plusDays(2), first, booker,
+                Status.WAITING));
+        Booking approved = book(first, now.plusDays(3), now.plusDays(4));
+        em.flush();
+
+        int[] updated = repository.transitionStatuses(List.of(waiting.getId(), approved.getId()),
+                List.of(Status.REJECTED, Status.REJECTED), Status.WAITING);
+        em.clear();
+
+        assertThat(updated).containsExactly(1, 0);
+        assertThat(repository.findById(waiting.getId()).orElseThrow().getStatus()).isEqualTo(Status.REJECTED);
+        assertThat(repository.findById(waiting.getId()).orElseThrow().getVersion())
+                .isEqualTo(waiting.getVersion() + 1);
+        assertThat(repository.findById(approved.getId()).orElseThrow().getStatus()).isEqualTo(Status.APPROVED);
+    }
+
+    private Booking book(Item item, LocalDateTime start, LocalDateTime end) {
+        return em.persist(new Booking(null, start, end, item, booker, Status.APPROVED));
+    }
+}
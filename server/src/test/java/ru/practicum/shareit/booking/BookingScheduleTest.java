@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingScheduleTest {
+
+    private BookingRepository repository;
+    private BookingSchedule schedule;
+    private Item item;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BookingRepository.class);
+        schedule = new BookingSchedule(repository);
+        item = new Item(1L, "Дрель", "Мощная дрель", true, new User(2L, "Owner", "owner@example.com"), null);
+        base = LocalDateTime.of(2030, 1, 1, 12, 0);
+    }
+
+    private Booking booking(long id, int startHour, int endHour, Status status) {
+        return new Booking(id, base.plusHours(startHour), base.plusHours(endHour), item,
+                new User(3L, "Booker", "booker@example.com"), status);
+    }
+
+    @Test
+    void tryReserve_ShouldRejectOverlappingPeriod() {
+        assertThat(schedule.tryReserve(booking(1L, 0, 10, Status.WAITING))).isTrue();
+
+        assertThat(schedule.tryReserve(booking(2L, 5, 15, Status.WAITING))).isFalse();
+        assertThat(schedule.tryReserve(booking(3L, -5, 1, Status.WAITING))).isFalse();
+        assertThat(schedule.tryReserve(booking(4L, 2, 3, Status.WAITING))).isFalse();
+    }
+
+    @Test
+    void tryReserve_ShouldAcceptAdjacentPeriods() {
+        assertThat(schedule.tryReserve(booking(1L, 0, 10, Status.APPROVED))).isTrue();
+
+        assertThat(schedule.tryReserve(booking(2L, 10, 20, Status.WAITING))).isTrue();
+        assertThat(schedule.tryReserve(booking(3L, -10, 0, Status.WAITING))).isTrue();
+    }
+
+    @Test
+    void releaseAfterCommit_ShouldFreeSlotOnlyAfterCommit() {
+        Booking booking = booking(1L, 0, 10, Status.WAITING);
+        schedule.tryReserve(booking);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            schedule.releaseAfterCommit(booking);
+            assertThat(schedule.isFree(1L, base, base.plusHours(10))).isFalse();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(schedule.isFree(1L, base, base.plusHours(10))).isTrue();
+    }
+
+    @Test
+    void tryReserve_ShouldIgnoreRejectedBookings() {
+        assertThat(schedule.tryReserve(booking(1L, 0, 10, Status.REJECTED))).isTrue();
+
+        assertThat(schedule.isFree(1L, base, base.plusHours(10))).isTrue();
+    }
+
+    @Test
+    void release_ShouldFreePeriod() {
+        Booking booking = booking(1L, 0, 10, Status.WAITING);
+        schedule.tryReserve(booking);
+
+        schedule.release(booking);
+
+        assertThat(schedule.isFree(1L, base, base.plusHours(10))).isTrue();
+    }
+
+    @Test
+    void isFree_ShouldReturnTrue_WhenItemHasNoBookings() {
+        assertThat(schedule.isFree(99L, base, base.plusHours(1))).isTrue();
+        assertThat(schedule.nextFreeStart(99L, base, base.plusHours(1))).isEqualTo(base);
+    }
+
+    @Test
+    void nextFreeStart_ShouldSkipContiguousBookings() {
+        schedule.tryReserve(booking(1L, 0, 10, Status.APPROVED));
+        schedule.tryReserve(booking(2L, 10, 12, Status.WAITING));
+        schedule.tryReserve(booking(3L, 14, 20, Status.APPROVED));
+
+        assertThat(schedule.nextFreeStart(1L, base.plusHours(5), base.plusHours(7)))
+                .isEqualTo(base.plusHours(12));
+        assertThat(schedule.nextFreeStart(1L, base.plusHours(5), base.plusHours(8)))
+                .isEqualTo(base.plusHours(20));
+    }
+
+    @Test
+    void warmUp_ShouldLoadActiveBookings() {
+        when(repository.findAllByStatusInAndEndIsAfter(any(), any()))
+                .thenReturn(List.of(booking(1L, 0, 10, Status.APPROVED), booking(2L, 5, 15, Status.WAITING)));
+
+        schedule.warmUp();
+
+        assertThat(schedule.isFree(1L, base.plusHours(1), base.plusHours(2))).isFalse();
+        assertThat(schedule.isFree(1L, base.plusHours(10), base.plusHours(20))).isTrue();
+    }
+
+    @Test
+    void onBookingLifecycle_ShouldDropEndedBooking() {
+        schedule.tryReserve(booking(1L, 0, 10, Status.APPROVED));
+
+        schedule.onBookingLifecycle(new BookingLifecycleEvent(BookingLifecycleEvent.Type.STARTED, 1L, 1L, 3L, 2L,
+                base));
+        assertThat(schedule.isFree(1L, base, base.plusHours(10))).isFalse();
+
+        schedule.onBookingLifecycle(new BookingLifecycleEvent(BookingLifecycleEvent.Type.ENDED, 1L, 1L, 3L, 2L,
+                base.plusHours(10)));
+        assertThat(schedule.isFree(1L, base, base.plusHours(10))).isTrue();
+    }
+}
@@ -1,22 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.CheckConsistencyService;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class BookingServiceImplTest {
@@ -24,12 +34,39 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository repository;
 
+    @Mock
+    private BookingHistoryRepository history;
+
     @Mock
     private BookingMapper mapper;
 
     @Mock
     private CheckConsistencyService checker;
 
+    @Mock
+    private BookingSchedule schedule;
+
+    @Mock
+    private BookingLifecycleClock clock;
+
+    @Mock
+    private BookingCounters counters;
+
+    @Mock
+    private BookingAdmission admission;
+
+    @Spy
+    private LookupContext lookups = new LookupContext(new SimpleMeterRegistry());
+
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -42,6 +79,9 @@ class BookingServiceImplTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         now = LocalDateTime.now();
+        when(admission.submit(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(schedule.isFree(anyLong(), any(), any())).thenReturn(true);
 
         bookingInputDto = new BookingInputDto(
                 1L,
@@ -85,8 +125,18 @@ class BookingServiceImplTest {
     void create_ShouldReturnBookingDto_WhenSuccess() {
         when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
         when(checker.isAvailableItem(1L)).thenReturn(true);
+        Item itemReference = new Item();
+        User bookerReference = new User();
+        booking.setId(null);
         when(mapper.toBooking(bookingInputDto, 3L)).thenReturn(booking);
-        when(repository.save(booking)).thenReturn(booking);
+        when(itemRepository.getReferenceById(1L)).thenReturn(itemReference);
+        when(userRepository.getReferenceById(3L)).thenReturn(bookerReference);
+        when(repository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        when(schedule.tryReserve(booking)).thenReturn(true);
         when(mapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.create(bookingInputDto, 3L);
@@ -94,7 +144,41 @@ class BookingServiceImplTest {
         assertThat(result).isEqualTo(bookingDto);
         verify(checker).isUserExistsForStrictCheck(3L);
         verify(checker).isAvailableItem(1L);
-        verify(repository).save(booking);
+        verify(admission).submit(eq(1L), any());
+        verify(repository).save(argThat(saved -> saved != booking && saved.getItem() == itemReference
+                && saved.getBooker() == bookerReference && saved.getStatus() == Status.WAITING));
+        assertThat(booking.getId()).isEqualTo(1L);
+        verify(schedule).tryReserve(booking);
+        verify(clock).track(booking);
+        verify(counters).onCreated(booking);
+        verify(outbox).append(eq(Outbox.BOOKING), eq(booking.getId()), eq(Outbox.CREATED), anyMap());
+    }
+
+    // create - период уже занят другим бронированием
+    @Test
+    void create_ShouldThrow_WhenPeriodOverlapsExistingBooking() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        when(checker.isAvailableItem(1L)).thenReturn(true);
+        when(mapper.toBooking(bookingInputDto, 3L)).thenReturn(booking);
+        when(repository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(schedule.tryReserve(booking)).thenReturn(false);
+
+        assertThatThrownBy(() -> bookingService.create(bookingInputDto, 3L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("уже забронирована");
+    }
+
+    // create - период занят по расписанию, бронирование не записывается
+    @Test
+    void create_ShouldThrowBeforeSave_WhenScheduleIsBusy() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        when(checker.isAvailableItem(1L)).thenReturn(true);
+        when(schedule.isFree(1L, bookingInputDto.getStart(), bookingInputDto.getEnd())).thenReturn(false);
+
+        assertThatThrownBy(() -> bookingService.create(bookingInputDto, 3L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("уже забронирована");
+        verify(repository, never()).save(any());
     }
 
     // create - попытка забронировать свою вещь
@@ -129,13 +213,15 @@ class BookingServiceImplTest {
         when(checker.isUserExistsForValidation(2L)).thenReturn(true);
         when(repository.findById(1L)).thenReturn(Optional.of(booking));
         when(checker.isItemOwner(1L, 2L)).thenReturn(true);
-        when(repository.save(booking)).thenReturn(booking);
+        when(repository.transitionStatus(1L, Status.WAITING, Status.APPROVED)).thenReturn(1);
         when(mapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.update(1L, 2L, true);
 
         assertThat(result).isEqualTo(bookingDto);
         assertThat(booking.getStatus()).isEqualTo(Status.APPROVED);
+        verify(clock).track(booking);
+        verify(counters).onStatusChanged(3L, 2L, Status.WAITING, Status.APPROVED);
     }
 
     // update - владелец отклоняет бронирование
@@ -145,13 +231,42 @@ class BookingServiceImplTest {
         when(checker.isUserExistsForValidation(2L)).thenReturn(true);
         when(repository.findById(1L)).thenReturn(Optional.of(booking));
         when(checker.isItemOwner(1L, 2L)).thenReturn(true);
-        when(repository.save(booking)).thenReturn(booking);
+        when(repository.transitionStatus(1L, Status.WAITING, Status.REJECTED)).thenReturn(1);
         when(mapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.update(1L, 2L, false);
 
         assertThat(result).isEqualTo(bookingDto);
         assertThat(booking.getStatus()).isEqualTo(Status.REJECTED);
+        verify(schedule).releaseAfterCommit(booking);
+    }
+
+    // update - запись события не удалась, транзакция откатывается, интервал остаётся занятым
+    @Test
+    void update_ShouldKeepSlotReserved_WhenOutboxAppendFails() {
+        BookingSchedule realSchedule = new BookingSchedule(repository);
+        BookingServiceImpl service = new BookingServiceImpl(repository, history, mapper, checker, realSchedule,
+                clock, counters, admission, lookups, outbox, itemRepository, userRepository);
+        booking.setStatus(Status.WAITING);
+        assertThat(realSchedule.tryReserve(booking)).isTrue();
+        when(checker.isUserExistsForValidation(2L)).thenReturn(true);
+        when(repository.findById(1L)).thenReturn(Optional.of(booking));
+        when(checker.isItemOwner(1L, 2L)).thenReturn(true);
+        when(repository.transitionStatus(1L, Status.WAITING, Status.REJECTED)).thenReturn(1);
+        doThrow(new IllegalStateException("outbox недоступен"))
+                .when(outbox).append(anyString(), anyLong(), anyString(), anyMap());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThatThrownBy(() -> service.update(1L, 2L, false)).isInstanceOf(IllegalStateException.class);
+            assertThat(realSchedule.isFree(1L, booking.getStart(), booking.getEnd())).isFalse();
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(realSchedule.isFree(1L, booking.getStart(), booking.getEnd())).isFalse();
     }
 
     // update - бронирующий отменяет бронирование
@@ -160,7 +275,7 @@ class BookingServiceImplTest {
         booking.setStatus(Status.WAITING);
         when(checker.isUserExistsForValidation(3L)).thenReturn(true);
         when(repository.findById(1L)).thenReturn(Optional.of(booking));
-        when(repository.save(booking)).thenReturn(booking);
+        when(repository.transitionStatus(1L, Status.WAITING, Status.CANCELED)).thenReturn(1);
         when(mapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.update(1L, 3L, false);
@@ -169,6 +284,68 @@ class BookingServiceImplTest {
         assertThat(booking.getStatus()).isEqualTo(Status.CANCELED);
     }
 
+    // update - статус уже изменён параллельным запросом
+    @Test
+    void update_ShouldThrowConflict_WhenStatusChangedConcurrently() {
+        booking.setStatus(Status.WAITING);
+        when(checker.isUserExistsForValidation(2L)).thenReturn(true);
+        when(repository.findById(1L)).thenReturn(Optional.of(booking));
+        when(checker.isItemOwner(1L, 2L)).thenReturn(true);
+        when(repository.transitionStatus(1L, Status.WAITING, Status.APPROVED)).thenReturn(0);
+
+        assertThatThrownBy(() -> bookingService.update(1L, 2L, true))
+                .isInstanceOf(ConflictException.class);
+        verify(repository, never()).save(any());
+        verifyNoInteractions(schedule);
+    }
+
+    // updateBatch - решения применяются одной пакетной записью, ошибки возвращаются по каждому элементу
+    @Test
+    void updateBatch_ShouldReturnResultPerDecision() {
+        Booking approvedBooking = new Booking(4L, now.plusDays(3), now.plusDays(4), booking.getItem(),
+                booking.getBooker(), Status.APPROVED);
+        Booking raced = new Booking(5L, now.plusDays(5), now.plusDays(6), booking.getItem(),
+                booking.getBooker(), Status.WAITING);
+        when(checker.isUserExistsForValidation(2L)).thenReturn(true);
+        when(repository.findAllByIdIn(List.of(1L, 4L, 9L, 5L))).thenReturn(List.of(booking, approvedBooking, raced));
+        when(repository.transitionStatuses(List.of(1L, 5L), List.of(Status.REJECTED, Status.APPROVED),
+                Status.WAITING)).thenReturn(new int[]{1, 0});
+
+        List<BookingDecisionResultDto> results = bookingService.updateBatch(2L, List.of(
+                new BookingDecisionDto(1L, false),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(9L, true),
+                new BookingDecisionDto(5L, true)));
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId).containsExactly(1L, 4L, 9L, 5L);
+        assertThat(results).extracting(BookingDecisionResultDto::isUpdated).containsExactly(true, false, false, false);
+        assertThat(results.get(0).getStatus()).isEqualTo(Status.REJECTED);
+        assertThat(results.get(1).getError()).contains("уже принято");
+        assertThat(results.get(2).getError()).contains("не найдено");
+        assertThat(results.get(3).getError()).contains("другим запросом");
+        verify(schedule).releaseAfterCommit(booking);
+        verify(schedule, never()).release(any(Booking.class));
+        verify(clock).track(booking, Status.REJECTED);
+        verify(counters).onStatusChanged(3L, 2L, Status.WAITING, Status.REJECTED);
+        verify(counters, never()).onStatusChanged(anyLong(), anyLong(), any(), eq(Status.APPROVED));
+        verify(checker, never()).isItemOwner(anyLong(), anyLong());
+    }
+
+    // updateBatch - чужие бронирования не изменяются
+    @Test
+    void updateBatch_ShouldSkipBookingsOfOtherOwners() {
+        when(checker.isUserExistsForValidation(3L)).thenReturn(true);
+        when(repository.findAllByIdIn(List.of(1L, 1L))).thenReturn(List.of(booking));
+
+        List<BookingDecisionResultDto> results = bookingService.updateBatch(3L, List.of(
+                new BookingDecisionDto(1L, true), new BookingDecisionDto(1L, true)));
+
+        assertThat(results).extracting(BookingDecisionResultDto::isUpdated).containsExactly(false, false);
+        assertThat(results.get(0).getError()).contains("только владелец");
+        assertThat(results.get(1).getError()).contains("уже передано");
+        verify(repository, never()).transitionStatuses(any(), any(), any());
+    }
+
     // update - бронирующий пытается подтвердить бронирование (нельзя)
     @Test
     void update_ShouldThrow_WhenBookerTriesApprove() {
@@ -192,6 +369,19 @@ class BookingServiceImplTest {
                 .hasMessageContaining("не найдено");
     }
 
+    // update - бронирование уже в архиве
+    @Test
+    void update_ShouldThrowValidation_WhenBookingIsArchived() {
+        when(checker.isUserExistsForValidation(3L)).thenReturn(true);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+        when(history.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.update(1L, 3L, true))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("перенесено в архив");
+        verify(repository, never()).transitionStatus(anyLong(), any(), any());
+    }
+
     // getBookingById - успешный доступ владельца
     @Test
     void getBookingById_ShouldReturnBookingDto_WhenOwner() {
@@ -253,14 +443,16 @@ class BookingServiceImplTest {
         booking2.setItem(booking.getItem());
         booking2.setBooker(booking.getBooker());
 
-        Page<Booking> page = new PageImpl<>(List.of(booking, booking2));
-        when(repository.findByBookerId(anyLong(), any(Pageable.class))).thenReturn(page);
-        when(mapper.toBookingDto(any())).thenReturn(bookingDto);
+        Page<BookingRecord> page = new PageImpl<>(List.of(record(booking), record(booking2)));
+        when(history.findByBookerId(anyLong(), any(Pageable.class))).thenReturn(page);
+        when(mapper.toBookingDtoList(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<Booking>>getArgument(0).size(),
+                        bookingDto));
 
         List<BookingDto> result = bookingService.getBookings("ALL", 3L, 0, 10);
 
         assertThat(result).hasSize(2);
-        verify(repository, atLeastOnce()).findByBookerId(anyLong(), any(Pageable.class));
+        verify(history, atLeastOnce()).findByBookerId(anyLong(), any(Pageable.class));
     }
 
     // getBookings - невалидный state
@@ -278,14 +470,53 @@ class BookingServiceImplTest {
     void getBookingsOwner_ShouldReturnListOfBookingDto() {
         when(checker.isUserExistsForStrictCheck(2L)).thenReturn(true);
 
-        Page<Booking> page = new PageImpl<>(List.of(booking));
-        when(repository.findByItemOwnerId(anyLong(), any(Pageable.class))).thenReturn(page);
-        when(mapper.toBookingDto(any())).thenReturn(bookingDto);
+        Page<BookingRecord> page = new PageImpl<>(List.of(record(booking)));
+        when(history.findByItemOwnerId(anyLong(), any(Pageable.class))).thenReturn(page);
+        when(mapper.toBookingDtoList(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<Booking>>getArgument(0).size(),
+                        bookingDto));
 
         List<BookingDto> result = bookingService.getBookingsOwner("ALL", 2L, 0, 10);
 
         assertThat(result).hasSize(1);
-        verify(repository, atLeastOnce()).findByItemOwnerId(anyLong(), any(Pageable.class));
+        verify(history, atLeastOnce()).findByItemOwnerId(anyLong(), any(Pageable.class));
+    }
+
+    // getBookingsAfter - курсор передаётся в seek-запрос
+    @Test
+    void getBookingsAfter_ShouldSeekFromCursor() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        LocalDateTime cursorStart = now.plusDays(5);
+        when(history.findByBookerIdAfter(eq(3L), any(), any(), any(), any(), any(), eq(cursorStart), eq(7L),
+                any(Pageable.class))).thenReturn(List.of(record(booking)));
+        when(mapper.toBookingDtoList(anyList())).thenReturn(List.of(bookingDto));
+
+        List<BookingDto> result = bookingService.getBookingsAfter("ALL", 3L,
+                BookingCursor.encode(cursorStart, 7L), 10);
+
+        assertThat(result).containsExactly(bookingDto);
+    }
+
+    // getBookingsOwnerAfter - WAITING ограничивает выборку статусом
+    @Test
+    void getBookingsOwnerAfter_ShouldFilterByStatus_WhenWaiting() {
+        when(checker.isUserExistsForStrictCheck(2L)).thenReturn(true);
+        when(repository.findByItemOwnerIdAfter(eq(2L), eq(EnumSet.of(Status.WAITING)), any(), any(), any(), any(),
+                eq(BookingCursor.FIRST.getStart()), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(booking));
+        when(mapper.toBookingDtoList(List.of(booking))).thenReturn(List.of(bookingDto));
+
+        List<BookingDto> result = bookingService.getBookingsOwnerAfter("WAITING", 2L, "", 10);
+
+        assertThat(result).containsExactly(bookingDto);
+    }
+
+    @Test
+    void getBookingsAfter_ShouldThrow_WhenSizeIsNotPositive() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.getBookingsAfter("ALL", 3L, "", 0))
+                .isInstanceOf(ValidationException.class);
     }
 
     @Test
@@ -309,30 +540,30 @@ class BookingServiceImplTest {
                 booking.getEnd()
         );
 
-        when(repository.findFirstByItemIdAndEndBeforeOrderByEndDesc(eq(itemId), any(LocalDateTime.class)))
-                .thenReturn(booking);
-        when(mapper.toBookingShortDto(booking)).thenReturn(expectedDto);
+        when(history.findFirstByItemIdAndEndBeforeOrderByEndDesc(eq(itemId), any(LocalDateTime.class)))
+                .thenReturn(record(booking));
+        when(mapper.toBookingShortDto(any(Booking.class))).thenReturn(expectedDto);
 
         BookingShortDto actualDto = bookingService.getLastBooking(itemId);
 
         assertThat(actualDto).isEqualTo(expectedDto);
 
-        verify(repository).findFirstByItemIdAndEndBeforeOrderByEndDesc(eq(itemId), any(LocalDateTime.class));
-        verify(mapper).toBookingShortDto(booking);
+        verify(history).findFirstByItemIdAndEndBeforeOrderByEndDesc(eq(itemId), any(LocalDateTime.class));
+        verify(mapper).toBookingShortDto(argThat(b -> b.getId().equals(200L)));
     }
 
     @Test
     void getBookingWithUserBookedItem_ShouldReturnBooking() {
-        when(repository.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(
+        when(history.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(
                 eq(1L),
                 eq(3L),
                 any(LocalDateTime.class),
                 eq(Status.APPROVED)))
-                .thenReturn(booking);
+                .thenReturn(record(booking));
 
         Booking result = bookingService.getBookingWithUserBookedItem(1L, 3L);
 
-        assertThat(result).isEqualTo(booking);
+        assertThat(result).usingRecursiveComparison().isEqualTo(booking);
     }
 
     @Test
@@ -346,19 +577,21 @@ class BookingServiceImplTest {
         booking2.setItem(booking.getItem());
         booking2.setBooker(booking.getBooker());
 
-        Page<Booking> page1 = new PageImpl<>(List.of(booking), PageRequest.of(0, 1), 2);
-        Page<Booking> page2 = new PageImpl<>(List.of(booking2), PageRequest.of(1, 1), 2);
+        Page<BookingRecord> page1 = new PageImpl<>(List.of(record(booking)), PageRequest.of(0, 1), 2);
+        Page<BookingRecord> page2 = new PageImpl<>(List.of(record(booking2)), PageRequest.of(1, 1), 2);
 
-        when(repository.findByBookerId(anyLong(), any(Pageable.class)))
+        when(history.findByBookerId(anyLong(), any(Pageable.class)))
                 .thenReturn(page1)
                 .thenReturn(page2);
 
-        when(mapper.toBookingDto(any())).thenReturn(bookingDto);
+        when(mapper.toBookingDtoList(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<Booking>>getArgument(0).size(),
+                        bookingDto));
 
         List<BookingDto> result = bookingService.getBookings("ALL", 3L, 0, null);
 
         assertThat(result).hasSize(2);
-        verify(repository, times(2)).findByBookerId(anyLong(), any(Pageable.class));
+        verify(history, times(2)).findByBookerId(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -372,21 +605,50 @@ class BookingServiceImplTest {
         booking2.setItem(booking.getItem());
         booking2.setBooker(booking.getBooker());
 
-        Page<Booking> page1 = new PageImpl<>(List.of(booking), PageRequest.of(0, 1), 2);
-        Page<Booking> page2 = new PageImpl<>(List.of(booking2), PageRequest.of(1, 1), 2);
+        Page<BookingRecord> page1 = new PageImpl<>(List.of(record(booking)), PageRequest.of(0, 1), 2);
+        Page<BookingRecord> page2 = new PageImpl<>(List.of(record(booking2)), PageRequest.of(1, 1), 2);
 
-        when(repository.findByItemOwnerId(anyLong(), any(Pageable.class)))
+        when(history.findByItemOwnerId(anyLong(), any(Pageable.class)))
                 .thenReturn(page1)
                 .thenReturn(page2);
 
-        when(mapper.toBookingDto(any())).thenReturn(bookingDto);
+        when(mapper.toBookingDtoList(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<Booking>>getArgument(0).size(),
+                        bookingDto));
 
         List<BookingDto> result = bookingService.getBookingsOwner("ALL", 2L, 0, null);
 
         assertThat(result).hasSize(2);
-        verify(repository, times(2)).findByItemOwnerId(anyLong(), any(Pageable.class));
+        verify(history, times(2)).findByItemOwnerId(anyLong(), any(Pageable.class));
+    }
+
+
+    @Test
+    void getLastAndNextBookings_ShouldGroupEdgesByItem() {
+        BookingEdge last = mock(BookingEdge.class);
+        when(last.getKind()).thenReturn(BookingEdge.LAST);
+        when(last.getItemId()).thenReturn(1L);
+        BookingEdge next = mock(BookingEdge.class);
+        when(next.getKind()).thenReturn(BookingEdge.NEXT);
+        when(next.getItemId()).thenReturn(1L);
+        BookingShortDto lastDto = new BookingShortDto(1L, 3L, now.minusDays(2), now.minusDays(1));
+        BookingShortDto nextDto = new BookingShortDto(2L, 3L, now.plusDays(1), now.plusDays(2));
+        when(repository.findLastAndNextByItemIds(eq(List.of(1L, 2L)), any())).thenReturn(List.of(last, next));
+        when(mapper.toShortDto(last)).thenReturn(lastDto);
+        when(mapper.toShortDto(next)).thenReturn(nextDto);
+
+        Map<Long, ItemBookingsDto> result = bookingService.getLastAndNextBookings(List.of(1L, 2L));
+
+        assertThat(result).containsOnlyKeys(1L);
+        assertThat(result.get(1L).getLastBooking()).isEqualTo(lastDto);
+        assertThat(result.get(1L).getNextBooking()).isEqualTo(nextDto);
     }
 
+    @Test
+    void getLastAndNextBookings_ShouldNotQuery_WhenNoItems() {
+        assertThat(bookingService.getLastAndNextBookings(List.of())).isEmpty();
+        verifyNoInteractions(repository);
+    }
 
     @Test
     void getNextBooking_ShouldReturnBookingShortDto() {
@@ -423,7 +685,7 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingWithUserBookedItem_ShouldReturnNull_WhenNoBookingFound() {
-        when(repository.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(
+        when(history.findFirstByItemIdAndBookerIdAndEndIsBeforeAndStatus(
                 anyLong(), anyLong(), any(LocalDateTime.class), eq(Status.APPROVED)))
                 .thenReturn(null);
 
@@ -431,4 +693,54 @@ class BookingServiceImplTest {
 
         assertThat(result).isNull();
     }
+
+    @Test
+    void getBookingById_ShouldFallBackToArchive_WhenNotInBookings() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+        when(history.findById(1L)).thenReturn(Optional.of(record(booking)));
+        when(mapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
+
+        BookingDto result = bookingService.getBookingById(1L, 3L);
+
+        assertThat(result).isEqualTo(bookingDto);
+        verify(history).findById(1L);
+    }
+
+    @Test
+    void getBookings_ShouldNotReadArchive_ForFutureState() {
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        when(repository.findByBookerIdAndStartIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(mapper.toBookingDtoList(anyList())).thenReturn(List.of(bookingDto));
+
+        List<BookingDto> result = bookingService.getBookings("FUTURE", 3L, 0, 10);
+
+        assertThat(result).containsExactly(bookingDto);
+        verifyNoInteractions(history);
+    }
+
+    private static BookingRecord record(Booking booking) {
+        return new BookingRecord(booking.getId(), booking.getStart(), booking.getEnd(), booking.getItem(),
+                booking.getBooker(), booking.getStatus());
+    }
+
+    @Test
+    void getSummary_ShouldReadBookerCounters() {
+        BookingSummaryDto summary = new BookingSummaryDto(3, 1, 1, 1, 1, 1, 1, 0, 0);
+        when(checker.isUserExistsForStrictCheck(3L)).thenReturn(true);
+        when(counters.get(3L, BookingCounters.Role.BOOKER)).thenReturn(summary);
+
+        assertThat(bookingService.getSummary(3L)).isEqualTo(summary);
+        verifyNoInteractions(repository, history);
+    }
+
+    @Test
+    void getOwnerSummary_ShouldReadOwnerCounters() {
+        BookingSummaryDto summary = new BookingSummaryDto(1, 0, 0, 1, 1, 0, 0, 0, 0);
+        when(checker.isUserExistsForStrictCheck(2L)).thenReturn(true);
+        when(counters.get(2L, BookingCounters.Role.OWNER)).thenReturn(summary);
+
+        assertThat(bookingService.getOwnerSummary(2L)).isEqualTo(summary);
+    }
 }
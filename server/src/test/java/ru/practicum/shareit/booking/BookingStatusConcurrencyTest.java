@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingStatusConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void update_ShouldLetExactlyOneConcurrentApprovalWin() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", "concurrency-owner@example.com"));
+        User booker = userRepository.save(new User(null, "Booker", "concurrency-booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        Booking booking = bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, Status.WAITING));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingService.update(booking.getId(), owner.getId(), true);
+                    approved.incrementAndGet();
+                } catch (ConflictException | ValidationException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(approved.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(stored.getStatus()).isEqualTo(Status.APPROVED);
+        assertThat(stored.getVersion()).isEqualTo(booking.getVersion() + 1);
+    }
+
+    @Test
+    void create_ShouldAdmitExactlyOneOfConcurrentOverlappingBookings() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", "admission-owner@example.com"));
+        User booker = userRepository.save(new User(null, "Booker", "admission-booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "Saw", "Circular saw", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            LocalDateTime from = start.plusHours(i);
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.create(new BookingInputDto(item.getId(), from, from.plusDays(1)), booker.getId());
+                    admitted.incrementAndGet();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(admitted.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(bookingRepository.findAll()).filteredOn(stored -> stored.getItem().getId().equals(item.getId()))
+                .hasSize(1);
+    }
+}
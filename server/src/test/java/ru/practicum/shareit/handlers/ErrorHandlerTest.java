@@ -2,8 +2,11 @@ package ru.practicum.shareit.handlers;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.DataAlreadyExistsException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -38,6 +41,33 @@ class ErrorHandlerTest {
         assertThat(response.getError()).isEqualTo(message);
     }
 
+    @Test
+    void handleConflictException_ShouldReturnErrorResponse() {
+        String message = "Status already changed";
+
+        ErrorResponse response = errorHandler.handleConflictException(new ConflictException(message));
+
+        assertThat(response.getError()).isEqualTo(message);
+    }
+
+    @Test
+    void handleServiceUnavailableException_ShouldReturnErrorResponse() {
+        String message = "Queue is full";
+
+        ErrorResponse response = errorHandler.handleServiceUnavailableException(
+                new ServiceUnavailableException(message));
+
+        assertThat(response.getError()).isEqualTo(message);
+    }
+
+    @Test
+    void handleOptimisticLockingFailure_ShouldReturnErrorResponse() {
+        ErrorResponse response = errorHandler.handleOptimisticLockingFailure(
+                new ObjectOptimisticLockingFailureException("Booking", 1L));
+
+        assertThat(response.getError()).contains("изменены другим запросом");
+    }
+
     @Test
     void handleUnhandledException_ShouldReturnErrorResponse() {
         String message = "Unknown error";
@@ -13,8 +13,10 @@ import org.springframework.http.MediaType;
 
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -37,6 +39,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private LookupContext lookupContext;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -130,7 +135,8 @@ class ItemControllerTest {
 
     @Test
     void getItemsBySearchQuery_ShouldReturnList() throws Exception {
-        Mockito.when(itemService.getItemsBySearchQuery(eq("дрель"), anyInt(), nullable(Integer.class)))
+        Mockito.when(itemService.getItemsBySearchQuery(eq("дрель"), anyInt(), nullable(Integer.class), eq(false),
+                eq("name"), nullable(LocalDateTime.class), nullable(LocalDateTime.class)))
                 .thenReturn(List.of(sampleItemDto));
 
         mockMvc.perform(get("/items/search")
@@ -140,6 +146,59 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id").value(sampleItemDto.getId()));
     }
 
+    @Test
+    void getItemsBySearchQuery_ShouldPassFuzzyFlag() throws Exception {
+        Mockito.when(itemService.getItemsBySearchQuery("дрелъ", 0, 10, true, "name", null, null))
+                .thenReturn(List.of(sampleItemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрелъ")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(sampleItemDto.getId()));
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldPassSort() throws Exception {
+        Mockito.when(itemService.getItemsBySearchQuery("дрель", 0, 10, false, "relevance", null, null))
+                .thenReturn(List.of(sampleItemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("size", "10")
+                        .param("sort", "relevance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(sampleItemDto.getId()));
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldPassAvailabilityWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 5, 3, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 5, 5, 18, 0);
+        Mockito.when(itemService.getItemsBySearchQuery("дрель", 0, 10, false, "name", from, to))
+                .thenReturn(List.of(sampleItemDto));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("size", "10")
+                        .param("availableFrom", "2030-05-03T10:00:00")
+                        .param("availableTo", "2030-05-05T18:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(sampleItemDto.getId()));
+    }
+
+    @Test
+    void getSuggestions_ShouldReturnTerms() throws Exception {
+        Mockito.when(itemService.getSuggestions("дре", 10)).thenReturn(List.of("дрель"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("дрель"));
+    }
+
     @Test
     void createComment_ShouldReturnCommentDto() throws Exception {
         Mockito.when(itemService.createComment(any(CommentDto.class), eq(1L), eq(1L)))
@@ -153,4 +212,19 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.id").value(sampleCommentDto.getId()))
                 .andExpect(jsonPath("$.text").value(sampleCommentDto.getText()));
     }
+
+    @Test
+    void getItemAvailability_ShouldReturnAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(1);
+        Mockito.when(itemService.getItemAvailability(1L, from, to))
+                .thenReturn(new ItemAvailabilityDto(1L, from, to, true, from));
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-02T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1L))
+                .andExpect(jsonPath("$.available").value(true));
+    }
 }
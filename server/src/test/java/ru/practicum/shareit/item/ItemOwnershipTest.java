@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ItemOwnershipTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ItemRepository repository;
+
+    private ItemOwnership ownership;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ownership = new ItemOwnership(jdbcTemplate, repository, new ObjectMapper());
+    }
+
+    @Test
+    void warmUp_ShouldLoadAllPagesByKeyset() throws SQLException {
+        int total = 2500;
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            long after = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            ResultSet rs = mock(ResultSet.class);
+            for (long id = after + 1; id <= Math.min(total, after + limit); id++) {
+                when(rs.getLong("id")).thenReturn(id);
+                when(rs.getLong("owner_id")).thenReturn(id % 7 + 1);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), anyLong(), anyInt());
+
+        ownership.warmUp();
+
+        assertThat(ownership.size()).isEqualTo(total);
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowCallbackHandler.class), anyLong(), eq(1000));
+        assertThat(ownership.isOwner(2000, 2000 % 7 + 1)).isTrue();
+        assertThat(ownership.isOwner(2000, 2000 % 7 + 2)).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void isOwner_ShouldFallBackToRepositoryAndRememberOwner() {
+        when(repository.existsByIdAndOwnerId(5L, 3L)).thenReturn(true);
+
+        assertThat(ownership.isOwner(5, 3)).isTrue();
+        assertThat(ownership.isOwner(5, 3)).isTrue();
+        assertThat(ownership.isOwner(5, 4)).isFalse();
+
+        verify(repository, times(1)).existsByIdAndOwnerId(5L, 3L);
+        verify(repository, never()).existsByIdAndOwnerId(5L, 4L);
+    }
+
+    @Test
+    void isOwner_ShouldNotRememberNegativeAnswer() {
+        when(repository.existsByIdAndOwnerId(5L, 3L)).thenReturn(false);
+
+        assertThat(ownership.isOwner(5, 3)).isFalse();
+
+        assertThat(ownership.size()).isZero();
+    }
+
+    @Test
+    void handle_ShouldRememberCreatedAndForgetDeletedItems() {
+        ownership.handle(List.of(
+                event(1, 1, Outbox.CREATED, "{\"ownerId\":10,\"name\":\"Дрель\"}"),
+                event(2, 2, Outbox.CREATED, "{\"ownerId\":10}"),
+                event(3, 3, Outbox.CREATED, "{\"ownerId\":20}"),
+                event(4, 1, Outbox.UPDATED, "{\"ownerId\":10}"),
+                new OutboxMessage(5L, Outbox.BOOKING, 4L, Outbox.CREATED, "{\"ownerId\":30}", LocalDateTime.now()),
+                event(6, 3, Outbox.DELETED, "{\"ownerId\":20}")));
+
+        assertThat(ownership.size()).isEqualTo(2);
+        assertThat(ownership.isOwner(1, 10)).isTrue();
+        assertThat(ownership.isOwner(2, 11)).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void handle_ShouldBeIdempotent_WhenEventsAreRedelivered() {
+        List<OutboxMessage> events = List.of(
+                event(1, 1, Outbox.CREATED, "{\"ownerId\":10}"),
+                event(2, 1, Outbox.DELETED, "{\"ownerId\":10}"));
+
+        ownership.handle(events);
+        ownership.handle(events);
+
+        assertThat(ownership.size()).isZero();
+    }
+
+    private static OutboxMessage event(long id, long itemId, String type, String payload) {
+        return new OutboxMessage(id, Outbox.ITEM, itemId, type, payload, LocalDateTime.now());
+    }
+}
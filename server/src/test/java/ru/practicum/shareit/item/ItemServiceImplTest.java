@@ -5,16 +5,25 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingSchedule;
+import ru.practicum.shareit.booking.dto.ItemBookingsDto;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.ItemTrigramIndex;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.CheckConsistencyService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.LongPredicate;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,6 +42,21 @@ class ItemServiceImplTest {
     @Mock
     private ItemMapper mapper;
 
+    @Mock
+    private BookingSchedule schedule;
+
+    @Mock
+    private ItemSearchEngine searchEngine;
+
+    @Mock
+    private ItemTrigramIndex trigramIndex;
+
+    @Mock
+    private ItemSuggestIndex suggestIndex;
+
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -117,6 +141,7 @@ class ItemServiceImplTest {
         assertThat(result).isEqualTo(itemDto);
         verify(checker).isUserExistsForStrictCheck(10L);
         verify(repository).save(item);
+        verify(outbox).append(eq(Outbox.ITEM), eq(item.getId()), eq(Outbox.CREATED), anyMap());
     }
 
     @Test
@@ -124,11 +149,18 @@ class ItemServiceImplTest {
         Page<Item> page = new PageImpl<>(List.of(item));
         when(checker.isUserExistsForStrictCheck(10L)).thenReturn(true);
         when(repository.findByOwnerId(eq(10L), any(Pageable.class))).thenReturn(page);
-        when(mapper.toItemExtDto(item)).thenReturn(itemDto);
+        ItemBookingsDto bookings = new ItemBookingsDto(null, null);
+        when(checker.getLastAndNextBookings(List.of(1L))).thenReturn(Map.of(1L, bookings));
+        when(commentRepository.findAllByItemIdIn(List.of(1L), Sort.by(Sort.Direction.DESC, "created")))
+                .thenReturn(List.of(comment));
+        when(mapper.toCommentDto(comment)).thenReturn(commentDto);
+        when(mapper.toItemExtDto(item, bookings, List.of(commentDto))).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.getItemsByOwner(10L, 0, 10);
 
         assertThat(result).hasSize(1).containsExactly(itemDto);
+        verify(checker).getLastAndNextBookings(List.of(1L));
+        verify(mapper, never()).toItemExtDto(item);
     }
 
     @Test
@@ -138,6 +170,7 @@ class ItemServiceImplTest {
         itemService.delete(1L, 10L);
 
         verify(repository).deleteById(1L);
+        verify(outbox).append(eq(Outbox.ITEM), eq(1L), eq(Outbox.DELETED), anyMap());
     }
 
     @Test
@@ -151,20 +184,126 @@ class ItemServiceImplTest {
 
     @Test
     void getItemsBySearchQuery_ShouldReturnList_WhenTextNotEmpty() {
-        Page<Item> page = new PageImpl<>(List.of(item));
-        when(repository.getItemsBySearchQuery(eq("test"), any(Pageable.class))).thenReturn(page);
-        when(mapper.toItemDto(item)).thenReturn(itemDto);
+        when(searchEngine.search("test", 0, 10, ItemSearchSort.NAME)).thenReturn(List.of(1L));
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        when(commentRepository.findAllByItemIdIn(List.of(1L), Sort.by(Sort.Direction.DESC, "created")))
+                .thenReturn(List.of());
+        when(mapper.toItemDto(item, List.of())).thenReturn(itemDto);
 
-        List<ItemDto> result = itemService.getItemsBySearchQuery("test", 0, 10);
+        List<ItemDto> result = itemService.getItemsBySearchQuery("test", 0, 10, false, "name", null, null);
 
         assertThat(result).hasSize(1).containsExactly(itemDto);
+        verify(repository, never()).getItemsBySearchQuery(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldKeepIndexOrder() {
+        Item other = new Item(2L, "A item", "Description", true, item.getOwner(), null);
+        ItemDto otherDto = new ItemDto(2L, "A item", "Description", true, null, null, null, null, null);
+        when(searchEngine.search("item", 0, null, ItemSearchSort.NAME)).thenReturn(List.of(2L, 1L));
+        when(repository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, other));
+        when(mapper.toItemDto(item, List.of())).thenReturn(itemDto);
+        when(mapper.toItemDto(other, List.of())).thenReturn(otherDto);
+
+        assertThat(itemService.getItemsBySearchQuery("item", 0, null, false, "name", null, null))
+                .containsExactly(otherDto, itemDto);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldUseTrigramIndex_WhenFuzzy() {
+        when(trigramIndex.search("tset", 0, 10)).thenReturn(List.of(1L));
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        when(mapper.toItemDto(item, List.of())).thenReturn(itemDto);
+
+        assertThat(itemService.getItemsBySearchQuery("tset", 0, 10, true, "name", null, null)).containsExactly(itemDto);
+        verifyNoInteractions(searchEngine);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldPassRelevanceSort() {
+        when(searchEngine.search("test", 0, 10, ItemSearchSort.RELEVANCE)).thenReturn(List.of(1L));
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        when(mapper.toItemDto(item, List.of())).thenReturn(itemDto);
+
+        assertThat(itemService.getItemsBySearchQuery("test", 0, 10, false, "RELEVANCE", null, null)).containsExactly(itemDto);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldThrow_WhenSortUnknown() {
+        assertThatThrownBy(() -> itemService.getItemsBySearchQuery("test", 0, 10, false, "price", null, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Unknown sort: price");
+        verifyNoInteractions(searchEngine);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldKeepOnlyItemsFreeInWindow() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(2);
+        when(schedule.isFree(1L, from, to)).thenReturn(true);
+        when(schedule.isFree(2L, from, to)).thenReturn(false);
+        when(searchEngine.search(eq("test"), eq(0), eq(10), eq(ItemSearchSort.NAME), any()))
+                .thenAnswer(invocation -> {
+                    LongPredicate free = invocation.getArgument(4);
+                    return free.test(1L) && !free.test(2L) ? List.of(1L) : List.of();
+                });
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        when(mapper.toItemDto(item, List.of())).thenReturn(itemDto);
+
+        assertThat(itemService.getItemsBySearchQuery("test", 0, 10, false, "name", from, to))
+                .containsExactly(itemDto);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldFilterFuzzyResultsByWindow() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(2);
+        when(trigramIndex.search(eq("tset"), eq(0), eq(10), any())).thenReturn(List.of());
+
+        assertThat(itemService.getItemsBySearchQuery("tset", 0, 10, true, "name", from, to)).isEmpty();
+        verify(trigramIndex).search(eq("tset"), eq(0), eq(10), any());
+        verifyNoInteractions(searchEngine);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldThrow_WhenWindowIncomplete() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThatThrownBy(() -> itemService.getItemsBySearchQuery("test", 0, 10, false, "name", from, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("окончание периода");
+        assertThatThrownBy(() -> itemService.getItemsBySearchQuery("test", 0, 10, false, "name", from, from))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("раньше его окончания");
+        verifyNoInteractions(searchEngine);
+    }
+
+    @Test
+    void getItemsBySearchQuery_ShouldThrow_WhenSizeIsZero() {
+        assertThatThrownBy(() -> itemService.getItemsBySearchQuery("test", 0, 0, false, "name", null, null))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(searchEngine);
+    }
+
+    @Test
+    void getSuggestions_ShouldReturnTermsFromSuggestIndex() {
+        when(suggestIndex.suggest("дре", 5)).thenReturn(List.of("дрель", "древний"));
+
+        assertThat(itemService.getSuggestions("дре", 5)).containsExactly("дрель", "древний");
+    }
+
+    @Test
+    void getSuggestions_ShouldThrow_WhenLimitNotPositive() {
+        assertThatThrownBy(() -> itemService.getSuggestions("дре", 0))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(suggestIndex);
     }
 
     @Test
     void getItemsBySearchQuery_ShouldReturnEmpty_WhenTextEmptyOrNull() {
-        assertThat(itemService.getItemsBySearchQuery(null, 0, 10)).isEmpty();
-        assertThat(itemService.getItemsBySearchQuery("", 0, 10)).isEmpty();
-        assertThat(itemService.getItemsBySearchQuery("   ", 0, 10)).isEmpty();
+        assertThat(itemService.getItemsBySearchQuery(null, 0, 10, false, "name", null, null)).isEmpty();
+        assertThat(itemService.getItemsBySearchQuery("", 0, 10, false, "name", null, null)).isEmpty();
+        assertThat(itemService.getItemsBySearchQuery("   ", 0, 10, false, "name", null, null)).isEmpty();
     }
 
     @Test
@@ -228,6 +367,24 @@ class ItemServiceImplTest {
         assertThat(result).hasSize(1).containsExactly(commentDto);
     }
 
+    @Test
+    void getCommentsByItemIds_ShouldGroupCommentsByItem() {
+        when(commentRepository.findAllByItemIdIn(Set.of(1L, 2L), Sort.by(Sort.Direction.DESC, "created")))
+                .thenReturn(List.of(comment));
+        when(mapper.toCommentDto(comment)).thenReturn(commentDto);
+
+        Map<Long, List<CommentDto>> result = itemService.getCommentsByItemIds(Set.of(1L, 2L));
+
+        assertThat(result).containsOnlyKeys(1L);
+        assertThat(result.get(1L)).containsExactly(commentDto);
+    }
+
+    @Test
+    void getCommentsByItemIds_ShouldNotQuery_WhenNoItems() {
+        assertThat(itemService.getCommentsByItemIds(Set.of())).isEmpty();
+        verifyNoInteractions(commentRepository);
+    }
+
     @Test
     void getItemsByRequestId_ShouldReturnList() {
         when(repository.findAllByRequestId(5L, Sort.by(Sort.Direction.DESC, "id")))
@@ -238,4 +395,49 @@ class ItemServiceImplTest {
 
         assertThat(result).hasSize(1).containsExactly(itemDto);
     }
+
+    @Test
+    void getItemAvailability_ShouldReturnAvailable_WhenPeriodIsFree() {
+        LocalDateTime from = now.plusDays(1);
+        LocalDateTime to = now.plusDays(2);
+        when(repository.findById(1L)).thenReturn(Optional.of(item));
+        when(schedule.isFree(1L, from, to)).thenReturn(true);
+
+        ItemAvailabilityDto result = itemService.getItemAvailability(1L, from, to);
+
+        assertThat(result.getAvailable()).isTrue();
+        assertThat(result.getNextFreeStart()).isEqualTo(from);
+    }
+
+    @Test
+    void getItemAvailability_ShouldReturnNextFreeStart_WhenPeriodIsTaken() {
+        LocalDateTime from = now.plusDays(1);
+        LocalDateTime to = now.plusDays(2);
+        when(repository.findById(1L)).thenReturn(Optional.of(item));
+        when(schedule.isFree(1L, from, to)).thenReturn(false);
+        when(schedule.nextFreeStart(1L, from, to)).thenReturn(now.plusDays(3));
+
+        ItemAvailabilityDto result = itemService.getItemAvailability(1L, from, to);
+
+        assertThat(result.getAvailable()).isFalse();
+        assertThat(result.getNextFreeStart()).isEqualTo(now.plusDays(3));
+    }
+
+    @Test
+    void getItemAvailability_ShouldReturnUnavailable_WhenItemIsNotAvailable() {
+        item.setAvailable(false);
+        when(repository.findById(1L)).thenReturn(Optional.of(item));
+
+        ItemAvailabilityDto result = itemService.getItemAvailability(1L, now.plusDays(1), now.plusDays(2));
+
+        assertThat(result.getAvailable()).isFalse();
+        assertThat(result.getNextFreeStart()).isNull();
+        verifyNoInteractions(schedule);
+    }
+
+    @Test
+    void getItemAvailability_ShouldThrow_WhenPeriodIsInvalid() {
+        assertThatThrownBy(() -> itemService.getItemAvailability(1L, now.plusDays(2), now.plusDays(1)))
+                .isInstanceOf(ValidationException.class);
+    }
 }
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Map.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemAnalyzerTest {
+
+    @Test
+    void simple_ShouldSplitOnNonWordCharacters_AndLowerCase() {
+        assertThat(ItemAnalyzer.SIMPLE.tokens("Дрель-миксер, 220В; дрель"))
+                .containsExactly("дрель", "миксер", "220в");
+        assertThat(ItemAnalyzer.SIMPLE.tokens(null)).isEmpty();
+        assertThat(ItemAnalyzer.SIMPLE.tokens(" ,. ")).isEmpty();
+    }
+
+    @Test
+    void normalizing_ShouldFoldYo_AndDropStressMarks() {
+        assertThat(ItemAnalyzer.NORMALIZING.tokens("Отвёртка ОТВЁРТКА отве́ртка"))
+                .containsExactly("отвертка");
+    }
+
+    @Test
+    void normalizing_ShouldComposeDecomposedLetters() {
+        assertThat(ItemAnalyzer.NORMALIZING.tokens("Ча\u0438\u0306ник")).containsExactly("чайник");
+    }
+
+    @Test
+    void russianEnglish_ShouldDropStopWords() {
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("Чехол для и от дождя")).containsExactly("чехол", "дожд");
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("The case for a drill")).containsExactly("case", "drill");
+    }
+
+    @Test
+    void russianEnglish_ShouldStemRussianWordForms() {
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("дрель дрели дрелью дрелей")).containsExactly("дрел");
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("аккумуляторная аккумуляторный аккумуляторного"))
+                .containsExactly("аккумуляторн");
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("аккумулятор аккумуляторы аккумуляторов"))
+                .containsExactly("аккумулятор");
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("Отвёртка отвертки")).containsExactly("отвертк");
+    }
+
+    @Test
+    void russianEnglish_ShouldKeepShortStems() {
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("пол сом лес")).containsExactly("пол", "сом", "лес");
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("пила")).containsExactly("пил");
+    }
+
+    @Test
+    void russianEnglish_ShouldStemEnglishPlurals() {
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.tokens("drills batteries boxes glass bus"))
+                .containsExactly("drill", "battery", "boxe", "glass", "bus");
+    }
+
+    @Test
+    void frequencies_ShouldCountStemmedTerms() {
+        assertThat(ItemAnalyzer.RUSSIAN_ENGLISH.frequencies("Дрель и дрели, пила"))
+                .containsExactly(entry("дрел", 2), entry("пил", 1));
+    }
+
+    @Test
+    void forName_ShouldRejectUnknownAnalyzer() {
+        assertThat(ItemAnalyzer.forName("Russian-English")).isSameAs(ItemAnalyzer.RUSSIAN_ENGLISH);
+        assertThatThrownBy(() -> ItemAnalyzer.forName("german")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemIndexUpdaterTest {
+    private ItemRepository repository;
+    private SimpleMeterRegistry registry;
+    private ItemSearchIndex searchIndex;
+    private ItemSuggestIndex suggestIndex;
+    private ItemIndexUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        registry = new SimpleMeterRegistry();
+        searchIndex = new ItemSearchIndex(repository, "russian-english", 3.0, "", 10000, 4);
+        suggestIndex = new ItemSuggestIndex(repository, 10);
+        updater = new ItemIndexUpdater(List.of(searchIndex, suggestIndex), repository, registry, 100,
+                600000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        updater.stop();
+        searchIndex.stop();
+    }
+
+    @Test
+    void handle_ShouldApplyCurrentStateFromRepositoryToEveryIndex() {
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(item(1L, "Дрель", "Простая дрель", true)));
+
+        updater.handle(List.of(
+                event(1, 1L, Outbox.CREATED),
+                event(2, 2L, Outbox.CREATED),
+                new OutboxMessage(3L, Outbox.BOOKING, 5L, Outbox.CREATED, "{}", LocalDateTime.now()),
+                event(4, 2L, Outbox.DELETED)));
+
+        assertThat(searchIndex.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(suggestIndex.suggest("дре", 10)).containsExactly("дрель");
+        assertThat(registry.get("shareit.item.index.lag").timer().count()).isEqualTo(3);
+        verify(repository).findAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    void handle_ShouldRemoveItemsMissingFromRepository() {
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(item(2L, "Дрель ударная", "Мощная", true)));
+        updater.handle(List.of(event(1, 2L, Outbox.CREATED)));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of());
+
+        updater.handle(List.of(event(2, 2L, Outbox.DELETED)));
+
+        assertThat(searchIndex.search("дрель", 0, null, ItemSearchSort.NAME)).isEmpty();
+        assertThat(suggestIndex.suggest("уда", 10)).isEmpty();
+    }
+
+    @Test
+    void handle_ShouldPropagateRepositoryFailure_SoThatBatchIsRetried() {
+        when(repository.findAllById(anyIterable())).thenThrow(new IllegalStateException("База недоступна"));
+
+        assertThatThrownBy(() -> updater.handle(List.of(event(1, 1L, Outbox.CREATED))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void handle_ShouldRepairItemAtNextVerify_WhenIndexFails() {
+        Item current = item(1L, "Дрель", "Простая дрель", true);
+        boolean[] failing = {true};
+        ItemIndex flaky = new ItemIndex() {
+            @Override
+            public void index(Item item) {
+                if (failing[0]) {
+                    throw new IllegalStateException("Сбой индекса");
+                }
+                searchIndex.index(item);
+            }
+
+            @Override
+            public void remove(Long itemId) {
+            }
+
+            @Override
+            public boolean isCurrent(Item item) {
+                return true;
+            }
+        };
+        updater = new ItemIndexUpdater(List.of(flaky), repository, registry, 100, 600000, 60000);
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(current));
+        updater.handle(List.of(event(1, 1L, Outbox.CREATED)));
+        assertThat(searchIndex.search("дрель", 0, null, ItemSearchSort.NAME)).isEmpty();
+
+        failing[0] = false;
+        when(repository.count()).thenReturn(0L);
+        updater.verify();
+
+        assertThat(searchIndex.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+    }
+
+    @Test
+    void verify_ShouldReportDrift_AndRepairStaleItems() {
+        Item current = item(1L, "Дрель", "Простая дрель", true);
+        searchIndex.index(item(1L, "Пила", "Ножовка", true));
+        suggestIndex.index(current);
+        when(repository.count()).thenReturn(1L);
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(current)));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(current));
+
+        updater.verify();
+
+        assertThat(registry.get("shareit.item.index.drift").tag("index", "ItemSearchIndex").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(registry.get("shareit.item.index.drift").tag("index", "ItemSuggestIndex").gauge().value())
+                .isZero();
+        assertThat(searchIndex.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(searchIndex.isCurrent(current)).isTrue();
+    }
+
+    @Test
+    void compact_ShouldKeepSearchResults() {
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            items.add(item(id, "Палатка " + id, "Туристическая", true));
+        }
+        when(repository.findAllById(anyIterable())).thenReturn(items).thenReturn(items.subList(45, 50));
+        List<OutboxMessage> created = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            created.add(event(id, id, Outbox.CREATED));
+        }
+        updater.handle(created);
+        updater.handle(created);
+
+        updater.compact();
+
+        assertThat(searchIndex.search("палатка", 0, null, ItemSearchSort.NAME)).hasSize(5);
+    }
+
+    private static OutboxMessage event(long id, Long itemId, String type) {
+        return new OutboxMessage(id, Outbox.ITEM, itemId, type, "{}", LocalDateTime.now());
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemScanSearchTest {
+    private ItemRepository repository;
+    private ItemScanSearch search;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        search = new ItemScanSearch(repository, 2, 1 << 20);
+        search.index(item(1L, "Дрель", "Простая дрель", true));
+        search.index(item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", true));
+        search.index(item(3L, "Отвёртка", "Аккумуляторная отвёртка", true));
+        search.index(item(4L, "Дрель ударная", "Сломана", false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        search.stop();
+    }
+
+    @Test
+    void search_ShouldMatchSubstringOfNameOrDescription_IgnoringCase() {
+        assertThat(search.search("РЕЛ", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 1L);
+        assertThat(search.search("в комп", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(search.search("ёртка", 0, null, ItemSearchSort.NAME)).containsExactly(3L);
+        assertThat(search.search("ударная", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldNotMatchAcrossNameAndDescriptionOrItems() {
+        assertThat(search.search("дрельпростая", 0, null, ItemSearchSort.NAME)).isEmpty();
+        assertThat(search.search("комплектеотвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+        assertThat(search.search("\u0000", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldPaginateByName_AfterFilter() {
+        assertThat(search.search("аккум", 0, 1, ItemSearchSort.RELEVANCE)).containsExactly(2L);
+        assertThat(search.search("аккум", 1, 1, ItemSearchSort.NAME)).containsExactly(3L);
+        assertThat(search.search("аккум", 0, 1, ItemSearchSort.NAME, id -> id != 2L)).containsExactly(3L);
+        assertThat(search.search("аккум", 1, 5, ItemSearchSort.NAME, id -> id != 2L)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldReplacePreviousText_AndRemoveUnavailable() {
+        search.index(item(1L, "Пила", "Ножовка", true));
+        search.index(item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", false));
+        search.remove(3L);
+
+        assertThat(search.search("дрель", 0, null, ItemSearchSort.NAME)).isEmpty();
+        assertThat(search.search("ножов", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(search.search("аккум", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldCompactColumn_WhenMostRowsAreStale() {
+        String description = "x".repeat(1000);
+        for (int version = 0; version < 200; version++) {
+            search.index(item(10L, "Стремянка " + version, description, true));
+        }
+
+        assertThat(search.bytes()).isLessThan(100_000);
+        assertThat(search.search("стремянка", 0, null, ItemSearchSort.NAME)).containsExactly(10L);
+        assertThat(search.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void search_ShouldMatchStringContains_OnRandomCatalog_WithAnyPartitioning() {
+        search.stop();
+        search = new ItemScanSearch(repository, 4, 256);
+        Random random = new Random(11);
+        String alphabet = "абвгдеёabc Ж";
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            items.add(item(id, word(random, alphabet, 1 + random.nextInt(12)),
+                    word(random, alphabet, random.nextInt(40)), random.nextInt(5) > 0));
+        }
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(items));
+        search.warmUp();
+
+        for (int query = 0; query < 200; query++) {
+            String text = word(random, alphabet, 1 + random.nextInt(4));
+            String lower = text.toLowerCase(Locale.ROOT);
+            List<Long> expected = items.stream()
+                    .filter(Item::getAvailable)
+                    .filter(item -> item.getName().toLowerCase(Locale.ROOT).contains(lower)
+                            || item.getDescription().toLowerCase(Locale.ROOT).contains(lower))
+                    .sorted(Comparator.comparing(Item::getName).thenComparing(Item::getId))
+                    .map(Item::getId)
+                    .toList();
+
+            assertThat(search.search(text, 0, null, ItemSearchSort.NAME)).as(text).isEqualTo(expected);
+        }
+    }
+
+    private static String word(Random random, String alphabet, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null);
+    }
+}
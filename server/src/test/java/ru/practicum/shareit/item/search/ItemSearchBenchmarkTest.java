@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение полнотекстового поиска PostgreSQL и просмотра столбца текстов вне кучи (ItemScanSearch)
+ * с прежним запросом LIKE на сгенерированном каталоге.
+ * Нужна пустая база PostgreSQL, схема в ней пересоздаётся:
+ * <pre>
+ * mvn test -pl server -Dtest=ItemSearchBenchmarkTest \
+ *     -Dshareit.benchmark.datasource.url=jdbc:postgresql://localhost:5432/shareit_bench \
+ *     -Dshareit.benchmark.datasource.username=username -Dshareit.benchmark.datasource.password=password \
+ *     [-Dshareit.benchmark.items=200000] [-Dshareit.benchmark.queries=200]
+ * </pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark.datasource.url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.url=${shareit.benchmark.datasource.url}",
+        "spring.datasource.username=${shareit.benchmark.datasource.username:username}",
+        "spring.datasource.password=${shareit.benchmark.datasource.password:password}",
+        "spring.sql.init.platform=postgresql",
+        "shareit.item.search.engine=postgres"
+})
+class ItemSearchBenchmarkTest {
+    private static final String[] WORDS = {"дрель", "пила", "отвёртка", "молоток", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "колонка", "фотоаппарат", "штатив", "утюг", "пылесос", "гитара",
+            "аккумуляторная", "ударная", "складная", "туристическая", "детская", "профессиональная", "новая",
+            "мощная", "лёгкая", "большая", "компактная", "электрическая", "ручная", "зарядка", "чехол"};
+    private static final int BATCH = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository repository;
+
+    @Autowired
+    private PostgresItemSearch search;
+
+    @Test
+    void compareFullTextWithLike() {
+        int items = Integer.getInteger("shareit.benchmark.items", 200_000);
+        int queries = Integer.getInteger("shareit.benchmark.queries", 200);
+        generateCatalog(items);
+
+        Random random = new Random(7);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < queries; i++) {
+            texts.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        long[] like = measure(texts, text -> repository.getItemsBySearchQuery(text,
+                PageRequest.of(0, 20, Sort.by("name"))).getContent().size());
+        long[] fullText = measure(texts, text -> search.search(text, 0, 20, ItemSearchSort.NAME).size());
+        ItemScanSearch scan = new ItemScanSearch(repository, 0, 1 << 20);
+        long[] scanned;
+        try {
+            scan.warmUp();
+            scanned = measure(texts, text -> scan.search(text, 0, 20, ItemSearchSort.NAME).size());
+            // Порядок равных названий зависит от правила сравнения строк в базе, поэтому сверяется только число.
+            assertThat(scan.search(WORDS[0], 0, null, ItemSearchSort.NAME)).hasSize((int) likeTotal(WORDS[0]));
+        } finally {
+            scan.stop();
+        }
+
+        log.info("Каталог: {} вещей, {} запросов по 20 результатов", items, queries);
+        log.info("LIKE:      {}", summary(like));
+        log.info("tsvector:  {}", summary(fullText));
+        log.info("scan:      {}", summary(scanned));
+        assertThat(search.search(WORDS[0], 0, 20, ItemSearchSort.NAME)).isNotEmpty();
+    }
+
+    private long likeTotal(String text) {
+        return repository.getItemsBySearchQuery(text, PageRequest.of(0, 1)).getTotalElements();
+    }
+
+    private void generateCatalog(int items) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Benchmark', 'benchmark@example.com')");
+        Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'benchmark@example.com'",
+                Long.class);
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < items; i++) {
+            batch.add(new Object[]{phrase(random, 2), phrase(random, 8), random.nextInt(10) > 0, ownerId});
+            if (batch.size() == BATCH || i == items - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) " +
+                        "VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE items");
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                phrase.append(' ');
+            }
+            phrase.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+
+    private static long[] measure(List<String> texts, Function<String, Integer> query) {
+        for (int i = 0; i < Math.min(20, texts.size()); i++) {
+            query.apply(texts.get(i));
+        }
+        long[] nanos = new long[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            long started = System.nanoTime();
+            query.apply(texts.get(i));
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static String summary(long[] sortedNanos) {
+        double average = Arrays.stream(sortedNanos).average().orElse(0) / 1_000_000;
+        return String.format("среднее %.2f мс, p50 %.2f мс, p99 %.2f мс", average,
+                sortedNanos[sortedNanos.length / 2] / 1_000_000.0,
+                sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000_000.0);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemRepository repository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        index = new ItemSearchIndex(repository, "russian-english", 3.0, "", 10000, 4);
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", true));
+        index.index(item(3L, "Отвёртка", "Аккумуляторная отвёртка", true));
+        index.index(item(4L, "Дрель ударная", "Сломана", false));
+    }
+
+    @Test
+    void search_ShouldMatchNameOrDescription_IgnoringCase() {
+        assertThat(index.search("ДРЕЛЬ", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 1L);
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).containsExactly(3L);
+    }
+
+    @Test
+    void search_ShouldMatchWordPrefixes_AndRequireAllWords() {
+        assertThat(index.search("аккум", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 3L);
+        assertThat(index.search("аккум дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("аккум пила", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldMatchOtherWordForms_AndIgnoreYoAndStopWords() {
+        index.index(item(6L, "Дрели и отвертки", "Для дома", true));
+
+        assertThat(index.search("дрелью", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 6L, 1L);
+        assertThat(index.search("отвертку", 0, null, ItemSearchSort.NAME)).containsExactly(6L, 3L);
+        assertThat(index.search("дрель для дома", 0, null, ItemSearchSort.NAME)).containsExactly(6L);
+        assertThat(index.search("для", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldSkipUnavailableItems_EvenWhenNameMatches() {
+        assertThat(index.search("ударная", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldPaginateOrderedByName() {
+        assertThat(index.search("аккум", 1, 1, ItemSearchSort.NAME)).containsExactly(3L);
+        assertThat(index.search("аккум", 0, 1, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("аккум", 5, 10, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches_WhenSortedByRelevance() {
+        index.index(item(6L, "Набор бит", "Подходит для дрели и дрель-шуруповёрта", true));
+
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L, 1L, 6L);
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.RELEVANCE)).containsExactly(1L, 2L, 6L);
+    }
+
+    @Test
+    void search_ShouldScorePrefixMatches_WhenSortedByRelevance() {
+        index.index(item(6L, "Пылесос", "Аккумуляторная", true));
+
+        assertThat(index.search("аккум", 0, null, ItemSearchSort.RELEVANCE)).containsExactly(2L, 6L, 3L);
+        assertThat(index.search("аккум дрель", 0, null, ItemSearchSort.RELEVANCE)).containsExactly(2L);
+    }
+
+    @Test
+    void search_ShouldPaginateOrderedByRelevance() {
+        assertThat(index.search("дрель", 0, 1, ItemSearchSort.RELEVANCE)).containsExactly(1L);
+        assertThat(index.search("дрель", 1, 1, ItemSearchSort.RELEVANCE)).containsExactly(2L);
+        assertThat(index.search("дрель", 2, 1, ItemSearchSort.RELEVANCE)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldApplyFilterBeforePagination() {
+        index.index(item(6L, "Дрель-миксер", "Для раствора", true));
+
+        assertThat(index.search("дрель", 0, 1, ItemSearchSort.NAME, id -> id != 2L)).containsExactly(1L);
+        assertThat(index.search("дрель", 1, 1, ItemSearchSort.NAME, id -> id != 2L)).containsExactly(6L);
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.RELEVANCE, id -> id == 6L)).containsExactly(6L);
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTerms_OnUpdate() {
+        index.index(item(1L, "Пила", "Ножовка", true));
+
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("пила", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+    }
+
+    @Test
+    void remove_ShouldDropItemAndEmptyTerms() {
+        int terms = index.termCount();
+
+        index.remove(3L);
+
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+        assertThat(index.termCount()).isEqualTo(terms - 1);
+    }
+
+    @Test
+    void warmUp_ShouldLoadItemsFromRepository() {
+        index = new ItemSearchIndex(repository, "russian-english", 3.0, "", 10000, 4);
+        when(repository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item(5L, "Стремянка", "Три ступени", true))));
+
+        index.warmUp();
+
+        assertThat(index.search("ступени", 0, null, ItemSearchSort.NAME)).containsExactly(5L);
+    }
+
+    @Test
+    void postings_ShouldIntersectAndUnionSortedArrays() {
+        long[] left = {1, 3, 5, 7, 9, 11, 13};
+        long[] right = {2, 3, 4, 13, 20};
+
+        assertThat(Postings.intersect(left, right)).containsExactly(3, 13);
+        assertThat(Postings.union(left, right)).containsExactly(1, 2, 3, 4, 5, 7, 9, 11, 13, 20);
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSearchSegmentsTest {
+    @TempDir
+    private Path directory;
+
+    private ItemRepository repository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        index = open();
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", true));
+        index.index(item(3L, "Отвёртка", "Аккумуляторная отвёртка", true));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        index.stop();
+    }
+
+    @Test
+    void flush_ShouldServeSameResultsFromMappedSegment() {
+        List<Long> byName = index.search("аккум", 0, null, ItemSearchSort.NAME);
+        List<Long> byRelevance = index.search("дрель", 0, null, ItemSearchSort.RELEVANCE);
+
+        index.flush();
+
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("аккум", 0, null, ItemSearchSort.NAME)).isEqualTo(byName).containsExactly(2L, 3L);
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.RELEVANCE)).isEqualTo(byRelevance);
+        assertThat(index.search("аккум дрель", 0, 1, ItemSearchSort.NAME, id -> true)).containsExactly(2L);
+    }
+
+    @Test
+    void changesAfterFlush_ShouldHideOlderVersions_AlsoAfterNextFlush() {
+        index.flush();
+        index.index(item(1L, "Пила", "Ножовка", true));
+        index.remove(3L);
+
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("пила", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+
+        index.flush();
+
+        assertThat(index.segmentCount()).isEqualTo(2);
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.RELEVANCE)).containsExactly(2L);
+        assertThat(index.search("пила", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void merge_ShouldKeepOnlyVisibleVersions_AndDeleteOldFiles() throws IOException {
+        index.flush();
+        index.index(item(1L, "Пила", "Ножовка", true));
+        index.remove(3L);
+        index.flush();
+
+        index.merge();
+
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("пила", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".idx"))).hasSize(1);
+        }
+    }
+
+    @Test
+    void restart_ShouldSearchDatabaseUntilWarmUp_AndReconcileWithDatabase() throws InterruptedException {
+        index.stop();
+        index = open();
+        // База пересоздана: из сохранённых в сегменте вещей осталась только вторая.
+        when(repository.getItemsBySearchQuery(eq("аккум"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", true))));
+
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("аккум", 0, null, ItemSearchSort.NAME)).containsExactly(2L);
+        assertThat(index.search("аккум", 1, null, ItemSearchSort.NAME)).isEmpty();
+
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                item(1L, "Дрель", "Простая дрель", true),
+                item(2L, "Аккумуляторная дрель", "Аккумулятор в комплекте", false))));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of());
+
+        index.warmUp();
+
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(index.search("отвёртка", 0, null, ItemSearchSort.NAME)).isEmpty();
+        verify(repository, times(2)).getItemsBySearchQuery(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void open_ShouldDropSegments_WhenBuiltByAnotherAnalyzer() throws IOException, InterruptedException {
+        index.stop();
+        index = new ItemSearchIndex(repository, "simple", 3.0, directory.toString(), 10000, 4);
+
+        assertThat(index.segmentCount()).isZero();
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".idx"))).isEmpty();
+        }
+
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                item(1L, "Дрель", "Простая дрель", true))));
+
+        index.warmUp();
+
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).containsExactly(1L);
+        assertThat(index.search("дрелью", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void open_ShouldStartEmpty_WhenSegmentIsCorrupted() throws IOException, InterruptedException {
+        index.stop();
+        Files.writeString(directory.resolve("segment-000000.idx"), "не сегмент");
+        index = open();
+
+        assertThat(index.segmentCount()).isZero();
+        assertThat(index.search("дрель", 0, null, ItemSearchSort.NAME)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldFlushInBackground_WhenDeltaReachesThreshold() throws InterruptedException {
+        index.stop();
+        index = new ItemSearchIndex(repository, "russian-english", 3.0, directory.toString(), 2, 1);
+        when(repository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        index.warmUp();
+
+        for (long id = 10; id < 20; id++) {
+            index.index(item(id, "Стремянка " + id, "Три ступени", true));
+        }
+        for (int attempt = 0; attempt < 100 && index.segmentCount() == 0; attempt++) {
+            Thread.sleep(20);
+        }
+
+        assertThat(index.segmentCount()).isPositive();
+        assertThat(index.search("ступени", 0, null, ItemSearchSort.NAME)).hasSize(10);
+    }
+
+    private ItemSearchIndex open() {
+        return new ItemSearchIndex(repository, "russian-english", 3.0, directory.toString(), 10000, 4);
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSuggestIndexTest {
+    private ItemRepository repository;
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        index = new ItemSuggestIndex(repository, 3);
+        index.index(item(1L, "Дрель", true));
+        index.index(item(2L, "Аккумуляторная дрель", true));
+        index.index(item(3L, "Дрель ударная", true));
+        index.index(item(4L, "Древний сундук", true));
+        index.index(item(5L, "Дрожжи", false));
+    }
+
+    @Test
+    void suggest_ShouldReturnTermsByPopularity() {
+        assertThat(index.suggest("др", 10)).containsExactly("дрель", "древний");
+        assertThat(index.suggest("ДРЕ", 1)).containsExactly("дрель");
+        assertThat(index.suggest("дрел", 10)).containsExactly("дрель");
+    }
+
+    @Test
+    void suggest_ShouldCompleteLastWord_AndCapByTopK() {
+        index.index(item(6L, "Акустика", true));
+        index.index(item(7L, "Аквариум", true));
+        index.index(item(8L, "Аккордеон", true));
+
+        assertThat(index.suggest("дрель ак", 10)).hasSize(3).contains("аккумуляторная");
+        assertThat(index.suggest("дрель ", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(index.suggest("пила", 10)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldUpdatePopularity_OnItemChanges() {
+        index.index(item(4L, "Древний дрезина", true));
+        index.index(item(9L, "Дрезина", true));
+        index.index(item(10L, "Дрезина", true));
+
+        assertThat(index.suggest("дре", 2)).containsExactly("дрезина", "дрель");
+
+        index.remove(9L);
+        index.remove(10L);
+        index.index(item(4L, "Сундук", false));
+
+        assertThat(index.suggest("дре", 10)).containsExactly("дрель");
+        assertThat(index.suggest("дрез", 10)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldKeepSplitAndMergedNodesConsistent() {
+        index.index(item(11L, "Дрелька", true));
+        index.remove(1L);
+        index.remove(2L);
+        index.remove(3L);
+
+        assertThat(index.suggest("дрел", 10)).containsExactly("дрелька");
+        assertThat(index.suggest("дрелька", 10)).containsExactly("дрелька");
+        assertThat(index.suggest("дрельк", 10)).containsExactly("дрелька");
+    }
+
+    @Test
+    void warmUp_ShouldLoadItemsFromRepository() {
+        index = new ItemSuggestIndex(repository, 3);
+        when(repository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item(12L, "Стремянка", true))));
+
+        index.warmUp();
+
+        assertThat(index.suggest("стр", 5)).containsExactly("стремянка");
+    }
+
+    private static Item item(Long id, String name, boolean available) {
+        return new Item(id, name, "Описание", available, null, null);
+    }
+}
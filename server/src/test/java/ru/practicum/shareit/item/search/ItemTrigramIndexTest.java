@@ -0,0 +1,115 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemTrigramIndexTest {
+    private ItemRepository repository;
+    private ItemTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        index = new ItemTrigramIndex(repository, 0.3, 32);
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(2L, "Cordless drill", "Battery included", true));
+        index.index(item(3L, "Отвёртка", "Аккумуляторная отвёртка", true));
+        index.index(item(4L, "Дрель ударная", "Сломана", false));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        assertThat(index.search("дрелъ", 0, null)).containsExactly(1L);
+        assertThat(index.search("dril", 0, null)).containsExactly(2L);
+        assertThat(index.search("отвертка", 0, null)).containsExactly(3L);
+    }
+
+    @Test
+    void search_ShouldRankExactMatchFirst_AndRequireAllWords() {
+        index.index(item(5L, "Дрели", "Набор", true));
+
+        assertThat(index.search("дрель", 0, null)).containsExactly(1L, 5L);
+        assertThat(index.search("cordles dril", 0, null)).containsExactly(2L);
+        assertThat(index.search("дрель battery", 0, null)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldSkipItemsRejectedByFilter() {
+        index.index(item(5L, "Дрели", "Набор", true));
+
+        assertThat(index.search("дрель", 0, null, id -> id != 1L)).containsExactly(5L);
+    }
+
+    @Test
+    void search_ShouldIgnoreDissimilarWords_AndUnavailableItems() {
+        assertThat(index.search("молоток", 0, null)).isEmpty();
+        assertThat(index.search("ударная", 0, null)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldReturnSameResults_WhenRepeated_AndAfterDictionaryGrows() {
+        assertThat(index.search("дрелъ отвертка", 0, null)).isEmpty();
+        assertThat(index.search("дрелъ", 0, null)).containsExactly(1L);
+        assertThat(index.search("дрелъ", 0, null)).containsExactly(1L);
+
+        for (long id = 10; id < 1200; id++) {
+            index.index(item(id, "tool" + id, "", true));
+        }
+
+        assertThat(index.termCount()).isGreaterThan(1024);
+        assertThat(index.search("дрелъ", 0, null)).containsExactly(1L);
+        assertThat(index.search("tool1199", 0, 1)).containsExactly(1199L);
+    }
+
+    @Test
+    void search_ShouldPaginate() {
+        index.index(item(5L, "Дрели", "Набор", true));
+
+        assertThat(index.search("дрель", 1, 1)).containsExactly(5L);
+        assertThat(index.search("дрель", 2, 1)).isEmpty();
+    }
+
+    @Test
+    void remove_ShouldDropItemAndReuseFreedTerms() {
+        int terms = index.termCount();
+
+        index.remove(2L);
+        index.index(item(6L, "Ladder", "Three steps", true));
+
+        assertThat(index.search("dril", 0, null)).isEmpty();
+        assertThat(index.search("ladder", 0, null)).containsExactly(6L);
+        assertThat(index.termCount()).isEqualTo(terms - 4 + 3);
+    }
+
+    @Test
+    void warmUp_ShouldLoadItemsFromRepository() {
+        index = new ItemTrigramIndex(repository, 0.3, 32);
+        when(repository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item(7L, "Стремянка", "Три ступени", true))));
+
+        index.warmUp();
+
+        assertThat(index.search("стремянко", 0, null)).containsExactly(7L);
+    }
+
+    @Test
+    void trigrams_ShouldBePaddedAndDistinct() {
+        assertThat(ItemTrigramIndex.trigrams("aaa")).hasSize(4);
+        assertThat(ItemTrigramIndex.trigrams("a")).hasSize(2);
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = ItemSearchEngine.PROPERTY + "=postgres")
+@Import(PostgresItemSearch.class)
+class PostgresItemSearchTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemSearchEngine search;
+
+    private Item drill;
+    private Item cordless;
+    private Item broken;
+
+    @BeforeEach
+    void setUp() {
+        User owner = em.persist(new User(null, "Owner", "owner@example.com"));
+        drill = em.persist(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        cordless = em.persist(new Item(null, "Аккумуляторная дрель", "Аккумулятор в комплекте", true, owner, null));
+        broken = em.persist(new Item(null, "Дрель ударная", "Сломана", false, owner, null));
+        em.persist(new Item(null, "Пила", "Ножовка", true, owner, null));
+        em.flush();
+    }
+
+    @Test
+    void search_ShouldFallBackToLikeOnH2_AndSkipUnavailableItems() {
+        assertThat(search).isInstanceOf(PostgresItemSearch.class);
+        assertThat(search.search("ДРЕЛЬ", 0, null, ItemSearchSort.NAME)).containsExactly(cordless.getId(), drill.getId())
+                .doesNotContain(broken.getId());
+    }
+
+    @Test
+    void search_ShouldOrderFallbackByName_EvenForRelevance() {
+        assertThat(search.search("дрель", 0, null, ItemSearchSort.RELEVANCE))
+                .containsExactly(cordless.getId(), drill.getId());
+    }
+
+    @Test
+    void search_ShouldApplyFilterBeforePagination() {
+        assertThat(search.search("дрель", 0, 1, ItemSearchSort.NAME, id -> id != cordless.getId()))
+                .containsExactly(drill.getId());
+        assertThat(search.search("дрель", 1, 1, ItemSearchSort.NAME, id -> id != cordless.getId())).isEmpty();
+    }
+
+    @Test
+    void search_ShouldPaginateFallbackResults() {
+        assertThat(search.search("дрель", 1, 5, ItemSearchSort.NAME)).containsExactly(drill.getId());
+        assertThat(search.search("дрель", 0, 1, ItemSearchSort.NAME)).containsExactly(cordless.getId());
+        assertThat(search.search("дрель", 2, 1, ItemSearchSort.NAME)).isEmpty();
+    }
+}
@@ -0,0 +1,217 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+    private OutboxEventRepository repository;
+    private RecordingSubscriber first;
+    private RecordingSubscriber second;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        first = new RecordingSubscriber();
+        second = new RecordingSubscriber();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (relay != null) {
+            relay.stop();
+        }
+    }
+
+    private OutboxRelay relay(long gapRetentionMillis) {
+        relay = new OutboxRelay(repository, List.of(first, second), mock(PlatformTransactionManager.class),
+                100, 4, 1_000, gapRetentionMillis, 1_000, 10, 40);
+        relay.startWorkers();
+        return relay;
+    }
+
+    private static OutboxEvent event(long id) {
+        return new OutboxEvent(id, Outbox.BOOKING, id * 10, Outbox.CREATED, "{}", LocalDateTime.now());
+    }
+
+    @Test
+    void relayOnce_ShouldDispatchBatchInIdOrderToEverySubscriber() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(1), event(2), event(3)));
+
+        assertThat(relay(5_000).relayOnce()).isEqualTo(3);
+
+        first.await(3);
+        second.await(3);
+        assertThat(first.ids()).containsExactly(1L, 2L, 3L);
+        assertThat(second.ids()).containsExactly(1L, 2L, 3L);
+        relay.relayOnce();
+        verify(repository).findByIdGreaterThanOrderByIdAsc(eq(3L), any(Pageable.class));
+    }
+
+    @Test
+    void relayOnce_ShouldDeliverPastGap_AndDeliverLateCommittedEventOnLaterPoll() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(1), event(2), event(4)));
+        OutboxRelay relay = relay(60_000);
+
+        assertThat(relay.relayOnce()).isEqualTo(3);
+        first.await(3);
+        second.await(3);
+        assertThat(relay.gapCount()).isEqualTo(1);
+        awaitPurge(relay, 2L);
+        verify(repository, atLeastOnce()).findByIdInOrderByIdAsc(List.of(3L));
+        verify(repository, never()).deleteUpTo(4L);
+
+        when(repository.findByIdInOrderByIdAsc(List.of(3L))).thenReturn(List.of(event(3)));
+        assertThat(relay.relayOnce()).isEqualTo(1);
+
+        first.await(4);
+        second.await(4);
+        assertThat(first.ids()).containsExactly(1L, 2L, 4L, 3L);
+        assertThat(relay.gapCount()).isZero();
+        awaitPurge(relay, 4L);
+    }
+
+    @Test
+    void relayOnce_ShouldForgetGap_WhenGapRetentionPasses() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(1), event(2), event(4)));
+        OutboxRelay relay = relay(0);
+
+        assertThat(relay.relayOnce()).isEqualTo(3);
+        first.await(3);
+        second.await(3);
+        awaitPurge(relay, 4L);
+
+        assertThat(first.ids()).containsExactly(1L, 2L, 4L);
+        assertThat(relay.gapCount()).isZero();
+        verify(repository, never()).findByIdInOrderByIdAsc(any());
+    }
+
+    @Test
+    void relayOnce_ShouldStartFromFirstVisibleEvent_AndExpectLowerIdsCommittedLater() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(41), event(42)));
+        OutboxRelay relay = relay(60_000);
+
+        assertThat(relay.relayOnce()).isEqualTo(2);
+        first.await(2);
+        assertThat(first.ids()).containsExactly(41L, 42L);
+        assertThat(relay.gapCount()).isEqualTo(40);
+
+        when(repository.findByIdInOrderByIdAsc(any())).thenReturn(List.of(event(40)));
+        assertThat(relay.relayOnce()).isEqualTo(1);
+
+        first.await(3);
+        assertThat(first.ids()).containsExactly(41L, 42L, 40L);
+        assertThat(relay.gapCount()).isEqualTo(39);
+        verify(repository, never()).deleteUpTo(anyLong());
+    }
+
+    @Test
+    void relayOnce_ShouldPurgeOnlyEventsProcessedByAllSubscribers() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(1), event(2)));
+        CountDownLatch release = new CountDownLatch(1);
+        second.blockOn(release);
+        OutboxRelay relay = relay(5_000);
+
+        relay.relayOnce();
+        first.await(2);
+        relay.relayOnce();
+        verify(repository, never()).deleteUpTo(anyLong());
+
+        release.countDown();
+        second.await(2);
+        awaitPurge(relay, 2L);
+    }
+
+    @Test
+    void worker_ShouldRetryFailedBatch_AndPurgeOnlyAfterSuccess() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(1), event(2)));
+        first.failTimes(3);
+        OutboxRelay relay = relay(5_000);
+
+        relay.relayOnce();
+        second.await(2);
+        relay.relayOnce();
+        verify(repository, never()).deleteUpTo(anyLong());
+
+        first.await(2);
+        assertThat(first.attempts()).isEqualTo(4);
+        awaitPurge(relay, 2L);
+    }
+
+    private void awaitPurge(OutboxRelay relay, long id) throws InterruptedException {
+        for (int i = 0; i < 100 && mockingDetails(repository).getInvocations().stream()
+                .noneMatch(invocation -> invocation.getMethod().getName().equals("deleteUpTo")
+                        && invocation.getArgument(0).equals(id)); i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            relay.relayOnce();
+        }
+        verify(repository).deleteUpTo(id);
+    }
+
+    private static final class RecordingSubscriber implements OutboxSubscriber {
+        private final List<OutboxMessage> received = new CopyOnWriteArrayList<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile CountDownLatch gate;
+        private volatile int failures;
+
+        void blockOn(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        void failTimes(int failures) {
+            this.failures = failures;
+        }
+
+        int attempts() {
+            return attempts.get();
+        }
+
+        @Override
+        public void handle(List<OutboxMessage> events) {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IllegalStateException("Сбой подписчика");
+            }
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.addAll(events);
+        }
+
+        List<Long> ids() {
+            return received.stream().map(OutboxMessage::id).toList();
+        }
+
+        void await(int count) throws InterruptedException {
+            for (int i = 0; i < 500 && received.size() < count; i++) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            assertThat(received).hasSize(count);
+        }
+    }
+}
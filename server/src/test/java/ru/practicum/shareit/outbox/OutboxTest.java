@@ -0,0 +1,45 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class OutboxTest {
+    private OutboxEventRepository repository;
+    private OutboxRelay relay;
+    private Outbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        relay = mock(OutboxRelay.class);
+        outbox = new Outbox(repository, relay, new ObjectMapper());
+    }
+
+    @Test
+    void append_ShouldSaveSerializedEventAndWakeUpRelay() {
+        outbox.append(Outbox.ITEM, 7L, Outbox.UPDATED, Outbox.payload("ownerId", 1L, "requestId", null));
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(repository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertThat(event.getId()).isNull();
+        assertThat(event.getAggregateType()).isEqualTo(Outbox.ITEM);
+        assertThat(event.getAggregateId()).isEqualTo(7L);
+        assertThat(event.getEventType()).isEqualTo(Outbox.UPDATED);
+        assertThat(event.getPayload()).isEqualTo("{\"ownerId\":1,\"requestId\":null}");
+        assertThat(event.getCreated()).isNotNull();
+        verify(relay).wakeUp();
+    }
+
+    @Test
+    void payload_ShouldRejectOddNumberOfArguments() {
+        assertThatThrownBy(() -> Outbox.payload("ownerId"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
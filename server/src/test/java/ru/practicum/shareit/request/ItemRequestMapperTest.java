@@ -1,16 +1,19 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -26,6 +29,8 @@ class ItemRequestMapperTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Spy
+    private LookupContext lookups = new LookupContext(new SimpleMeterRegistry());
 
     @InjectMocks
     private ItemRequestMapper itemRequestMapper;
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.CheckConsistencyService;
 import ru.practicum.shareit.user.User;
@@ -27,6 +28,9 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestMapper mapper;
 
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private ItemRequestServiceImpl service;
 
@@ -55,6 +59,7 @@ class ItemRequestServiceImplTest {
 
         assertThat(result).isEqualTo(itemRequestDto);
         verify(repository).save(itemRequest);
+        verify(outbox).append(eq(Outbox.ITEM_REQUEST), eq(1L), eq(Outbox.CREATED), anyMap());
     }
 
     @Test
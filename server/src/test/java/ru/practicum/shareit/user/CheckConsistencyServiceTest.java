@@ -1,20 +1,24 @@
 package ru.practicum.shareit.user;
 
 import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemOwnership;
 import ru.practicum.shareit.item.ItemService;
-import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class CheckConsistencyServiceTest {
@@ -28,6 +32,15 @@ class CheckConsistencyServiceTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private ItemOwnership ownership;
+
+    @Mock
+    private UserExistenceCache existence;
+
+    @Spy
+    private LookupContext lookups = new LookupContext(new SimpleMeterRegistry());
+
     @InjectMocks
     private CheckConsistencyService checkConsistencyService;
 
@@ -39,25 +52,62 @@ class CheckConsistencyServiceTest {
     @Test
     void isUserExistsForStrictCheck_ShouldReturnTrue_WhenUserExists() {
         Long userId = 1L;
-        UserDto userDtoMock = mock(UserDto.class);
-        when(userService.getUserByIdOrThrow(userId)).thenReturn(userDtoMock);
+        when(existence.exists(userId)).thenReturn(true);
 
         boolean result = checkConsistencyService.isUserExistsForStrictCheck(userId);
 
         assertThat(result).isTrue();
-        verify(userService).getUserByIdOrThrow(userId);
+        verify(existence).exists(userId);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void isUserExistsForStrictCheck_ShouldThrowNotFound_WhenUserNotExists() {
+        when(existence.exists(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> checkConsistencyService.isUserExistsForStrictCheck(1L))
+                .isInstanceOf(DataNotFoundException.class)
+                .hasMessage("Пользователь с id=1 не найден");
     }
 
     @Test
     void isUserExistsForValidation_ShouldReturnTrue_WhenUserExists() {
         Long userId = 1L;
-        UserDto userDtoMock = mock(UserDto.class);
-        when(userService.getUserByIdOrValidation(userId)).thenReturn(userDtoMock);
+        when(existence.exists(userId)).thenReturn(true);
 
         boolean result = checkConsistencyService.isUserExistsForValidation(userId);
 
         assertThat(result).isTrue();
-        verify(userService).getUserByIdOrValidation(userId);
+        verify(existence).exists(userId);
+    }
+
+    @Test
+    void isUserExistsForValidation_ShouldThrowValidation_WhenUserNotFound() {
+        when(existence.exists(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> checkConsistencyService.isUserExistsForValidation(1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Пользователь с id=1 не найден");
+    }
+
+    @Test
+    void lookups_ShouldLoadUserAndItemOncePerScope() {
+        User user = mock(User.class);
+        Item item = mock(Item.class);
+        when(item.getAvailable()).thenReturn(true);
+        when(userService.findUserById(1L)).thenReturn(user);
+        when(itemService.findItemById(2L)).thenReturn(item);
+
+        try (LookupContext.Scope ignored = lookups.open()) {
+            checkConsistencyService.findUserById(1L);
+            checkConsistencyService.isAvailableItem(2L);
+            assertThat(checkConsistencyService.findUserById(1L)).isSameAs(user);
+            assertThat(checkConsistencyService.findItemById(2L)).isSameAs(item);
+        }
+        checkConsistencyService.findUserById(1L);
+
+        verify(userService, times(2)).findUserById(1L);
+        verify(itemService, times(1)).findItemById(2L);
     }
 
     @Test
@@ -78,16 +128,13 @@ class CheckConsistencyServiceTest {
         Long userId = 1L;
         Long itemId = 2L;
 
-        ItemDto itemDtoMock = mock(ItemDto.class);
-        when(itemDtoMock.getId()).thenReturn(itemId);
-
-        when(itemService.getItemsByOwner(userId, 0, null))
-                .thenReturn(List.of(itemDtoMock));
+        when(ownership.isOwner(itemId, userId)).thenReturn(true);
 
         boolean result = checkConsistencyService.isItemOwner(itemId, userId);
 
         assertThat(result).isTrue();
-        verify(itemService).getItemsByOwner(userId, 0, null);
+        verify(ownership).isOwner(itemId, userId);
+        verifyNoInteractions(itemService);
     }
 
     @Test
@@ -8,6 +8,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.LookupContext;
 
 import java.util.List;
 
@@ -26,6 +27,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private LookupContext lookupContext;
+
     @Autowired
     private ObjectMapper objectMapper;
 
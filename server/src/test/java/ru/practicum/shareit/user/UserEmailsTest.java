@@ -0,0 +1,97 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({UserEmails.class, SimpleMeterRegistry.class})
+class UserEmailsTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private UserEmails emails;
+
+    @Test
+    void insert_ShouldReturnId_WhenEmailIsFree() {
+        Long id = emails.insert("John", "john@example.com");
+
+        assertThat(id).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, id))
+                .isEqualTo("john@example.com");
+    }
+
+    @Test
+    void insert_ShouldReturnNull_WhenEmailTakenInAnotherCase() {
+        em.persistAndFlush(new User(null, "John", "john@example.com"));
+        emails.warmUp();
+
+        assertThat(emails.mightExist("JOHN@example.com")).isTrue();
+        assertThat(emails.insert("Other", "JOHN@example.com")).isNull();
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    void insert_ShouldSkipConflictCheck_WhenFilterSaysNew() {
+        emails.warmUp();
+
+        assertThat(emails.insert("John", "john@example.com")).isNotNull();
+
+        assertThat(registry.counter("shareit.user.email.filter", "result", "new").count()).isEqualTo(1);
+    }
+
+    @Test
+    void insert_ShouldReturnNull_WhenEmailWasWrittenPastTheFilter() {
+        emails.warmUp();
+        // Запись не зафиксирована, поэтому фильтр о ней не знает и выбирает вставку без проверки.
+        em.persistAndFlush(new User(null, "John", "john@example.com"));
+
+        assertThat(emails.insert("Other", "John@Example.com")).isNull();
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    void changeEmail_ShouldStayTheOnlyEmailWrite_WhenEntityIsFlushed() {
+        User john = em.persistAndFlush(new User(null, "John", "john@example.com"));
+
+        assertThat(emails.changeEmail(john.getId(), "john@example.com", "johnny@example.com")).isTrue();
+        john.setName("Johnny");
+        john.setEmail("stale@example.com");
+        em.flush();
+
+        assertThat(jdbcTemplate.queryForMap("SELECT name, email FROM users WHERE id = ?", john.getId()))
+                .containsEntry("NAME", "Johnny")
+                .containsEntry("EMAIL", "johnny@example.com");
+    }
+
+    @Test
+    void changeEmail_ShouldRejectEmailOfAnotherUser() {
+        User john = em.persistAndFlush(new User(null, "John", "john@example.com"));
+        em.persistAndFlush(new User(null, "Jane", "jane@example.com"));
+        emails.warmUp();
+
+        assertThat(emails.changeEmail(john.getId(), "john@example.com", "Jane@example.com")).isFalse();
+        assertThat(emails.changeEmail(john.getId(), "john@example.com", "John@Example.com")).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, john.getId()))
+                .isEqualTo("John@Example.com");
+    }
+
+    private Integer count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class UserExistenceCacheTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private SimpleMeterRegistry registry;
+    private UserExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        cache = new UserExistenceCache(repository, registry, 2, 60_000);
+    }
+
+    @Test
+    void exists_ShouldCachePositiveAndNegativeAnswers() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(2L)).thenReturn(false);
+
+        assertThat(cache.exists(1L)).isTrue();
+        assertThat(cache.exists(1L)).isTrue();
+        assertThat(cache.exists(2L)).isFalse();
+        assertThat(cache.exists(2L)).isFalse();
+
+        verify(repository, times(1)).existsById(1L);
+        verify(repository, times(1)).existsById(2L);
+        assertThat(registry.counter("shareit.user.exists.cache.gets", "result", "hit").count()).isEqualTo(1);
+        assertThat(registry.counter("shareit.user.exists.cache.gets", "result", "negative-hit").count())
+                .isEqualTo(1);
+        assertThat(registry.get("shareit.user.exists.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void invalidate_ShouldDropCachedAnswer() {
+        when(repository.existsById(1L)).thenReturn(false, true);
+
+        assertThat(cache.exists(1L)).isFalse();
+        cache.invalidate(1L);
+
+        assertThat(cache.exists(1L)).isTrue();
+        verify(repository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void exists_ShouldNotCacheAnswerLoadedBeforeInvalidation() {
+        when(repository.existsById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(1L);
+            return true;
+        });
+
+        cache.exists(1L);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void exists_ShouldRejectRareIdWhenFull() {
+        when(repository.existsById(anyLong())).thenReturn(true);
+        for (int i = 0; i < 3; i++) {
+            cache.exists(1L);
+            cache.exists(2L);
+        }
+
+        cache.exists(3L);
+        cache.exists(1L);
+        cache.exists(2L);
+
+        assertThat(cache.size()).isEqualTo(2);
+        verify(repository, times(1)).existsById(1L);
+        verify(repository, times(1)).existsById(2L);
+        assertThat(registry.counter("shareit.user.exists.cache.rejections").count()).isEqualTo(1);
+    }
+
+    @Test
+    void exists_ShouldAdmitIdMoreFrequentThanVictim() {
+        when(repository.existsById(anyLong())).thenReturn(true);
+        cache.exists(1L);
+        cache.exists(2L);
+        for (int i = 0; i < 3; i++) {
+            cache.exists(3L);
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(registry.counter("shareit.user.exists.cache.evictions").count()).isEqualTo(1);
+        cache.exists(3L);
+        verify(repository, times(2)).existsById(3L);
+    }
+
+    @Test
+    void exists_ShouldReloadExpiredAnswer() {
+        cache = new UserExistenceCache(repository, registry, 2, 0);
+        when(repository.existsById(1L)).thenReturn(true);
+
+        cache.exists(1L);
+        cache.exists(1L);
+
+        verify(repository, times(2)).existsById(1L);
+    }
+}
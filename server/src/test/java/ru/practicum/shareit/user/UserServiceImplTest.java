@@ -3,11 +3,11 @@ package ru.practicum.shareit.user;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import ru.practicum.shareit.exceptions.DataAlreadyExistsException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.*;
@@ -23,6 +23,18 @@ class UserServiceImplTest {
     @Mock
     private UserMapper mapper;
 
+    @Mock
+    private UserExistenceCache existence;
+
+    @Mock
+    private UserEmails emails;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -92,23 +104,37 @@ class UserServiceImplTest {
 
     @Test
     void create_ShouldReturnUserDto_WhenSuccess() {
-        when(mapper.toUser(userDto)).thenReturn(user);
-        when(repository.save(user)).thenReturn(user);
-        when(mapper.toUserDto(user)).thenReturn(userDto);
+        User created = new User(null, "John Doe", "john@example.com");
+        when(mapper.toUser(userDto)).thenReturn(created);
+        when(emails.insert("John Doe", "john@example.com")).thenReturn(1L);
+        when(mapper.toUserDto(created)).thenReturn(userDto);
 
         UserDto result = userService.create(userDto);
 
         assertThat(result).isEqualTo(userDto);
+        assertThat(created.getId()).isEqualTo(1L);
+        verify(existence).invalidate(1L);
+        verify(repository, never()).save(any());
     }
 
     @Test
     void create_ShouldThrowDataAlreadyExistsException_WhenEmailExists() {
         when(mapper.toUser(userDto)).thenReturn(user);
-        when(repository.save(user)).thenThrow(DataIntegrityViolationException.class);
+        when(emails.insert(user.getName(), user.getEmail())).thenReturn(null);
 
         assertThatThrownBy(() -> userService.create(userDto))
                 .isInstanceOf(DataAlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с email=" + userDto.getEmail() + " уже существует");
+        verifyNoInteractions(existence);
+    }
+
+    @Test
+    void create_ShouldThrowValidationException_WhenEmailBlank() {
+        when(mapper.toUser(userDto)).thenReturn(new User(null, "John Doe", " "));
+
+        assertThatThrownBy(() -> userService.create(userDto))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(emails);
     }
 
     @Test
@@ -117,8 +143,7 @@ class UserServiceImplTest {
         User updatedUser = new User(1L, "Jane Doe", "jane@example.com");
 
         when(repository.findById(1L)).thenReturn(Optional.of(user));
-        // Для проверки email, в репозитории возвращаем List с юзером, у которого id совпадает с обновляемым
-        when(repository.findByEmail(updatedDto.getEmail())).thenReturn(List.of(new User(1L, "Jane Doe", "jane@example.com")));
+        when(emails.changeEmail(1L, "john@example.com", "jane@example.com")).thenReturn(true);
         when(repository.save(any(User.class))).thenReturn(updatedUser);
         when(mapper.toUserDto(updatedUser)).thenReturn(updatedDto);
 
@@ -126,6 +151,7 @@ class UserServiceImplTest {
 
         assertThat(result.getName()).isEqualTo("Jane Doe");
         assertThat(result.getEmail()).isEqualTo("jane@example.com");
+        assertThat(user.getEmail()).isEqualTo("jane@example.com");
     }
 
     @Test
@@ -142,19 +168,20 @@ class UserServiceImplTest {
         assertThat(result.getName()).isEqualTo("Jane Doe");
         // Email не меняется
         assertThat(result.getEmail()).isNull();
+        verifyNoInteractions(emails);
     }
 
     @Test
     void update_ShouldThrowDataAlreadyExistsException_WhenEmailExistsAndBelongsToOtherUser() {
         UserDto updatedDto = new UserDto(null, "Jane Doe", "existing@example.com");
-        User existingUser = new User(2L, "Other", "existing@example.com");
 
         when(repository.findById(1L)).thenReturn(Optional.of(user));
-        when(repository.findByEmail(updatedDto.getEmail())).thenReturn(List.of(existingUser));
+        when(emails.changeEmail(1L, "john@example.com", "existing@example.com")).thenReturn(false);
 
         assertThatThrownBy(() -> userService.update(updatedDto, 1L))
                 .isInstanceOf(DataAlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с email=" + updatedDto.getEmail() + " уже существует");
+        verify(repository, never()).save(any());
     }
 
     @Test
@@ -169,17 +196,22 @@ class UserServiceImplTest {
     }
 
     @Test
-    void delete_ShouldCallDeleteById_WhenUserExists() {
-        doNothing().when(repository).deleteById(1L);
+    void delete_ShouldDeleteUser_WhenUserExists() {
+        when(repository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRepository.findIdsByOwnerId(1L)).thenReturn(List.of(10L, 11L));
 
         userService.delete(1L);
 
-        verify(repository).deleteById(1L);
+        verify(repository).delete(user);
+        verify(emails).deleted("john@example.com");
+        verify(existence).invalidate(1L);
+        verify(outbox).append(eq(Outbox.ITEM), eq(10L), eq(Outbox.DELETED), anyMap());
+        verify(outbox).append(eq(Outbox.ITEM), eq(11L), eq(Outbox.DELETED), anyMap());
     }
 
     @Test
     void delete_ShouldThrowDataNotFoundException_WhenUserNotExists() {
-        doThrow(EmptyResultDataAccessException.class).when(repository).deleteById(1L);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.delete(1L))
                 .isInstanceOf(DataNotFoundException.class)
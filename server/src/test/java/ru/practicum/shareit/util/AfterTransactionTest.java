@@ -0,0 +1,61 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AfterTransactionTest {
+    private final List<String> actions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void commit_ShouldRunImmediately_WhenNoTransaction() {
+        AfterTransaction.commit(() -> actions.add("commit"));
+        AfterTransaction.rollback(() -> actions.add("rollback"));
+
+        assertThat(actions).containsExactly("commit");
+    }
+
+    @Test
+    void commit_ShouldRunOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AfterTransaction.commit(() -> actions.add("commit"));
+        AfterTransaction.rollback(() -> actions.add("rollback"));
+        assertThat(actions).isEmpty();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(actions).containsExactly("commit");
+    }
+
+    @Test
+    void rollback_ShouldRunOnlyAfterRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        AfterTransaction.commit(() -> actions.add("commit"));
+        AfterTransaction.rollback(() -> actions.add("rollback"));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(actions).containsExactly("rollback");
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
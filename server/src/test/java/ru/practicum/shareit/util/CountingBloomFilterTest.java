@@ -0,0 +1,67 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAddedKeys() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositiveRateNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void remove_ShouldForgetKeyButKeepOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+        filter.add("a@example.com");
+        filter.add("b@example.com");
+        filter.add("b@example.com");
+
+        filter.remove("a@example.com");
+        filter.remove("b@example.com");
+
+        assertThat(filter.mightContain("a@example.com")).isFalse();
+        assertThat(filter.mightContain("b@example.com")).isTrue();
+    }
+
+    @Test
+    void remove_ShouldIgnoreAbsentKey() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+        filter.add("a@example.com");
+
+        filter.remove("c@example.com");
+
+        assertThat(filter.mightContain("a@example.com")).isTrue();
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidRate() {
+        assertThatThrownBy(() -> new CountingBloomFilter(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
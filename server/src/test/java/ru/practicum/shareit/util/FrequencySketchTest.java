@@ -0,0 +1,46 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void frequency_ShouldCountUpToFifteen() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(42);
+            assertThat(sketch.frequency(42)).isEqualTo(Math.min(i + 1, 15));
+        }
+    }
+
+    @Test
+    void frequency_ShouldNotUnderestimate() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        for (long key = 1; key <= 500; key++) {
+            for (int i = 0; i < key % 5; i++) {
+                sketch.increment(key);
+            }
+        }
+        for (long key = 1; key <= 500; key++) {
+            assertThat(sketch.frequency(key)).isGreaterThanOrEqualTo((int) (key % 5));
+        }
+    }
+
+    @Test
+    void increment_ShouldHalveCounters_WhenSampleIsFull() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(1);
+        }
+        for (long key = 2; key < 10_231; key++) {
+            sketch.increment(key);
+        }
+        assertThat(sketch.frequency(1)).isGreaterThanOrEqualTo(10);
+
+        sketch.increment(10_231);
+
+        assertThat(sketch.frequency(1)).isBetween(5, 7);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongMapTest {
+
+    @Test
+    void put_ShouldReplaceValueAndGrow() {
+        LongLongMap map = new LongLongMap(4);
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, key * 10);
+        }
+        map.put(7, 77);
+
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.get(7, -1)).isEqualTo(77);
+        assertThat(map.get(1000, -1)).isEqualTo(10_000);
+        assertThat(map.get(1001, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void zeroKey_ShouldBeStoredSeparately() {
+        LongLongMap map = new LongLongMap(4);
+        map.put(0, 5);
+
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(0, -1)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.remove(0)).isTrue();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.remove(0)).isFalse();
+    }
+
+    @Test
+    void removeValue_ShouldRemoveAllKeysWithValue() {
+        LongLongMap map = new LongLongMap(4);
+        for (long key = 0; key < 100; key++) {
+            map.put(key, key % 3);
+        }
+
+        int removed = map.removeValue(0);
+
+        assertThat(removed).isEqualTo(34);
+        assertThat(map.size()).isEqualTo(66);
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.containsKey(99)).isFalse();
+        assertThat(map.get(98, -1)).isEqualTo(2);
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashMap() {
+        Random random = new Random(42);
+        LongLongMap map = new LongLongMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    long value = random.nextLong();
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                case 1 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+                default -> assertThat(map.get(key, Long.MIN_VALUE))
+                        .isEqualTo(expected.getOrDefault(key, Long.MIN_VALUE));
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey(), Long.MIN_VALUE)).isEqualTo(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LookupContextTest {
+    private SimpleMeterRegistry registry;
+    private LookupContext lookups;
+    private AtomicInteger loads;
+    private Function<Long, String> loader;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        lookups = new LookupContext(registry);
+        loads = new AtomicInteger();
+        loader = id -> "entity-" + id + "-" + loads.incrementAndGet();
+    }
+
+    @Test
+    void get_ShouldLoadOncePerScopeAndCountSavedLoads() {
+        try (LookupContext.Scope ignored = lookups.open()) {
+            String first = lookups.get(String.class, 1L, loader);
+
+            assertThat(lookups.get(String.class, 1L, loader)).isSameAs(first);
+            assertThat(lookups.get(String.class, 2L, loader)).isEqualTo("entity-2-2");
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(registry.counter("shareit.lookup.loads", "entity", "String").count()).isEqualTo(2);
+        assertThat(registry.counter("shareit.lookup.saved", "entity", "String").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenNoScopeIsOpen() {
+        lookups.get(String.class, 1L, loader);
+        lookups.get(String.class, 1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldNotRememberFailedLoad() {
+        try (LookupContext.Scope ignored = lookups.open()) {
+            assertThatThrownBy(() -> lookups.get(String.class, 1L, id -> {
+                throw new IllegalStateException("нет");
+            })).isInstanceOf(IllegalStateException.class);
+
+            assertThat(lookups.get(String.class, 1L, loader)).isEqualTo("entity-1-1");
+        }
+    }
+
+    @Test
+    void open_ShouldKeepOuterScope_WhenNested() {
+        try (LookupContext.Scope outer = lookups.open()) {
+            lookups.get(String.class, 1L, loader);
+            try (LookupContext.Scope inner = lookups.open()) {
+                lookups.get(String.class, 1L, loader);
+            }
+            lookups.get(String.class, 1L, loader);
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void bind_ShouldShareScopeWithAnotherThread() {
+        String loaded;
+        String fromOtherThread;
+        try (LookupContext.Scope ignored = lookups.open()) {
+            loaded = lookups.get(String.class, 1L, loader);
+            fromOtherThread = CompletableFuture.supplyAsync(lookups.bind(() -> lookups.get(String.class, 1L, loader)))
+                    .join();
+        }
+
+        assertThat(fromOtherThread).isSameAs(loaded);
+        assertThat(loads).hasValue(1);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+    private static final long TICK = 1_000;
+
+    @Test
+    void advanceTo_ShouldFireTasksAtTheirTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 2, 0);
+        wheel.schedule(3 * TICK, "three");
+        wheel.schedule(TICK, "one");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(2 * TICK, fired::add);
+        assertThat(fired).containsExactly("one");
+
+        wheel.advanceTo(3 * TICK, fired::add);
+        assertThat(fired).containsExactly("one", "three");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advanceTo_ShouldCascadeFromHigherLevelsAndOverflow() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, 0);
+        long[] ticks = {63, 64, 65, 127, 128, 4095, 4096, 4097, 10_000, 50_000};
+        for (long tick : ticks) {
+            wheel.schedule(tick * TICK, tick);
+        }
+
+        for (long tick : ticks) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advanceTo((tick - 1) * TICK, fired::add);
+            assertThat(fired).as("раньше срока, тик %d", tick).doesNotContain(tick);
+            wheel.advanceTo(tick * TICK, fired::add);
+            assertThat(fired).as("в срок, тик %d", tick).containsExactly(tick);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void schedule_ShouldReturnFalse_WhenDeadlinePassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 1, 10 * TICK);
+
+        assertThat(wheel.schedule(10 * TICK, "now")).isFalse();
+        assertThat(wheel.schedule(5 * TICK, "past")).isFalse();
+        assertThat(wheel.schedule(11 * TICK, "next")).isTrue();
+    }
+
+    @Test
+    void advanceTo_ShouldSkipIdleTime_WhenEmpty() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 1, 0);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(1_000_000 * TICK, fired::add);
+        wheel.schedule(1_000_001 * TICK, "late");
+        wheel.advanceTo(1_000_001 * TICK, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void constructor_ShouldThrow_WhenTickIsNotPositive() {
+        assertThatThrownBy(() -> new TimingWheel<>(0, 1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}